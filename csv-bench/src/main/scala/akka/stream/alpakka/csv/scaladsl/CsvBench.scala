@@ -84,6 +84,18 @@ class CsvBench {
     Await.result(futureDone, Duration.Inf)
   }
 
+  @Benchmark
+  def parseFastScan(bh: Blackhole): Unit = {
+    val futureDone = {
+      source
+        .via(CsvParsing.fastLineScanner())
+        .runForeach { fields =>
+          bh.consume(fields.head.utf8String)
+        }
+    }
+    Await.result(futureDone, Duration.Inf)
+  }
+
   @TearDown
   def tearDown(): Unit = {
     mat.shutdown()
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv.scaladsl
+
+import akka.util.ByteString
+
+import scala.collection.immutable
+
+/**
+ * Inputs shared by the CSV benchmarks.
+ */
+object CsvBenchData {
+
+  /** Approx 1 MiB, for easy conversion from ops/s. */
+  val TargetSize: Int = 1024 * 1024
+
+  /**
+   * Fields of one row of the given kind of data.
+   *
+   *  - `unquoted`: 8 fields of 100 ASCII chars
+   *  - `quoted`: 8 quoted fields containing delimiters and doubled quotes
+   *  - `escaped`: 8 fields containing escaped delimiters and escape chars
+   *  - `utf8`: 8 fields of 100 multi-byte UTF-8 chars
+   *  - `wide`: 500 fields of 10 chars
+   *  - `narrow`: 2 fields of 3 chars
+   */
+  def fields(kind: String): immutable.Seq[String] = kind match {
+    case "unquoted" => ('a' to 'h').map(_.toString * 100)
+    case "quoted" => ('a' to 'h').map(c => c.toString * 40 + ",\"" + c.toString * 40)
+    case "escaped" => ('a' to 'h').map(c => c.toString * 40 + "\\" + c.toString * 20 + "," + c.toString * 20)
+    case "utf8" => "ℵñÅëอักษรไทย".take(8).map(_.toString * 100)
+    case "wide" => (1 to 500).map(i => f"$i%010d")
+    case "narrow" => List("abc", "def")
+    case other => throw new IllegalArgumentException(s"unknown kind of data [$other]")
+  }
+
+  /** One CSV line of the given kind of data, as written by other tools. */
+  def line(kind: String): ByteString = kind match {
+    case "quoted" => ByteString(fields(kind).map(f => "\"" + f.replace("\"", "\"\"") + "\"").mkString("", ",", "\n"))
+    case "escaped" =>
+      ByteString(fields(kind).map(_.replace("\\", "\\\\").replace(",", "\\,")).mkString("", ",", "\n"))
+    case _ => ByteString(fields(kind).mkString("", ",", "\n"))
+  }
+
+  /**
+   * Lines of the given kind adding up to about [[TargetSize]], in compact chunks of `chunkSize` bytes.
+   *
+   * Reframed so csv boundaries misalign with ByteString chunks as they would in reality.
+   */
+  def chunks(kind: String, chunkSize: Int, byteOrderMark: Boolean = false): immutable.IndexedSeq[ByteString] = {
+    val row = line(kind)
+    val all = Iterator
+      .continually(row)
+      .take(math.max(1, TargetSize / row.length))
+      .foldLeft(if (byteOrderMark) ByteOrderMark.UTF_8 else ByteString.empty)(_ ++ _)
+    all.grouped(chunkSize).map(_.compact).toIndexedSeq
+  }
+
+  /** Rows of the given kind adding up to about [[TargetSize]] when formatted. */
+  def rows(kind: String): immutable.IndexedSeq[List[String]] = {
+    val row = fields(kind).toList
+    Vector.fill(math.max(1, TargetSize / line(kind).length))(row)
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv.scaladsl
+
+import java.util.concurrent.TimeUnit
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.ActorMaterializer
+import akka.stream.scaladsl.Source
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures the time to format rows into about 1 MB of CSV data.
+ *
+ * See [[CsvBenchData.fields]] for the kinds of data.
+ *
+ * @see https://github.com/ktoso/sbt-jmh
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class CsvFormattingBench {
+
+  implicit val system = ActorSystem()
+  implicit val executionContext = system.dispatcher
+  implicit val mat = ActorMaterializer()
+
+  @Param(Array("unquoted", "quoted", "escaped", "utf8", "wide", "narrow"))
+  var data: String = _
+
+  var source: Source[List[String], NotUsed] = _
+
+  @Benchmark
+  def format(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(CsvFormatting.format())
+        .runForeach(bytes => bh.consume(bytes))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def formatBatched(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(CsvFormatting.formatBatched(batchSize = 64 * 1024))
+        .runForeach(bytes => bh.consume(bytes))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    mat.shutdown()
+    system.terminate()
+  }
+
+  @Setup
+  def setup(): Unit =
+    source = Source(CsvBenchData.rows(data))
+}
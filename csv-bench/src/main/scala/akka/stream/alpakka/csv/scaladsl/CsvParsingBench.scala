@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv.scaladsl
+
+import java.util.concurrent.TimeUnit
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.ActorMaterializer
+import akka.stream.scaladsl.{Flow, Source}
+import akka.util.ByteString
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures the time to parse about 1 MB of different kinds of CSV data, consuming all fields of each row.
+ *
+ * See [[CsvBenchData.fields]] for the kinds of data. `bom` is `unquoted` data starting with a UTF-8 Byte Order Mark.
+ *
+ * ==Allocation rates==
+ * Run with JMH's GC profiler to report allocation rates per operation:
+ * > csv-bench/jmh:run -prof gc -t1 -f1 -wi 5 -i 10 .*CsvParsingBench
+ *
+ * @see https://github.com/ktoso/sbt-jmh
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class CsvParsingBench {
+
+  implicit val system = ActorSystem()
+  implicit val executionContext = system.dispatcher
+  implicit val mat = ActorMaterializer()
+
+  @Param(Array("unquoted", "quoted", "escaped", "utf8", "wide", "narrow", "bom"))
+  var data: String = _
+
+  @Param(Array("lineScanner", "fastLineScanner"))
+  var scanner: String = _
+
+  var source: Source[ByteString, NotUsed] = _
+  var flow: Flow[ByteString, List[ByteString], NotUsed] = _
+
+  @Benchmark
+  def parse(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(flow)
+        .runForeach { fields =>
+          fields.foreach(field => bh.consume(field))
+        }
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    mat.shutdown()
+    system.terminate()
+  }
+
+  @Setup
+  def setup(): Unit = {
+    val chunks =
+      if (data == "bom") CsvBenchData.chunks("unquoted", 8192, byteOrderMark = true)
+      else CsvBenchData.chunks(data, 8192)
+    source = Source(chunks)
+    flow = scanner match {
+      case "fastLineScanner" => CsvParsing.fastLineScanner()
+      case _ => CsvParsing.lineScanner()
+    }
+  }
+}
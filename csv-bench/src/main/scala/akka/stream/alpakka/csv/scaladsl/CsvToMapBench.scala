@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv.scaladsl
+
+import java.util.concurrent.TimeUnit
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.ActorMaterializer
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures the time to convert the parsed lines of about 1 MB of CSV data to maps,
+ * reading the first column of each line.
+ *
+ * See [[CsvBenchData.fields]] for the kinds of data.
+ *
+ * @see https://github.com/ktoso/sbt-jmh
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class CsvToMapBench {
+
+  implicit val system = ActorSystem()
+  implicit val executionContext = system.dispatcher
+  implicit val mat = ActorMaterializer()
+
+  @Param(Array("unquoted", "utf8", "wide", "narrow"))
+  var data: String = _
+
+  var source: Source[List[ByteString], NotUsed] = _
+  var firstColumn: String = _
+
+  @Benchmark
+  def toMap(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(CsvToMap.toMap())
+        .runForeach(map => bh.consume(map(firstColumn)))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def toMapAsStrings(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(CsvToMap.toMapAsStrings())
+        .runForeach(map => bh.consume(map(firstColumn)))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def toIndexedRecord(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(CsvToMap.toIndexedRecord())
+        .runForeach(record => bh.consume(record.getString(firstColumn)))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    mat.shutdown()
+    system.terminate()
+  }
+
+  @Setup
+  def setup(): Unit = {
+    // unique column names, as map keys
+    val header = CsvBenchData.fields(data).indices.map(i => ByteString(s"column$i")).toList
+    val lines = Vector.fill(CsvBenchData.rows(data).size)(CsvBenchData.fields(data).map(ByteString(_)).toList)
+    firstColumn = "column0"
+    source = Source(header +: lines)
+  }
+}
@@ -80,4 +80,48 @@ public class CsvFormatting {
         .map(c -> JavaConverters.collectionAsScalaIterableConverter(c).asScala().toList())
         .via(formattingFlow);
   }
+
+  /**
+   * Generates CSV with the specified special characters and character set, emitting the lines in
+   * batches of at least {@code batchSize} bytes. Lines are held back until a batch is complete or
+   * the stream completes.
+   *
+   * @param batchSize Minimum number of bytes per emitted ByteString
+   * @param delimiter Delimiter between columns
+   * @param quoteChar Quoting character
+   * @param escapeChar Escape character
+   * @param endOfLine End of line character sequence
+   * @param quotingStyle Quote all values or as required
+   * @param charset Character set to be used
+   * @param byteOrderMark Certain CSV readers (namely Microsoft Excel) require a Byte Order mark
+   * @param <T> Any collection implementation
+   * @return The formatting flow
+   */
+  public static <T extends Collection<String>> Flow<T, ByteString, NotUsed> formatBatched(
+      int batchSize,
+      char delimiter,
+      char quoteChar,
+      char escapeChar,
+      String endOfLine,
+      CsvQuotingStyle quotingStyle,
+      Charset charset,
+      Optional<ByteString> byteOrderMark) {
+    akka.stream.alpakka.csv.scaladsl.CsvQuotingStyle qs =
+        CsvQuotingStyle$.MODULE$.asScala(quotingStyle);
+    Option<ByteString> byteOrderMarkScala =
+        byteOrderMark.<Option<ByteString>>map(Some::apply).orElse(Option.empty());
+    akka.stream.scaladsl.Flow<List<String>, ByteString, NotUsed> formattingFlow =
+        akka.stream.alpakka.csv.scaladsl.CsvFormatting.formatBatched(
+            batchSize,
+            delimiter,
+            quoteChar,
+            escapeChar,
+            endOfLine,
+            qs,
+            charset,
+            byteOrderMarkScala);
+    return Flow.<T>create()
+        .map(c -> JavaConverters.collectionAsScalaIterableConverter(c).asScala().toList())
+        .via(formattingFlow);
+  }
 }
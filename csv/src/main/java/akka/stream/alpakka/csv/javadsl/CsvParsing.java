@@ -5,11 +5,15 @@
 package akka.stream.alpakka.csv.javadsl;
 
 import akka.NotUsed;
+import akka.stream.alpakka.csv.CsvRow;
 import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Source;
 import akka.util.ByteString;
 import scala.collection.JavaConverters;
 
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Set;
 
 public class CsvParsing {
 
@@ -20,6 +24,7 @@ public class CsvParsing {
   public static final byte TAB = '\t';
   public static final byte DOUBLE_QUOTE = '"';
   public static final int MAXIMUM_LINE_LENGTH_DEFAULT = 10 * 1024;
+  public static final int SPLIT_SIZE_DEFAULT = 8 * 1024 * 1024;
 
   public static Flow<ByteString, Collection<ByteString>, NotUsed> lineScanner() {
     return lineScanner(COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
@@ -38,4 +43,104 @@ public class CsvParsing {
         .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection())
         .mapMaterializedValue(m -> NotUsed.getInstance());
   }
+
+  /**
+   * Creates CSV parsing flow that reads CSV lines just like {@link #lineScanner()}, but scans the
+   * incoming chunks for delimiter, quote, escape, CR and LF eight bytes at a time.
+   */
+  public static Flow<ByteString, Collection<ByteString>, NotUsed> fastLineScanner() {
+    return fastLineScanner(COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  public static Flow<ByteString, Collection<ByteString>, NotUsed> fastLineScanner(
+      byte delimiter, byte quoteChar, byte escapeChar, int maximumLineLength) {
+    return akka.stream.alpakka.csv.scaladsl.CsvParsing.fastLineScanner(
+            delimiter, quoteChar, escapeChar, maximumLineLength)
+        .asJava()
+        .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection())
+        .mapMaterializedValue(m -> NotUsed.getInstance());
+  }
+
+  /**
+   * Creates CSV parsing flow that reads only the given columns of CSV lines. Fields of other
+   * columns are skipped without being sliced or copied. The selected fields are emitted in
+   * ascending column order.
+   *
+   * @param columns zero-based indices of the columns to emit
+   */
+  public static Flow<ByteString, Collection<ByteString>, NotUsed> columnScanner(
+      Set<Integer> columns) {
+    return columnScanner(columns, COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  public static Flow<ByteString, Collection<ByteString>, NotUsed> columnScanner(
+      Set<Integer> columns,
+      byte delimiter,
+      byte quoteChar,
+      byte escapeChar,
+      int maximumLineLength) {
+    return akka.stream.alpakka.csv.scaladsl.CsvParsing.columnScanner(
+            toScala(columns), delimiter, quoteChar, escapeChar, maximumLineLength)
+        .asJava()
+        .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection())
+        .mapMaterializedValue(m -> NotUsed.getInstance());
+  }
+
+  /**
+   * Creates CSV parsing flow that reads the given columns of CSV lines into {@link CsvRow}s, which
+   * keep all selected fields in one array and address them by offset and length.
+   *
+   * @param columns zero-based indices of the columns to emit
+   */
+  public static Flow<ByteString, CsvRow, NotUsed> rowScanner(Set<Integer> columns) {
+    return rowScanner(columns, COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  public static Flow<ByteString, CsvRow, NotUsed> rowScanner(
+      Set<Integer> columns,
+      byte delimiter,
+      byte quoteChar,
+      byte escapeChar,
+      int maximumLineLength) {
+    return akka.stream.alpakka.csv.scaladsl.CsvParsing.rowScanner(
+            toScala(columns), delimiter, quoteChar, escapeChar, maximumLineLength)
+        .asJava();
+  }
+
+  /**
+   * Creates a source which reads CSV lines from a file, parsing splits of about {@code splitSize}
+   * bytes on up to {@code parallelism} threads. The lines are emitted in their order within the
+   * file.
+   *
+   * @param parallelism number of splits to parse concurrently
+   */
+  public static Source<Collection<ByteString>, NotUsed> parallelFromPath(
+      Path path, int parallelism) {
+    return parallelFromPath(
+        path,
+        parallelism,
+        SPLIT_SIZE_DEFAULT,
+        COMMA,
+        DOUBLE_QUOTE,
+        BACKSLASH,
+        MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  public static Source<Collection<ByteString>, NotUsed> parallelFromPath(
+      Path path,
+      int parallelism,
+      int splitSize,
+      byte delimiter,
+      byte quoteChar,
+      byte escapeChar,
+      int maximumLineLength) {
+    return akka.stream.alpakka.csv.scaladsl.CsvParsing.parallelFromPath(
+            path, parallelism, splitSize, delimiter, quoteChar, escapeChar, maximumLineLength)
+        .asJava()
+        .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection());
+  }
+
+  private static scala.collection.immutable.Set<Object> toScala(Set<Integer> columns) {
+    return JavaConverters.asScalaSetConverter(columns).asScala().<Object>toSet();
+  }
 }
@@ -4,6 +4,8 @@
 
 package akka.stream.alpakka.csv.javadsl;
 
+import akka.stream.alpakka.csv.CsvRecord;
+import akka.stream.alpakka.csv.impl.CsvToIndexedRecordJavaStage;
 import akka.stream.alpakka.csv.impl.CsvToMapAsStringsJavaStage;
 import akka.stream.alpakka.csv.impl.CsvToMapJavaStage;
 import akka.stream.javadsl.Flow;
@@ -71,4 +73,28 @@ public class CsvToMap {
     return Flow.fromGraph(
         new CsvToMapAsStringsJavaStage(Optional.of(Arrays.asList(headers)), charset));
   }
+
+  /**
+   * A flow translating incoming {@link Collection<ByteString>} to {@link CsvRecord}s using the
+   * stream's first element's values as column names. The column names are indexed once and shared
+   * by all records; fields are decoded on first access.
+   *
+   * @param charset the charset to decode {@link ByteString} to {@link String}
+   */
+  public static Flow<Collection<ByteString>, CsvRecord, ?> toIndexedRecord(Charset charset) {
+    return Flow.fromGraph(new CsvToIndexedRecordJavaStage(Optional.empty(), charset));
+  }
+
+  /**
+   * A flow translating incoming {@link Collection<ByteString>} to {@link CsvRecord}s using the
+   * given headers as column names.
+   *
+   * @param charset the charset to decode {@link ByteString} to {@link String}
+   * @param headers column names
+   */
+  public static Flow<Collection<ByteString>, CsvRecord, ?> toIndexedRecordWithHeaders(
+      Charset charset, String... headers) {
+    return Flow.fromGraph(
+        new CsvToIndexedRecordJavaStage(Optional.of(Arrays.asList(headers)), charset));
+  }
 }
@@ -4,7 +4,9 @@
 
 package akka.stream.alpakka.csv.impl
 
-import java.nio.charset.{Charset, StandardCharsets}
+import java.nio.{ByteBuffer, CharBuffer}
+import java.nio.charset.{Charset, CharsetEncoder, CodingErrorAction, StandardCharsets}
+import java.util.Arrays
 
 import akka.annotation.InternalApi
 import akka.stream.alpakka.csv.scaladsl.CsvQuotingStyle
@@ -15,104 +17,210 @@ import scala.collection.immutable
 /**
  * Internal API
  */
+@InternalApi private[csv] object CsvFormatter {
+  private type Encoding = Int
+  private final val Utf8 = 0
+  private final val Latin1 = 1
+  private final val Ascii = 2
+  private final val Other = 3
+
+  private final val InitialBufferSize = 8 * 1024
+}
+
+/**
+ * Internal API
+ *
+ * Encodes CSV lines straight into a buffer which is reused for all lines. UTF-8, ISO-8859-1 and US-ASCII
+ * are encoded without a [[java.nio.charset.CharsetEncoder]], other character sets go through one.
+ *
+ * Not thread-safe: create one formatter per stream materialization.
+ */
 @InternalApi private[csv] class CsvFormatter(delimiter: Char,
                                              quoteChar: Char,
                                              escapeChar: Char,
                                              endOfLine: String,
                                              quotingStyle: CsvQuotingStyle,
                                              charset: Charset = StandardCharsets.UTF_8) {
+  import CsvFormatter._
 
-  private[this] val charsetName = charset.name()
+  private[this] val encoding: Encoding =
+    if (charset == StandardCharsets.UTF_8) Utf8
+    else if (charset == StandardCharsets.ISO_8859_1) Latin1
+    else if (charset == StandardCharsets.US_ASCII) Ascii
+    else Other
 
-  private[this] val delimiterBs = ByteString(String.valueOf(delimiter), charsetName)
-  private[this] val quoteBs = ByteString(String.valueOf(quoteChar), charsetName)
-  private[this] val duplicatedQuote = ByteString(String.valueOf(Array(quoteChar, quoteChar)), charsetName)
-  private[this] val duplicatedEscape = ByteString(String.valueOf(Array(escapeChar, escapeChar)), charsetName)
-  private[this] val endOfLineBs = ByteString(endOfLine, charsetName)
+  private[this] val encoder: CharsetEncoder =
+    if (encoding == Other)
+      charset
+        .newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+    else null
 
-  def toCsv(fields: immutable.Iterable[Any]): ByteString =
-    if (fields.nonEmpty) nonEmptyToCsv(fields)
-    else endOfLineBs
-
-  private def nonEmptyToCsv(fields: immutable.Iterable[Any]) = {
-    val builder = ByteString.createBuilder
+  private[this] val maxBytesPerChar: Int = encoding match {
+    case Utf8 => 3 // 4 bytes are only needed for surrogate pairs, which are two chars
+    case Latin1 | Ascii => 1
+    case _ => math.ceil(encoder.maxBytesPerChar()).toInt
+  }
 
-    def splitAndDuplicateQuotesAndEscapes(field: String, splitAt: Int) = {
+  private[this] val delimiterBytes = String.valueOf(delimiter).getBytes(charset)
+  private[this] val quoteBytes = String.valueOf(quoteChar).getBytes(charset)
+  private[this] val escapeBytes = String.valueOf(escapeChar).getBytes(charset)
+  private[this] val endOfLineBytes = endOfLine.getBytes(charset)
 
-      @inline def indexOfQuoteOrEscape(lastIndex: Int) = {
-        var index = lastIndex
-        var found = -1
-        while (index < field.length && found == -1) {
-          val char = field(index)
-          if (char == quoteChar || char == escapeChar) found = index
-          index += 1
-        }
-        found
-      }
-
-      var lastIndex = 0
-      var index = splitAt
-      while (index > -1) {
-        builder ++= ByteString.apply(field.substring(lastIndex, index), charsetName)
-        val char = field.charAt(index)
-        if (char == quoteChar) {
-          builder ++= duplicatedQuote
-        } else {
-          builder ++= duplicatedEscape
-        }
-        lastIndex = index + 1
-        index = indexOfQuoteOrEscape(lastIndex)
-      }
-      if (lastIndex < field.length) {
-        builder ++= ByteString(field.substring(lastIndex), charsetName)
-      }
-    }
+  private[this] var buffer = new Array[Byte](InitialBufferSize)
+  private[this] var length = 0
 
-    def append(field: String) = {
-      val (quoteIt, splitAt) = requiresQuotesOrSplit(field)
-      if (quoteIt || quotingStyle == CsvQuotingStyle.Always) {
-        builder ++= quoteBs
-        if (splitAt != -1) {
-          splitAndDuplicateQuotesAndEscapes(field, splitAt)
-        } else {
-          builder ++= ByteString(field, charsetName)
-        }
-        builder ++= quoteBs
-      } else {
-        builder ++= ByteString(field, charsetName)
-      }
-    }
+  /** The CSV line for `fields`. */
+  def toCsv(fields: immutable.Iterable[Any]): ByteString = {
+    append(fields)
+    flush()
+  }
 
+  /** Encodes the CSV line for `fields` into the buffer. */
+  def append(fields: immutable.Iterable[Any]): Unit = {
     val iterator = fields.iterator
     var hasNext = iterator.hasNext
     while (hasNext) {
       val next = iterator.next()
       if (next != null) {
-        append(next.toString)
+        appendField(next.toString)
       }
       hasNext = iterator.hasNext
       if (hasNext) {
-        builder ++= delimiterBs
+        put(delimiterBytes)
       }
     }
-    builder ++= endOfLineBs
-    builder.result()
+    put(endOfLineBytes)
   }
 
-  private def requiresQuotesOrSplit(field: String): (Boolean, Int) = {
-    var quotes = CsvQuotingStyle.Always == quotingStyle
-    var split = -1
+  /** Number of bytes encoded since the last [[flush()]]. */
+  def bufferedBytes: Int = length
+
+  /** Returns the encoded bytes and empties the buffer. */
+  def flush(): ByteString = {
+    val result = ByteString.fromArray(buffer, 0, length)
+    length = 0
+    result
+  }
+
+  private def appendField(field: String): Unit = {
+    var quoteIt = CsvQuotingStyle.Always == quotingStyle
+    var containsQuoteOrEscape = false
     var index = 0
-    while (index < field.length && !(quotes && split != -1)) {
-      val char = field(index)
-      if (char == `quoteChar` || char == `escapeChar`) {
-        quotes = true
-        split = index
-      } else if (char == '\r' || char == '\n' || char == `delimiter`) {
-        quotes = true
+    while (index < field.length && !containsQuoteOrEscape) {
+      val char = field.charAt(index)
+      if (char == quoteChar || char == escapeChar) {
+        quoteIt = true
+        containsQuoteOrEscape = true
+      } else if (char == '\r' || char == '\n' || char == delimiter) {
+        quoteIt = true
       }
       index += 1
     }
-    (quotes, split)
+    if (quoteIt) {
+      put(quoteBytes)
+      if (containsQuoteOrEscape) duplicateQuotesAndEscapes(field)
+      else encode(field, 0, field.length)
+      put(quoteBytes)
+    } else {
+      encode(field, 0, field.length)
+    }
+  }
+
+  private def duplicateQuotesAndEscapes(field: String): Unit = {
+    var runStart = 0
+    var index = 0
+    while (index < field.length) {
+      val char = field.charAt(index)
+      if (char == quoteChar || char == escapeChar) {
+        encode(field, runStart, index)
+        val bytes = if (char == quoteChar) quoteBytes else escapeBytes
+        put(bytes)
+        put(bytes)
+        runStart = index + 1
+      }
+      index += 1
+    }
+    encode(field, runStart, field.length)
+  }
+
+  private def put(bytes: Array[Byte]): Unit = {
+    ensureCapacity(bytes.length)
+    System.arraycopy(bytes, 0, buffer, length, bytes.length)
+    length += bytes.length
+  }
+
+  private def ensureCapacity(additional: Int): Unit =
+    if (length + additional > buffer.length)
+      buffer = Arrays.copyOf(buffer, math.max(buffer.length * 2, length + additional))
+
+  /** Encodes the chars of `s` from `from` until `until` into the buffer. */
+  private def encode(s: String, from: Int, until: Int): Unit =
+    if (from < until) {
+      ensureCapacity((until - from) * maxBytesPerChar)
+      encoding match {
+        case Utf8 => encodeUtf8(s, from, until)
+        case Latin1 => encodeSingleByte(s, from, until, 0xFF)
+        case Ascii => encodeSingleByte(s, from, until, 0x7F)
+        case _ => encodeOther(s, from, until)
+      }
+    }
+
+  private def encodeUtf8(s: String, from: Int, until: Int): Unit = {
+    val buf = buffer
+    var pos = length
+    var i = from
+    while (i < until) {
+      val c = s.charAt(i)
+      if (c < 0x80) {
+        buf(pos) = c.toByte
+        pos += 1
+      } else if (c < 0x800) {
+        buf(pos) = (0xC0 | (c >> 6)).toByte
+        buf(pos + 1) = (0x80 | (c & 0x3F)).toByte
+        pos += 2
+      } else if (Character.isHighSurrogate(c) && i + 1 < until && Character.isLowSurrogate(s.charAt(i + 1))) {
+        val cp = Character.toCodePoint(c, s.charAt(i + 1))
+        buf(pos) = (0xF0 | (cp >> 18)).toByte
+        buf(pos + 1) = (0x80 | ((cp >> 12) & 0x3F)).toByte
+        buf(pos + 2) = (0x80 | ((cp >> 6) & 0x3F)).toByte
+        buf(pos + 3) = (0x80 | (cp & 0x3F)).toByte
+        pos += 4
+        i += 1
+      } else if (Character.isSurrogate(c)) {
+        // unpaired surrogate, replaced like String.getBytes does
+        buf(pos) = '?'
+        pos += 1
+      } else {
+        buf(pos) = (0xE0 | (c >> 12)).toByte
+        buf(pos + 1) = (0x80 | ((c >> 6) & 0x3F)).toByte
+        buf(pos + 2) = (0x80 | (c & 0x3F)).toByte
+        pos += 3
+      }
+      i += 1
+    }
+    length = pos
+  }
+
+  private def encodeSingleByte(s: String, from: Int, until: Int, maxChar: Int): Unit = {
+    val buf = buffer
+    var pos = length
+    var i = from
+    while (i < until) {
+      val c = s.charAt(i)
+      buf(pos) = if (c <= maxChar) c.toByte else '?'
+      pos += 1
+      i += 1
+    }
+    length = pos
+  }
+
+  private def encodeOther(s: String, from: Int, until: Int): Unit = {
+    val out = ByteBuffer.wrap(buffer, length, buffer.length - length)
+    encoder.reset()
+    encoder.encode(CharBuffer.wrap(s, from, until), out, true)
+    encoder.flush(out)
+    length = out.position()
   }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv.impl
+
+import akka.annotation.InternalApi
+import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
+import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+import akka.util.ByteString
+
+import scala.collection.immutable
+
+/**
+ * Internal API: Use [[akka.stream.alpakka.csv.scaladsl.CsvFormatting]] instead.
+ *
+ * Encodes lines into one [[CsvFormatter]] per materialization and emits its buffer
+ * once it holds at least `batchSize` bytes, and at the end of the stream.
+ */
+@InternalApi private[csv] final class CsvFormattingStage[T <: immutable.Iterable[String]](
+    createFormatter: () => CsvFormatter,
+    batchSize: Int
+) extends GraphStage[FlowShape[T, ByteString]] {
+
+  private val in = Inlet[T]("CsvFormatting.in")
+  private val out = Outlet[ByteString]("CsvFormatting.out")
+  override val shape = FlowShape(in, out)
+
+  override protected def initialAttributes: Attributes = Attributes.name("CsvFormatting")
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val formatter = createFormatter()
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit = {
+        formatter.append(grab(in))
+        if (formatter.bufferedBytes >= batchSize) push(out, formatter.flush())
+        else pull(in)
+      }
+
+      override def onPull(): Unit = pull(in)
+
+      override def onUpstreamFinish(): Unit = {
+        if (formatter.bufferedBytes > 0) emit(out, formatter.flush())
+        completeStage()
+      }
+    }
+}
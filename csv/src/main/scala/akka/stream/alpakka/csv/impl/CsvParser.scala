@@ -4,10 +4,12 @@
 
 package akka.stream.alpakka.csv.impl
 
+import java.nio.{ByteBuffer, ByteOrder}
+import java.util.Arrays
 import java.nio.charset.UnsupportedCharsetException
 
 import akka.annotation.InternalApi
-import akka.stream.alpakka.csv.MalformedCsvException
+import akka.stream.alpakka.csv.{CsvRow, MalformedCsvException}
 import akka.stream.alpakka.csv.scaladsl.ByteOrderMark
 import akka.util.{ByteIterator, ByteString, ByteStringBuilder}
 
@@ -32,6 +34,21 @@ import scala.collection.mutable
 
   private final val LF: Byte = '\n'
   private final val CR: Byte = '\r'
+
+  private final val LowBits = 0x0101010101010101L
+  private final val HighBits = 0x8080808080808080L
+
+  /** Repeats `b` in all eight bytes of a `Long`. */
+  private def broadcast(b: Byte): Long = (b & 0xFFL) * LowBits
+
+  /**
+   * Sets the high bit of the lowest byte in `word` which equals the byte broadcast in `pattern`.
+   * Bits above the lowest match may be false positives, so only the lowest set bit may be relied upon.
+   */
+  @inline private def matching(word: Long, pattern: Long): Long = {
+    val x = word ^ pattern
+    (x - LowBits) & ~x & HighBits
+  }
 }
 
 /**
@@ -40,7 +57,10 @@ import scala.collection.mutable
 @InternalApi private[csv] final class CsvParser(delimiter: Byte,
                                                 quoteChar: Byte,
                                                 escapeChar: Byte,
-                                                maximumLineLength: Int) {
+                                                maximumLineLength: Int,
+                                                fastScan: Boolean = false,
+                                                projection: Option[Set[Int]] = None,
+                                                rowView: Boolean = false) {
 
   import CsvParser._
 
@@ -93,6 +113,39 @@ import scala.collection.mutable
    * Reset after each row.
    */
   private[this] var columns = mutable.ListBuffer[ByteString]()
+
+  /**
+   * Index of the current column within the row, including columns which are not selected.
+   */
+  private[this] var columnIndex = 0
+
+  /**
+   * Selected columns by index, `null` if all columns are selected.
+   */
+  private[this] val selected: Array[Boolean] = projection match {
+    case Some(indices) =>
+      require(indices.forall(_ >= 0), "column indices must not be negative")
+      val mask = new Array[Boolean](if (indices.isEmpty) 0 else indices.max + 1)
+      indices.foreach(mask(_) = true)
+      mask
+    case None => null
+  }
+
+  @inline private[this] def columnSelected: Boolean =
+    (selected eq null) || (columnIndex < selected.length && selected(columnIndex))
+
+  /**
+   * Bytes of the selected fields of the current row, if [[rowView]] is enabled.
+   * Reused for all rows, each emitted [[CsvRow]] gets a copy.
+   */
+  private[this] var rowBytes: Array[Byte] = if (rowView) new Array[Byte](1024) else null
+  private[this] var rowLength = 0
+
+  /**
+   * `rowOffsets(i)` is the start of field `i` in [[rowBytes]], `rowOffsets(i + 1)` its end.
+   */
+  private[this] var rowOffsets: Array[Int] = if (rowView) new Array[Int](16) else null
+  private[this] var rowFields = 0
   private[this] var state: State = LineStart
   private[this] var fieldBuilder = new FieldBuilder
 
@@ -106,25 +159,63 @@ import scala.collection.mutable
    */
   private[this] var current: ByteIterator = ByteString.empty.iterator
 
+  /**
+   * Little-endian view on the bytes of the chunk [[current]] iterates over, if [[fastScan]] is enabled
+   * and the chunk is backed by a single array. `null` otherwise.
+   *
+   * The chunk's index of [[current.head]] is `scanBuffer.limit - current.len`.
+   */
+  private[this] var scanBuffer: ByteBuffer = _
+
+  private[this] val delimiterPattern = broadcast(delimiter)
+  private[this] val quotePattern = broadcast(quoteChar)
+  private[this] val escapePattern = broadcast(escapeChar)
+  private[this] val lfPattern = broadcast(LF)
+  private[this] val crPattern = broadcast(CR)
+
   def offer(next: ByteString): Unit =
     if (next.nonEmpty) {
       require(current.isEmpty, "offer(ByteString) may not be called before all buffered input is parsed.")
       buffer ++= next
       current = next.iterator
+      if (fastScan) scanBuffer = next match {
+        case _: ByteString.ByteStrings => null
+        case contiguous => contiguous.asByteBuffer.order(ByteOrder.LITTLE_ENDIAN)
+      }
     }
 
   def poll(requireLineEnd: Boolean): Option[List[ByteString]] = {
     if (buffer.nonEmpty) parseLine()
-    val line = maybeExtractLine(requireLineEnd)
-    if (line.nonEmpty) {
-      currentLineNo += 1
-      if (state == LineEnd || !requireLineEnd) {
-        state = LineStart
-      }
-      resetLine()
-      columns.clear()
+    if (completeLine(requireLineEnd)) {
+      val line = columns.toList
+      nextLine(requireLineEnd)
+      Some(line)
+    } else None
+  }
+
+  /**
+   * Like [[poll()]], but returns the selected fields as one [[CsvRow]].
+   * Requires the parser to be created with `rowView = true`.
+   */
+  def pollRow(requireLineEnd: Boolean): Option[CsvRow] = {
+    if (buffer.nonEmpty) parseLine()
+    if (completeLine(requireLineEnd)) {
+      val row = new CsvRow(Arrays.copyOf(rowBytes, rowLength), Arrays.copyOf(rowOffsets, rowFields + 1))
+      nextLine(requireLineEnd)
+      Some(row)
+    } else None
+  }
+
+  private[this] def nextLine(requireLineEnd: Boolean): Unit = {
+    currentLineNo += 1
+    if (state == LineEnd || !requireLineEnd) {
+      state = LineStart
     }
-    line
+    resetLine()
+    columns.clear()
+    columnIndex = 0
+    rowLength = 0
+    rowFields = 0
   }
 
   private[this] def advance(n: Int = 1): Unit = {
@@ -158,7 +249,7 @@ import scala.collection.mutable
     /** Set up the ByteString builder instead of relying on `ByteString.slice`.
      */
     @inline def init(): Unit =
-      if (!useBuilder) {
+      if (!useBuilder && columnSelected) {
         builder = ByteString.newBuilder ++= buffer.slice(fieldStart, pos)
         useBuilder = true
       }
@@ -166,6 +257,14 @@ import scala.collection.mutable
     @inline def add(x: Byte): Unit =
       if (useBuilder) builder += x
 
+    /** Drops the field of a column which is not selected. */
+    @inline def discard(): Unit =
+      useBuilder = false
+
+    /** Adds the bytes of [[buffer]] from `from` until `until`. */
+    @inline def addRange(from: Int, until: Int): Unit =
+      if (useBuilder) builder ++= buffer.slice(from, until)
+
     @inline def result(pos: Int): ByteString =
       if (useBuilder) {
         useBuilder = false
@@ -227,17 +326,17 @@ import scala.collection.mutable
               advance()
               fieldStart = pos
             case `delimiter` =>
-              columns += ByteString.empty
+              addEmptyField()
               state = AfterDelimiter
               advance()
               fieldStart = pos
             case LF =>
-              columns += ByteString.empty
+              addEmptyField()
               state = LineEnd
               advance()
               fieldStart = pos
             case CR =>
-              columns += ByteString.empty
+              addEmptyField()
               state = AfterCr
               advance()
               fieldStart = pos
@@ -245,6 +344,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinField
               advance()
+              if (scanBuffer ne null) skipPlainBytes(quoted = false)
           }
 
         case AfterDelimiter =>
@@ -259,17 +359,17 @@ import scala.collection.mutable
               advance()
               fieldStart = pos
             case `delimiter` =>
-              columns += ByteString.empty
+              addEmptyField()
               state = AfterDelimiter
               advance()
               fieldStart = pos
             case LF =>
-              columns += ByteString.empty
+              addEmptyField()
               state = LineEnd
               advance()
               fieldStart = pos
             case CR =>
-              columns += ByteString.empty
+              addEmptyField()
               state = AfterCr
               advance()
               fieldStart = pos
@@ -277,6 +377,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinField
               advance()
+              if (scanBuffer ne null) skipPlainBytes(quoted = false)
           }
 
         case WithinField =>
@@ -286,17 +387,17 @@ import scala.collection.mutable
               state = WithinFieldEscaped
               advance()
             case `delimiter` =>
-              columns += fieldBuilder.result(pos)
+              addField(pos)
               state = AfterDelimiter
               advance()
               dropReadBuffer()
             case LF =>
-              columns += fieldBuilder.result(pos)
+              addField(pos)
               state = LineEnd
               advance()
               dropReadBuffer()
             case CR =>
-              columns += fieldBuilder.result(pos)
+              addField(pos)
               state = AfterCr
               advance()
               dropReadBuffer()
@@ -304,6 +405,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinField
               advance()
+              if (scanBuffer ne null) skipPlainBytes(quoted = false)
           }
 
         case WithinFieldEscaped =>
@@ -340,6 +442,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinQuotedField
               advance()
+              if (scanBuffer ne null) skipPlainBytes(quoted = true)
           }
 
         case WithinQuotedField =>
@@ -356,6 +459,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinQuotedField
               advance()
+              if (scanBuffer ne null) skipPlainBytes(quoted = true)
           }
 
         case WithinQuotedFieldEscaped =>
@@ -395,19 +499,96 @@ import scala.collection.mutable
       }
     }
   }
-  private[this] def maybeExtractLine(requireLineEnd: Boolean): Option[List[ByteString]] =
+
+  /**
+   * Fast path for [[fastScan]]: consumes all bytes of the current chunk up to the next byte the
+   * state machine needs to look at, checking eight bytes at a time.
+   *
+   * Unquoted fields stop at delimiter, escape, CR and LF, quoted fields at quote and escape.
+   * Never consumes more bytes than the line length limit allows, so that [[churn()]] reports it as before.
+   */
+  private[this] def skipPlainBytes(quoted: Boolean): Unit = {
+    val limit = scanBuffer.limit()
+    val from = limit - current.len
+    val until = math.min(limit, from + (maximumLineLength - lineLength))
+    val n = indexOfSpecial(from, until, quoted) - from
+    if (n > 0) {
+      fieldBuilder.addRange(pos, pos + n)
+      advance(n)
+    }
+  }
+
+  private[this] def indexOfSpecial(from: Int, until: Int, quoted: Boolean): Int = {
+    var i = from
+    var found = 0L
+    while (found == 0L && i + 8 <= until) {
+      val word = scanBuffer.getLong(i)
+      found =
+        if (quoted) matching(word, quotePattern) | matching(word, escapePattern)
+        else
+          matching(word, delimiterPattern) | matching(word, escapePattern) |
+          matching(word, lfPattern) | matching(word, crPattern)
+      if (found == 0L) i += 8
+    }
+    if (found != 0L) i + (java.lang.Long.numberOfTrailingZeros(found) >>> 3)
+    else {
+      while (i < until && !isSpecial(scanBuffer.get(i), quoted)) i += 1
+      i
+    }
+  }
+
+  private[this] def isSpecial(byte: Byte, quoted: Boolean): Boolean =
+    if (quoted) byte == quoteChar || byte == escapeChar
+    else byte == delimiter || byte == escapeChar || byte == LF || byte == CR
+
+  /**
+   * Adds the field ending at `end` to the current line, unless its column is not selected.
+   */
+  private[this] def addField(end: Int): Unit =
+    if (columnSelected) addColumn(fieldBuilder.result(end))
+    else {
+      fieldBuilder.discard()
+      columnIndex += 1
+    }
+
+  private[this] def addEmptyField(): Unit =
+    if (columnSelected) addColumn(ByteString.empty)
+    else columnIndex += 1
+
+  private[this] def addColumn(field: ByteString): Unit = {
+    if (rowView) appendToRow(field) else columns += field
+    columnIndex += 1
+  }
+
+  /**
+   * Copies the field to [[rowBytes]] and records its end in [[rowOffsets]].
+   */
+  private[this] def appendToRow(field: ByteString): Unit = {
+    val length = field.length
+    if (length > 0) {
+      if (rowLength + length > rowBytes.length)
+        rowBytes = Arrays.copyOf(rowBytes, math.max(rowBytes.length * 2, rowLength + length))
+      field.copyToArray(rowBytes, rowLength, length)
+      rowLength += length
+    }
+    rowFields += 1
+    if (rowFields == rowOffsets.length) rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2)
+    rowOffsets(rowFields) = rowLength
+  }
+
+  /**
+   * Adds the last field of the line if the line is complete.
+   *
+   * @return true if the line is complete
+   */
+  private[this] def completeLine(requireLineEnd: Boolean): Boolean =
     if (requireLineEnd) {
-      state match {
-        case LineEnd =>
-          Some(columns.toList)
-        case _ =>
-          None
-      }
+      state == LineEnd
     } else {
       state match {
         case AfterDelimiter =>
-          columns += ByteString.empty
-          Some(columns.toList)
+          addEmptyField()
+          true
         case WithinQuotedField =>
           throw new MalformedCsvException(
             currentLineNo,
@@ -415,17 +596,15 @@ import scala.collection.mutable
             s"unclosed quote at end of input $currentLineNo:$lineLength, no matching quote found"
           )
         case WithinField =>
-          columns += fieldBuilder.result(pos)
-          Some(columns.toList)
+          addField(pos)
+          true
         case WithinQuotedFieldQuote =>
-          columns += fieldBuilder.result(pos - 1)
-          Some(columns.toList)
+          addField(pos - 1)
+          true
         case WithinFieldEscaped | WithinQuotedFieldEscaped =>
           noCharEscaped()
-        case _ if columns.nonEmpty =>
-          Some(columns.toList)
         case _ =>
-          None
+          columnIndex > 0
       }
     }
 
@@ -6,6 +6,7 @@ package akka.stream.alpakka.csv.impl
 
 import akka.annotation.InternalApi
 import akka.event.Logging
+import akka.stream.alpakka.csv.CsvRow
 import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
 import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
 import akka.util.ByteString
@@ -16,21 +17,21 @@ import scala.util.control.NonFatal
 /**
  * Internal API: Use [[akka.stream.alpakka.csv.scaladsl.CsvParsing]] instead.
  */
-@InternalApi private[csv] class CsvParsingStage(delimiter: Byte,
-                                                quoteChar: Byte,
-                                                escapeChar: Byte,
-                                                maximumLineLength: Int)
-    extends GraphStage[FlowShape[ByteString, List[ByteString]]] {
+@InternalApi private[csv] abstract class CsvParsingStageBase[T] extends GraphStage[FlowShape[ByteString, T]] {
 
   private val in = Inlet[ByteString](Logging.simpleName(this) + ".in")
-  private val out = Outlet[List[ByteString]](Logging.simpleName(this) + ".out")
+  private val out = Outlet[T](Logging.simpleName(this) + ".out")
   override val shape = FlowShape(in, out)
 
   override protected def initialAttributes: Attributes = Attributes.name("CsvParsing")
 
+  protected def createParser(): CsvParser
+
+  protected def poll(parser: CsvParser, requireLineEnd: Boolean): Option[T]
+
   override def createLogic(inheritedAttributes: Attributes) =
     new GraphStageLogic(shape) with InHandler with OutHandler {
-      private[this] val buffer = new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength)
+      private[this] val buffer = createParser()
 
       setHandlers(in, out, this)
 
@@ -48,7 +49,7 @@ import scala.util.control.NonFatal
       }
 
       private def tryPollBuffer() =
-        try buffer.poll(requireLineEnd = true) match {
+        try poll(buffer, requireLineEnd = true) match {
           case Some(csvLine) ⇒ push(out, csvLine)
           case _ ⇒
             if (isClosed(in)) {
@@ -60,7 +61,7 @@ import scala.util.control.NonFatal
         }
 
       @tailrec private def emitRemaining(): Unit =
-        buffer.poll(requireLineEnd = false) match {
+        poll(buffer, requireLineEnd = false) match {
           case Some(csvLine) ⇒
             emit(out, csvLine)
             emitRemaining()
@@ -69,3 +70,42 @@ import scala.util.control.NonFatal
 
     }
 }
+
+/**
+ * Internal API: Use [[akka.stream.alpakka.csv.scaladsl.CsvParsing]] instead.
+ *
+ * @param projection if given, only these columns are emitted
+ */
+@InternalApi private[csv] class CsvParsingStage(delimiter: Byte,
+                                                quoteChar: Byte,
+                                                escapeChar: Byte,
+                                                maximumLineLength: Int,
+                                                fastScan: Boolean = false,
+                                                projection: Option[Set[Int]] = None)
+    extends CsvParsingStageBase[List[ByteString]] {
+
+  override protected def createParser(): CsvParser =
+    new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan, projection)
+
+  override protected def poll(parser: CsvParser, requireLineEnd: Boolean): Option[List[ByteString]] =
+    parser.poll(requireLineEnd)
+}
+
+/**
+ * Internal API: Use [[akka.stream.alpakka.csv.scaladsl.CsvParsing.rowScanner]] instead.
+ *
+ * @param projection if given, only these columns are emitted
+ */
+@InternalApi private[csv] class CsvRowParsingStage(delimiter: Byte,
+                                                   quoteChar: Byte,
+                                                   escapeChar: Byte,
+                                                   maximumLineLength: Int,
+                                                   projection: Option[Set[Int]])
+    extends CsvParsingStageBase[CsvRow] {
+
+  override protected def createParser(): CsvParser =
+    new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true, projection, rowView = true)
+
+  override protected def poll(parser: CsvParser, requireLineEnd: Boolean): Option[CsvRow] =
+    parser.pollRow(requireLineEnd)
+}
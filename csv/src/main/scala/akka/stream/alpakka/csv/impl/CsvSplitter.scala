@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv.impl
+
+import java.nio.{ByteBuffer, MappedByteBuffer}
+import java.nio.channels.FileChannel
+import java.nio.file.{Path, StandardOpenOption}
+
+import akka.NotUsed
+import akka.annotation.InternalApi
+import akka.stream.alpakka.csv.MalformedCsvException
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+
+import scala.collection.immutable
+import scala.concurrent.Future
+
+/**
+ * INTERNAL API: Use [[akka.stream.alpakka.csv.scaladsl.CsvParsing.parallelFromPath]] instead.
+ */
+@InternalApi private[csv] object CsvSplitter {
+
+  private type State = Int
+  private final val FieldStart = 0
+  private final val Unquoted = 1
+  private final val Quoted = 2
+  private final val QuotedQuote = 3
+
+  private final val LF: Byte = '\n'
+  private final val CR: Byte = '\r'
+
+  /**
+   * Reads the file in splits of about `splitSize` bytes which end at line ends, parses them on
+   * `parallelism` threads and emits the lines in file order.
+   */
+  def parallelParse(path: Path,
+                    parallelism: Int,
+                    splitSize: Int,
+                    delimiter: Byte,
+                    quoteChar: Byte,
+                    escapeChar: Byte,
+                    maximumLineLength: Int): Source[List[ByteString], NotUsed] = {
+    require(parallelism > 0, "parallelism must be positive")
+    require(splitSize > 0, "splitSize must be positive")
+    Source
+      .setup { (mat, _) =>
+        Source
+          .unfoldResource[ByteBuffer, CsvSplitter](
+            () => new CsvSplitter(path, splitSize, delimiter, quoteChar, escapeChar, maximumLineLength),
+            _.next(),
+            _.close()
+          )
+          .mapAsync(parallelism) { split =>
+            Future(parseSplit(split, delimiter, quoteChar, escapeChar, maximumLineLength))(mat.executionContext)
+          }
+          .mapConcat(identity)
+      }
+      .mapMaterializedValue(_ => NotUsed)
+  }
+
+  private def parseSplit(split: ByteBuffer,
+                         delimiter: Byte,
+                         quoteChar: Byte,
+                         escapeChar: Byte,
+                         maximumLineLength: Int): immutable.Seq[List[ByteString]] = {
+    val bytes = new Array[Byte](split.remaining())
+    split.get(bytes)
+    val parser = new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true)
+    parser.offer(ByteString.fromArrayUnsafe(bytes))
+    val lines = Vector.newBuilder[List[ByteString]]
+    var line = parser.poll(requireLineEnd = true)
+    while (line.isDefined) {
+      lines += line.get
+      line = parser.poll(requireLineEnd = true)
+    }
+    line = parser.poll(requireLineEnd = false)
+    while (line.isDefined) {
+      lines += line.get
+      line = parser.poll(requireLineEnd = false)
+    }
+    lines.result()
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Finds split points in a CSV file which are safe to parse independently: each split ends after a line feed
+ * which is not within a quoted field.
+ *
+ * To tell line feeds within quoted fields from line ends, all bytes are run through a reduced version of
+ * [[CsvParser]]'s state machine which only tracks quoting and escaping. This pre-pass is sequential, but a
+ * simple loop over memory-mapped bytes and thus much cheaper than parsing.
+ *
+ * Only line feeds are considered as split points. When a window holds no line feed outside of quoted fields,
+ * e.g. in files using CR-only line ends, the rest of the file is parsed as one split.
+ */
+@InternalApi private[csv] final class CsvSplitter(path: Path,
+                                                  splitSize: Int,
+                                                  delimiter: Byte,
+                                                  quoteChar: Byte,
+                                                  escapeChar: Byte,
+                                                  maximumLineLength: Int) {
+  import CsvSplitter._
+
+  private[this] val channel = FileChannel.open(path, StandardOpenOption.READ)
+  private[this] val size = channel.size()
+  private[this] var start = 0L
+
+  /**
+   * @return the next split, or `None` when the file is exhausted
+   */
+  def next(): Option[ByteBuffer] =
+    if (start >= size) None
+    else {
+      // a line reaching further than this fails to parse anyway
+      val windowSize = math.min(size - start, splitSize.toLong + maximumLineLength).toInt
+      val window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowSize)
+      val end =
+        if (start + windowSize == size && windowSize <= splitSize) windowSize
+        else splitEnd(window, windowSize)
+      if (end < 0) remainder()
+      else {
+        window.limit(end)
+        start += end
+        Some(window.slice())
+      }
+    }
+
+  /**
+   * The rest of the file as one split, for windows without a line feed outside of quoted fields to split at.
+   */
+  private[this] def remainder(): Option[ByteBuffer] = {
+    val remaining = size - start
+    if (remaining > Int.MaxValue)
+      throw new MalformedCsvException(
+        0,
+        0,
+        s"no line end found within ${splitSize.toLong + maximumLineLength} bytes at byte $start, " +
+        s"the remaining $remaining bytes are too many to parse as one split"
+      )
+    val split = channel.map(FileChannel.MapMode.READ_ONLY, start, remaining)
+    start = size
+    Some(split)
+  }
+
+  def close(): Unit = channel.close()
+
+  /**
+   * @return the index after the first unquoted line feed at or after `splitSize`, or -1 if there is none
+   */
+  private[this] def splitEnd(window: MappedByteBuffer, windowSize: Int): Int = {
+    var state: State = FieldStart
+    var escaped = false
+    var i = 0
+    var end = -1
+    while (end < 0 && i < windowSize) {
+      val b = window.get(i)
+      if (escaped) {
+        escaped = false
+        state match {
+          case Quoted if b == escapeChar || b == quoteChar => i += 1
+          case Unquoted if b == escapeChar || b == delimiter => i += 1
+          case _ =>
+        }
+      } else {
+        state match {
+          case FieldStart | Unquoted =>
+            if (b == LF) {
+              if (i >= splitSize - 1) end = i + 1
+              state = FieldStart
+            } else if (b == delimiter || b == CR) state = FieldStart
+            else if (b == escapeChar) {
+              escaped = true
+              state = Unquoted
+            } else if (b == quoteChar && state == FieldStart) state = Quoted
+            else state = Unquoted
+            i += 1
+          case Quoted =>
+            if (b == quoteChar) state = QuotedQuote
+            else if (b == escapeChar) escaped = true
+            i += 1
+          case QuotedQuote =>
+            // like CsvParser, continue unquoted after the closing quote without consuming the byte
+            if (b == quoteChar) {
+              state = Quoted
+              i += 1
+            } else state = Unquoted
+        }
+      }
+    }
+    end
+  }
+}
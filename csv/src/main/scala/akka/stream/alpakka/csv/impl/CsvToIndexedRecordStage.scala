@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv.impl
+
+import java.nio.charset.Charset
+import java.{util => ju}
+
+import akka.annotation.InternalApi
+import akka.stream.alpakka.csv.CsvRecord
+import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
+import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+import akka.util.ByteString
+
+import scala.collection.immutable
+
+/**
+ * Internal API: Converts incoming lines to [[CsvRecord]]s which share one column name to index table.
+ *
+ * @param columnNames If given, these names are used as column names; if not first stream element is used
+ * @param charset Character set used to decode the header line and fields
+ */
+@InternalApi private[csv] abstract class CsvToIndexedRecordStageBase[T](columnNames: Option[immutable.Seq[String]],
+                                                                        charset: Charset)
+    extends GraphStage[FlowShape[T, CsvRecord]] {
+
+  override protected def initialAttributes: Attributes = Attributes.name("CsvToIndexedRecord")
+
+  private val in = Inlet[T]("CsvToIndexedRecord.in")
+  private val out = Outlet[CsvRecord]("CsvToIndexedRecord.out")
+  override val shape = FlowShape.of(in, out)
+
+  protected def fields(elem: T): Array[ByteString]
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private var columnIndex: Option[Map[String, Int]] = columnNames.map(indexOf)
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        columnIndex match {
+          case Some(index) =>
+            push(out, new CsvRecord(index, fields(elem), charset))
+          case None =>
+            columnIndex = Some(indexOf(fields(elem).toList.map(_.decodeString(charset))))
+            pull(in)
+        }
+      }
+
+      override def onPull(): Unit = pull(in)
+    }
+
+  private def indexOf(names: immutable.Seq[String]): Map[String, Int] =
+    names.zipWithIndex.toMap
+}
+
+/**
+ * Internal API
+ */
+@InternalApi private[csv] class CsvToIndexedRecordStage(columnNames: Option[immutable.Seq[String]], charset: Charset)
+    extends CsvToIndexedRecordStageBase[immutable.Seq[ByteString]](columnNames, charset) {
+
+  override protected def fields(elem: immutable.Seq[ByteString]): Array[ByteString] = elem.toArray
+}
+
+/**
+ * Internal Java API
+ */
+@InternalApi private[csv] class CsvToIndexedRecordJavaStage(columnNames: ju.Optional[ju.Collection[String]],
+                                                            charset: Charset)
+    extends CsvToIndexedRecordStageBase[ju.Collection[ByteString]](
+      if (columnNames.isPresent) Some(immutable.Seq(columnNames.get.toArray(new Array[String](0)): _*)) else None,
+      charset
+    ) {
+
+  override protected def fields(elem: ju.Collection[ByteString]): Array[ByteString] =
+    elem.toArray(new Array[ByteString](elem.size))
+}
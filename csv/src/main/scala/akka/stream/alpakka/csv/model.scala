@@ -4,6 +4,11 @@
 
 package akka.stream.alpakka.csv
 
+import java.nio.charset.{Charset, StandardCharsets}
+import java.util.Optional
+
+import akka.util.ByteString
+
 class MalformedCsvException private[csv] (val lineNo: Long, val bytePos: Int, msg: String) extends Exception(msg) {
 
   /**
@@ -18,3 +23,109 @@ class MalformedCsvException private[csv] (val lineNo: Long, val bytePos: Int, ms
    */
   def getBytePos = bytePos
 }
+
+/**
+ * The fields of a CSV line stored in one array, as emitted by
+ * [[akka.stream.alpakka.csv.scaladsl.CsvParsing.rowScanner]].
+ *
+ * Fields are addressed by their position within the row which, when only some columns are selected,
+ * is the position within the selected columns in ascending column order.
+ */
+final class CsvRow private[csv] (bytes: Array[Byte], offsets: Array[Int]) {
+
+  /** Number of fields in this row. */
+  def size: Int = offsets.length - 1
+
+  /** Java API: Number of fields in this row. */
+  def getSize: Int = size
+
+  /** Start of the field `i` within [[data]]. */
+  def offset(i: Int): Int = offsets(i)
+
+  /** Length of the field `i` in bytes. */
+  def length(i: Int): Int = offsets(i + 1) - offsets(i)
+
+  /** All fields' bytes, without delimiters. */
+  def data: ByteString = ByteString.fromArrayUnsafe(bytes)
+
+  /** Java API: All fields' bytes, without delimiters. */
+  def getData: ByteString = data
+
+  /** The bytes of field `i`. */
+  def apply(i: Int): ByteString = ByteString.fromArrayUnsafe(bytes, offsets(i), length(i))
+
+  /** Java API: The bytes of field `i`. */
+  def get(i: Int): ByteString = apply(i)
+
+  /** Decodes field `i` without creating an intermediate [[akka.util.ByteString]]. */
+  def getString(i: Int, charset: Charset): String = new String(bytes, offsets(i), length(i), charset)
+
+  def utf8String(i: Int): String = getString(i, StandardCharsets.UTF_8)
+
+  override def toString: String =
+    (0 until size).map(utf8String).mkString("CsvRow(", ", ", ")")
+}
+
+/**
+ * A CSV line with fields addressed by column name, as emitted by
+ * [[akka.stream.alpakka.csv.scaladsl.CsvToMap.toIndexedRecord]].
+ *
+ * All records of a stream share one column name to index table built from the header. Fields are
+ * decoded to `String` on first access.
+ */
+final class CsvRecord private[csv] (columnIndex: Map[String, Int], fields: Array[ByteString], charset: Charset) {
+
+  private[this] var decoded: Array[String] = _
+
+  /** Number of fields in this record. */
+  def size: Int = fields.length
+
+  /** Java API: Number of fields in this record. */
+  def getSize: Int = size
+
+  /** The field of column `name`, `None` if there is no such column or this line is shorter. */
+  def get(name: String): Option[ByteString] = {
+    val i = indexOf(name)
+    if (i >= 0) Some(fields(i)) else None
+  }
+
+  /** Java API: The field of column `name`, empty if there is no such column or this line is shorter. */
+  def getOptional(name: String): Optional[ByteString] = {
+    val i = indexOf(name)
+    if (i >= 0) Optional.of(fields(i)) else Optional.empty()
+  }
+
+  /** The decoded field of column `name`, `None` if there is no such column or this line is shorter. */
+  def getString(name: String): Option[String] = {
+    val i = indexOf(name)
+    if (i >= 0) Some(decode(i)) else None
+  }
+
+  /** Java API: The decoded field of column `name`, empty if there is no such column or this line is shorter. */
+  def getStringOptional(name: String): Optional[String] = {
+    val i = indexOf(name)
+    if (i >= 0) Optional.of(decode(i)) else Optional.empty()
+  }
+
+  /** All fields by column name, as [[akka.stream.alpakka.csv.scaladsl.CsvToMap.toMap]] would emit them. */
+  def toMap: Map[String, ByteString] =
+    columnIndex.collect { case (name, i) if i < fields.length => name -> fields(i) }
+
+  private def indexOf(name: String): Int = {
+    val i = columnIndex.getOrElse(name, -1)
+    if (i < fields.length) i else -1
+  }
+
+  private def decode(i: Int): String = {
+    if (decoded eq null) decoded = new Array[String](fields.length)
+    var s = decoded(i)
+    if (s eq null) {
+      s = fields(i).decodeString(charset)
+      decoded(i) = s
+    }
+    s
+  }
+
+  override def toString: String =
+    toMap.map { case (name, field) => s"$name -> ${field.decodeString(charset)}" }.mkString("CsvRecord(", ", ", ")")
+}
@@ -7,7 +7,7 @@ package akka.stream.alpakka.csv.scaladsl
 import java.nio.charset.{Charset, StandardCharsets}
 
 import akka.NotUsed
-import akka.stream.alpakka.csv.impl.CsvFormatter
+import akka.stream.alpakka.csv.impl.{CsvFormatter, CsvFormattingStage}
 import akka.stream.scaladsl.{Flow, Source}
 import akka.util.ByteString
 
@@ -40,14 +40,42 @@ object CsvFormatting {
       quotingStyle: CsvQuotingStyle = CsvQuotingStyle.Required,
       charset: Charset = StandardCharsets.UTF_8,
       byteOrderMark: Option[ByteString] = None
+  ): Flow[T, ByteString, NotUsed] =
+    formatBatched[T](0, delimiter, quoteChar, escapeChar, endOfLine, quotingStyle, charset, byteOrderMark)
+
+  /**
+   * Create a Flow for converting iterables to ByteString, which emits the CSV lines in batches.
+   *
+   * Lines are encoded into a buffer which is reused for the whole stream, and emitted together
+   * once at least `batchSize` bytes are buffered, or when the stream completes. Lines are thus
+   * held back while less than `batchSize` bytes are buffered.
+   *
+   * @param batchSize Minimum number of bytes per emitted ByteString, 0 emits every line on its own
+   * @param endOfLine Line ending (default CR, LF)
+   * @param quotingStyle Quote all fields, or only fields requiring quotes (default)
+   * @param charset Character set, defaults to UTF-8
+   * @param byteOrderMark Certain CSV readers (namely Microsoft Excel) require a Byte Order mark, defaults to None
+   */
+  def formatBatched[T <: immutable.Iterable[String]](
+      batchSize: Int,
+      delimiter: Char = Comma,
+      quoteChar: Char = DoubleQuote,
+      escapeChar: Char = Backslash,
+      endOfLine: String = "\r\n",
+      quotingStyle: CsvQuotingStyle = CsvQuotingStyle.Required,
+      charset: Charset = StandardCharsets.UTF_8,
+      byteOrderMark: Option[ByteString] = None
   ): Flow[T, ByteString, NotUsed] = {
-    val formatter =
-      new CsvFormatter(delimiter, quoteChar, escapeChar, endOfLine, quotingStyle, charset)
+    val formatting = Flow.fromGraph(
+      new CsvFormattingStage[T](
+        () => new CsvFormatter(delimiter, quoteChar, escapeChar, endOfLine, quotingStyle, charset),
+        batchSize
+      )
+    )
     byteOrderMark.fold {
-      Flow[T].map(formatter.toCsv).named("CsvFormatting")
+      formatting
     } { bom =>
-      Flow[T].map(formatter.toCsv).named("CsvFormatting").prepend(Source.single(bom))
+      formatting.prepend(Source.single(bom))
     }
-
   }
 }
@@ -4,9 +4,12 @@
 
 package akka.stream.alpakka.csv.scaladsl
 
+import java.nio.file.Path
+
 import akka.NotUsed
-import akka.stream.alpakka.csv.impl.CsvParsingStage
-import akka.stream.scaladsl.Flow
+import akka.stream.alpakka.csv.CsvRow
+import akka.stream.alpakka.csv.impl.{CsvParsingStage, CsvRowParsingStage, CsvSplitter}
+import akka.stream.scaladsl.{Flow, Source}
 import akka.util.ByteString
 
 object CsvParsing {
@@ -18,6 +21,7 @@ object CsvParsing {
   val Tab: Byte = '\t'
   val DoubleQuote: Byte = '"'
   val maximumLineLengthDefault: Int = 10 * 1024
+  val splitSizeDefault: Int = 8 * 1024 * 1024
 
   /** Creates CSV parsing flow that reads CSV lines from incoming
    * [[akka.util.ByteString]] objects.
@@ -27,4 +31,71 @@ object CsvParsing {
                   escapeChar: Byte = Backslash,
                   maximumLineLength: Int = maximumLineLengthDefault): Flow[ByteString, List[ByteString], NotUsed] =
     Flow.fromGraph(new CsvParsingStage(delimiter, quoteChar, escapeChar, maximumLineLength))
+
+  /** Creates CSV parsing flow that reads CSV lines from incoming
+   * [[akka.util.ByteString]] objects, just like [[lineScanner]].
+   *
+   * Instead of stepping through every byte, it scans the chunks for delimiter, quote, escape, CR and LF
+   * eight bytes at a time and only steps through bytes around them. This pays off for long fields
+   * and for chunks which are not fragmented (e.g. read from files or HTTP entities).
+   */
+  def fastLineScanner(delimiter: Byte = Comma,
+                      quoteChar: Byte = DoubleQuote,
+                      escapeChar: Byte = Backslash,
+                      maximumLineLength: Int = maximumLineLengthDefault): Flow[ByteString, List[ByteString], NotUsed] =
+    Flow.fromGraph(new CsvParsingStage(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true))
+
+  /** Creates CSV parsing flow that reads only the given columns of CSV lines from incoming
+   * [[akka.util.ByteString]] objects.
+   *
+   * Fields of other columns are skipped without being sliced or copied.
+   * The selected fields are emitted in ascending column order; lines lacking a selected column
+   * result in shorter lists.
+   *
+   * @param columns zero-based indices of the columns to emit
+   */
+  def columnScanner(columns: Set[Int],
+                    delimiter: Byte = Comma,
+                    quoteChar: Byte = DoubleQuote,
+                    escapeChar: Byte = Backslash,
+                    maximumLineLength: Int = maximumLineLengthDefault): Flow[ByteString, List[ByteString], NotUsed] =
+    Flow.fromGraph(
+      new CsvParsingStage(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true, Some(columns))
+    )
+
+  /** Creates CSV parsing flow that reads the given columns of CSV lines from incoming
+   * [[akka.util.ByteString]] objects into [[akka.stream.alpakka.csv.CsvRow]]s.
+   *
+   * A row keeps all selected fields in one array and addresses them by offset and length,
+   * instead of allocating a list and a [[akka.util.ByteString]] per field.
+   * Fields of other columns are skipped without being sliced or copied.
+   *
+   * @param columns zero-based indices of the columns to emit
+   */
+  def rowScanner(columns: Set[Int],
+                 delimiter: Byte = Comma,
+                 quoteChar: Byte = DoubleQuote,
+                 escapeChar: Byte = Backslash,
+                 maximumLineLength: Int = maximumLineLengthDefault): Flow[ByteString, CsvRow, NotUsed] =
+    Flow.fromGraph(new CsvRowParsingStage(delimiter, quoteChar, escapeChar, maximumLineLength, Some(columns)))
+
+  /** Creates a source which reads CSV lines from a file, parsing splits of the file in parallel.
+   *
+   * The file is memory-mapped in splits of about `splitSize` bytes which end at line ends outside of quoted
+   * fields. The splits are parsed on up to `parallelism` threads of the materializer's dispatcher and the lines
+   * are emitted in their order within the file. At most `parallelism` splits are held in memory.
+   *
+   * Line numbers reported in [[akka.stream.alpakka.csv.MalformedCsvException]] are relative to the split's start.
+   *
+   * @param parallelism number of splits to parse concurrently
+   * @param splitSize approximate size of a split in bytes
+   */
+  def parallelFromPath(path: Path,
+                       parallelism: Int,
+                       splitSize: Int = splitSizeDefault,
+                       delimiter: Byte = Comma,
+                       quoteChar: Byte = DoubleQuote,
+                       escapeChar: Byte = Backslash,
+                       maximumLineLength: Int = maximumLineLengthDefault): Source[List[ByteString], NotUsed] =
+    CsvSplitter.parallelParse(path, parallelism, splitSize, delimiter, quoteChar, escapeChar, maximumLineLength)
 }
@@ -7,7 +7,8 @@ package akka.stream.alpakka.csv.scaladsl
 import java.nio.charset.{Charset, StandardCharsets}
 
 import akka.NotUsed
-import akka.stream.alpakka.csv.impl.{CsvToMapAsStringsStage, CsvToMapStage}
+import akka.stream.alpakka.csv.CsvRecord
+import akka.stream.alpakka.csv.impl.{CsvToIndexedRecordStage, CsvToMapAsStringsStage, CsvToMapStage}
 import akka.stream.scaladsl.Flow
 import akka.util.ByteString
 
@@ -48,4 +49,25 @@ object CsvToMap {
       headers: String*
   ): Flow[List[ByteString], Map[String, String], NotUsed] =
     Flow.fromGraph(new CsvToMapAsStringsStage(Some(headers.toList), charset))
+
+  /**
+   * A flow translating incoming [[scala.List]] of [[akka.util.ByteString]] to [[akka.stream.alpakka.csv.CsvRecord]]s
+   * using the stream's first element's values as column names.
+   *
+   * In contrast to [[toMap]], the column names are indexed once and shared by all records, so that no map is
+   * built per line. Fields are decoded on first access.
+   * @param charset the charset to decode [[akka.util.ByteString]] to [[scala.Predef.String]], defaults to UTF-8
+   */
+  def toIndexedRecord(charset: Charset = StandardCharsets.UTF_8): Flow[List[ByteString], CsvRecord, NotUsed] =
+    Flow.fromGraph(new CsvToIndexedRecordStage(columnNames = None, charset))
+
+  /**
+   * A flow translating incoming [[scala.List]] of [[akka.util.ByteString]] to [[akka.stream.alpakka.csv.CsvRecord]]s
+   * using the given headers as column names.
+   * @param charset the charset to decode [[akka.util.ByteString]] to [[scala.Predef.String]]
+   * @param headers column names
+   */
+  def toIndexedRecordWithHeaders(charset: Charset,
+                                 headers: String*): Flow[List[ByteString], CsvRecord, NotUsed] =
+    Flow.fromGraph(new CsvToIndexedRecordStage(Some(headers.toList), charset))
 }
@@ -8,6 +8,7 @@ import java.nio.charset.StandardCharsets
 
 import akka.stream.alpakka.csv.impl.CsvFormatter
 import akka.stream.alpakka.csv.scaladsl.CsvQuotingStyle
+import akka.util.ByteString
 import org.scalatest.{Matchers, WordSpec}
 
 class CsvFormatterSpec extends WordSpec with Matchers {
@@ -102,6 +103,40 @@ class CsvFormatterSpec extends WordSpec with Matchers {
     }
   }
 
+  "CSV Formatter with single-byte charsets" should {
+    "encode ISO-8859-1 and replace unmappable chars" in {
+      val formatter = new CsvFormatter(',', '\"', '\\', "\n", CsvQuotingStyle.Required, StandardCharsets.ISO_8859_1)
+      formatter.toCsv(List("två", "ℵ\"")) should be(ByteString("två,\"?\"\"\"\n", StandardCharsets.ISO_8859_1.name()))
+    }
+
+    "encode US-ASCII and replace unmappable chars" in {
+      val formatter = new CsvFormatter(',', '\"', '\\', "\n", CsvQuotingStyle.Required, StandardCharsets.US_ASCII)
+      formatter.toCsv(List("two", "två")).utf8String should be("two,tv?\n")
+    }
+  }
+
+  "CSV Formatter encoding UTF-8" should {
+    val formatter = new CsvFormatter(',', '\"', '\\', "\r\n", CsvQuotingStyle.Required)
+
+    "encode surrogate pairs and replace unpaired surrogates" in {
+      val field = "a\uD83D\uDE00b\uD83Dc"
+      formatter.toCsv(List(field, "x")) should be(ByteString(field + ",x\r\n", StandardCharsets.UTF_8.name()))
+    }
+
+    "buffer lines until flushed" in {
+      formatter.append(List("ett", "två"))
+      formatter.append(List("t\"re"))
+      formatter.bufferedBytes should be(19)
+      formatter.flush().utf8String should be("ett,två\r\n\"t\"\"re\"\r\n")
+      formatter.bufferedBytes should be(0)
+    }
+
+    "grow the buffer for long lines" in {
+      val long = "å" * 10000
+      formatter.toCsv(List(long, long)).utf8String should be(long + "," + long + "\r\n")
+    }
+  }
+
   private def expectInOut(formatter: CsvFormatter, in: String*)(expect: String): Unit =
     formatter.toCsv(in.toList).utf8String should be(expect)
 
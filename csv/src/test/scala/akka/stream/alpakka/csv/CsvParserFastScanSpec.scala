@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv
+
+import akka.stream.alpakka.csv.impl.CsvParser
+import akka.util.ByteString
+
+/**
+ * Runs all [[CsvParserSpec]] cases against the word-at-a-time scanning mode.
+ */
+class CsvParserFastScanSpec extends CsvParserSpec {
+
+  override def newParser(delimiter: Byte, quoteChar: Byte, escapeChar: Byte, maximumLineLength: Int): CsvParser =
+    new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true)
+
+  "CSV parser scanning eight bytes at a time" should {
+    "find delimiters at every position within a word" in {
+      for (length <- 0 to 17) {
+        val field = "x" * length
+        expectInOut(s"$field,$field\n", List(field, field))
+      }
+    }
+
+    "read long unquoted and quoted fields" in {
+      val long = "abcdefghij" * 10
+      val q = "\""
+      expectInOut(long + "," + q + long + q + "," + q + long + q + q + long + q + "\n",
+                  List(long, long, long + q + long))
+    }
+
+    "find CR, LF and escapes after long runs" in {
+      val long = "abcdefghij" * 3
+      expectInOut(long + "\\\\" + long + "\r\n\"" + long + "\\\"" + long + "\"\n",
+                  List(long + "\\" + long),
+                  List(long + "\"" + long))
+    }
+
+    "scan chunks which are slices of larger arrays" in {
+      val parser = newParser(',', '"', '\\', maximumLineLength)
+      val input = ByteString("garbage:abcdefghijklmnop,qrstuvwxyz\nrest")
+      parser.offer(input.drop(8).dropRight(4))
+      parser.poll(requireLineEnd = true).value.map(_.utf8String) should be(List("abcdefghijklmnop", "qrstuvwxyz"))
+    }
+
+    "scan fragmented chunks byte by byte" in {
+      val parser = newParser(',', '"', '\\', maximumLineLength)
+      parser.offer(ByteString("abcdefghijklmnop,") ++ ByteString("qrstuvwxyz\n"))
+      parser.poll(requireLineEnd = true).value.map(_.utf8String) should be(List("abcdefghijklmnop", "qrstuvwxyz"))
+    }
+
+    "enforce the line length limit within long fields" in {
+      val parser = newParser(',', '"', '\\', 20)
+      parser.offer(ByteString("a" * 30 + "\n"))
+      val exception = the[MalformedCsvException] thrownBy {
+        parser.poll(requireLineEnd = true)
+      }
+      exception.getMessage should be("no line end encountered within 20 bytes on line 1")
+    }
+  }
+}
@@ -15,6 +15,9 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
 
   val maximumLineLength = 10 * 1024
 
+  def newParser(delimiter: Byte, quoteChar: Byte, escapeChar: Byte, maximumLineLength: Int): CsvParser =
+    new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength)
+
   "CSV parser" should {
     "read comma separated values into a list" in {
       expectInOut("one,two,three\n", List("one", "two", "three"))
@@ -34,7 +37,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
 
     "parse empty input to None" in {
       val in = ByteString.empty
-      val parser = new CsvParser(',', '-', '.', maximumLineLength)
+      val parser = newParser(',', '-', '.', maximumLineLength)
       parser.offer(in)
       parser.poll(requireLineEnd = true) should be('empty)
     }
@@ -114,7 +117,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
 
     "fail on escaped quote as quotes are escaped by doubled quote chars" in {
       val in = ByteString("a,\\\",c\n")
-      val parser = new CsvParser(',', '"', '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(in)
       val exception = the[MalformedCsvException] thrownBy {
         parser.poll(requireLineEnd = true)
@@ -126,7 +129,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
 
     "fail on escape at line end" in {
       val in = ByteString("""a,\""")
-      val parser = new CsvParser(',', '"', '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(in)
       val exception = the[MalformedCsvException] thrownBy {
         parser.poll(requireLineEnd = false)
@@ -136,7 +139,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
 
     "fail on escape within field at line end" in {
       val in = ByteString("""a,b\""")
-      val parser = new CsvParser(',', '"', '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(in)
       val exception = the[MalformedCsvException] thrownBy {
         parser.poll(requireLineEnd = false)
@@ -146,7 +149,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
 
     "fail on escape within quoted field at line end" in {
       val in = ByteString("""a,"\""")
-      val parser = new CsvParser(',', '"', '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(in)
       val exception = the[MalformedCsvException] thrownBy {
         parser.poll(requireLineEnd = false)
@@ -172,7 +175,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
 
     "allow Unicode L SEP 0x2028 as line separator" ignore {
       val in = ByteString("abc\u2028")
-      val parser = new CsvParser(',', '"', '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(in)
       val res = parser.poll(requireLineEnd = true)
       res.value.map(_.utf8String) should be(List("abc"))
@@ -234,7 +237,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
     }
 
     def splitInput(in1: String, in2: String, expect: List[String]) = {
-      val parser = new CsvParser(delimiter = ',', quoteChar = '"', escapeChar = '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(ByteString(in1))
       parser.poll(requireLineEnd = true) should be('empty)
       parser.offer(ByteString(in2) ++ ByteString("\n"))
@@ -243,7 +246,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
     }
 
     "fail for unclosed quotes at end of input" in {
-      val parser = new CsvParser(delimiter = ',', quoteChar = '"', escapeChar = '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(ByteString("\"A\""))
       parser.poll(requireLineEnd = true) should be('empty)
       parser.offer(ByteString("\",B"))
@@ -255,20 +258,20 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
     }
 
     "accept delimiter as last input" in {
-      val parser = new CsvParser(delimiter = ',', quoteChar = '"', escapeChar = '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(ByteString("A,B\nA,"))
       parser.poll(requireLineEnd = false).value.map(_.utf8String) should be(List("A", "B"))
       parser.poll(requireLineEnd = false).value shouldBe List(ByteString("A"), ByteString.empty)
     }
 
     "accept delimiter as last input on first line" in {
-      val parser = new CsvParser(delimiter = ',', quoteChar = '"', escapeChar = '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(ByteString("A,"))
       parser.poll(requireLineEnd = false).value shouldBe List(ByteString("A"), ByteString.empty)
     }
 
     "detect line ending correctly if input is split between CR & LF" in {
-      val parser = new CsvParser(delimiter = ',', quoteChar = '"', escapeChar = '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(ByteString("A,D\r"))
       parser.poll(requireLineEnd = true) should be('empty)
       parser.offer(ByteString("\nB,E\r\n"))
@@ -278,7 +281,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
     }
 
     "detect line ending correctly if input is split between CR, CR & LF" in {
-      val parser = new CsvParser(delimiter = ',', quoteChar = '"', escapeChar = '\\', maximumLineLength)
+      val parser = newParser(',', '"', '\\', maximumLineLength)
       parser.offer(ByteString("A,D\r"))
       parser.poll(requireLineEnd = true) should be('empty)
       parser.offer(ByteString("\r"))
@@ -301,7 +304,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
 
     "fail on a very 'long' line" in {
       val in = ByteString("a,b,c\n1,3,5,7,9,1\n")
-      val parser = new CsvParser(',', '"', '\\', 11)
+      val parser = newParser(',', '"', '\\', 11)
       parser.offer(in)
       parser.poll(requireLineEnd = true)
       val exception = the[MalformedCsvException] thrownBy {
@@ -351,7 +354,7 @@ class CsvParserSpec extends WordSpec with Matchers with OptionValues {
                                                                quoteChar: Byte = '"',
                                                                escapeChar: Byte = '\\',
                                                                requireLineEnd: Boolean = true): Unit = {
-    val parser = new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength)
+    val parser = newParser(delimiter, quoteChar, escapeChar, maximumLineLength)
     parser.offer(bsIn)
     expected.foreach { out =>
       parser.poll(requireLineEnd).value.map(_.utf8String) should be(out)
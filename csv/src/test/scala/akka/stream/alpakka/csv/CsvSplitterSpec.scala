@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.csv
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+
+import akka.stream.alpakka.csv.impl.CsvSplitter
+import akka.util.ByteString
+import org.scalatest.{Matchers, WordSpec}
+
+class CsvSplitterSpec extends WordSpec with Matchers {
+
+  val splitSize = 10
+  val maximumLineLength = 20
+
+  "CSV splitter" should {
+    "split after the first line feed at or after the split size" in {
+      splits("aaaa,bb\ncccc,dddd\nee,ff\n") should be(List("aaaa,bb\ncccc,dddd\n", "ee,ff\n"))
+    }
+
+    "read a file with CR-only line ends as one split" in {
+      val content = "aaaa,bbbb\r" * 10
+      splits(content) should be(List(content))
+    }
+
+    "not split within a quoted field that spans the split size" in {
+      val content = "a,\"bbbb\ncccc\ndddd\"\ne,f\n"
+      splits(content) should be(List("a,\"bbbb\ncccc\ndddd\"\n", "e,f\n"))
+    }
+
+    "read the rest of the file as one split when a quoted field spans the whole window" in {
+      val quoted = "\"" + ("bbbb\n" * 10) + "\""
+      val content = "a,b\n" + "a," + quoted + "\ne,f\n"
+      splits(content) should be(List(content))
+    }
+  }
+
+  def splits(content: String): List[String] = {
+    val file = Files.createTempFile("CsvSplitterSpec", ".csv")
+    try {
+      Files.write(file, content.getBytes(StandardCharsets.UTF_8))
+      readSplits(file)
+    } finally Files.delete(file)
+  }
+
+  def readSplits(file: Path): List[String] = {
+    val splitter = new CsvSplitter(file, splitSize, ',', '"', '\\', maximumLineLength)
+    try {
+      Iterator
+        .continually(splitter.next())
+        .takeWhile(_.isDefined)
+        .map(split => ByteString(split.get).utf8String)
+        .toList
+    } finally splitter.close()
+  }
+}
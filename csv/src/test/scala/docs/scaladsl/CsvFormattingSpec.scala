@@ -76,5 +76,15 @@ class CsvFormattingSpec extends CsvSpec {
       )
     }
 
+    "emit lines in batches" in assertAllStagesStopped {
+      import akka.stream.alpakka.csv.scaladsl.CsvFormatting
+
+      val fut = Source(List(List("eins", "zwei"), List("uno", "dos"), List("one", "two")))
+        .via(CsvFormatting.formatBatched(batchSize = 20))
+        .runWith(Sink.seq)
+      fut.futureValue should be(
+        List(ByteString("eins,zwei\r\nuno,dos\r\n"), ByteString("one,two\r\n"))
+      )
+    }
   }
 }
@@ -4,7 +4,8 @@
 
 package docs.scaladsl
 
-import java.nio.file.Paths
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Paths}
 
 import akka.NotUsed
 import akka.stream.alpakka.csv.scaladsl.{CsvParsing, CsvToMap}
@@ -248,5 +249,51 @@ class CsvParsingSpec extends CsvSpec {
         )
       )
     }
+
+    "read only selected columns" in assertAllStagesStopped {
+      val fut = Source
+        .single(ByteString("a,b,c,d\n1,\\2,\"3,3\",4\n5,6\n"))
+        .via(CsvParsing.columnScanner(Set(1, 2)))
+        .map(_.map(_.utf8String))
+        .runWith(Sink.seq)
+      fut.futureValue should be(Seq(List("b", "c"), List("\\2", "3,3"), List("6")))
+    }
+
+    "read selected columns into rows" in assertAllStagesStopped {
+      val fut = Source(List(ByteString("a,b,c,d\n1,\"2,"), ByteString("2\",3,4\n,,,")))
+        .via(CsvParsing.rowScanner(Set(0, 1, 3)))
+        .runWith(Sink.seq)
+      val rows = fut.futureValue
+      rows.map(_.size) should be(Seq(3, 3, 3))
+      rows.head.data should be(ByteString("abd"))
+      (0 until 3).map(rows(1).utf8String) should be(Seq("1", "2,2", "4"))
+      rows(1).offset(2) should be(4)
+      rows(1).length(2) should be(1)
+      rows(1)(1) should be(ByteString("2,2"))
+      (0 until 3).map(rows(2).utf8String) should be(Seq("", "", ""))
+    }
+
+    "parse a file in parallel splits" in assertAllStagesStopped {
+      val lines = (1 to 500).map { i =>
+        if (i % 3 == 0) s"""$i,"multi\nline, $i",\\\\"""
+        else if (i % 5 == 0) s"""$i,"quoted ""$i"" value",x"""
+        else s"$i,plain $i,y"
+      }
+      val file = Files.createTempFile("parallel", ".csv")
+      try {
+        Files.write(file, lines.mkString("", "\n", "\n").getBytes(StandardCharsets.UTF_8))
+        val expected = Source
+          .single(ByteString(Files.readAllBytes(file)))
+          .via(CsvParsing.lineScanner())
+          .runWith(Sink.seq)
+          .futureValue
+        val result = CsvParsing
+          .parallelFromPath(file, parallelism = 4, splitSize = 100)
+          .runWith(Sink.seq)
+          .futureValue
+        result should have size 500
+        result should be(expected)
+      } finally Files.delete(file)
+    }
   }
 }
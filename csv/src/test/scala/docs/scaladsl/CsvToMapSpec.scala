@@ -189,5 +189,34 @@ class CsvToMapSpec extends CsvSpec {
       // #column-names
     }
 
+    "parse header line and data lines into indexed records" in assertAllStagesStopped {
+      val future =
+        Source
+          .single(ByteString("""eins,zwei,drei
+                               |1,2,3
+                               |4,5
+                               |""".stripMargin))
+          .via(CsvParsing.lineScanner())
+          .via(CsvToMap.toIndexedRecord())
+          .runWith(Sink.seq)
+      val records = future.futureValue
+      records should have size 2
+      records.head.get("zwei") should be(Some(ByteString("2")))
+      records.head.getString("drei") should be(Some("3"))
+      records.head.getString("vier") should be(None)
+      records(1).getString("drei") should be(None)
+      records(1).toMap should be(Map("eins" -> ByteString("4"), "zwei" -> ByteString("5")))
+    }
+
+    "use column names for indexed records" in assertAllStagesStopped {
+      val future =
+        Source
+          .single(ByteString("1,2\n"))
+          .via(CsvParsing.lineScanner())
+          .via(CsvToMap.toIndexedRecordWithHeaders(StandardCharsets.UTF_8, "eins", "zwei"))
+          .runWith(Sink.head)
+      future.futureValue.getString("eins") should be(Some("1"))
+      future.futureValue.getString("zwei") should be(Some("2"))
+    }
   }
 }
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.json.impl
+
+import akka.annotation.InternalApi
+import akka.stream._
+import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
+import akka.util.ByteString
+import com.fasterxml.jackson.core.async.ByteArrayFeeder
+import com.fasterxml.jackson.core.{JsonFactory, JsonParseException, JsonParser, JsonProcessingException, JsonToken}
+
+import scala.collection.immutable
+import scala.collection.immutable.Queue
+
+/**
+ * Internal API
+ *
+ * The subset of JsonPath which can be matched while tracking byte offsets:
+ * child names (`.name`, `['name']`), array indices (`[0]`) and wildcards (`.*` for object members,
+ * `[*]` for array elements), starting at the root `$`.
+ */
+@InternalApi
+private[akka] object JsonSlicePath {
+
+  sealed trait Segment
+  final case class Child(name: String) extends Segment
+  case object AnyChild extends Segment
+  final case class Index(index: Int) extends Segment
+  case object AnyIndex extends Segment
+
+  def parse(path: String): immutable.IndexedSeq[Segment] = {
+    def unsupported(reason: String) =
+      throw new IllegalArgumentException(s"JsonPath [$path] is not supported for byte slices: $reason")
+
+    if (!path.startsWith("$")) unsupported("it must start with '$'")
+    val segments = Vector.newBuilder[Segment]
+    var i = 1
+    while (i < path.length) {
+      path.charAt(i) match {
+        case '.' =>
+          if (path.startsWith("..", i)) unsupported("deep scan is not supported")
+          val end = indexOfAny(path, ".[", i + 1)
+          val name = path.substring(i + 1, end)
+          if (name.isEmpty) unsupported(s"empty name at $i")
+          segments += (if (name == "*") AnyChild else Child(name))
+          i = end
+        case '[' =>
+          val end = path.indexOf(']', i)
+          if (end < 0) unsupported(s"unclosed '[' at $i")
+          val inner = path.substring(i + 1, end).trim
+          segments += {
+            if (inner == "*") AnyIndex
+            else if (inner.length >= 2 && (inner.head == '\'' || inner.head == '"') && inner.last == inner.head)
+              Child(inner.substring(1, inner.length - 1))
+            else if (inner.nonEmpty && inner.forall(Character.isDigit)) Index(inner.toInt)
+            else unsupported(s"[$inner] is neither a name, an index nor a wildcard")
+          }
+          i = end + 1
+        case other =>
+          unsupported(s"unexpected '$other' at $i")
+      }
+    }
+    segments.result()
+  }
+
+  private def indexOfAny(s: String, chars: String, from: Int): Int = {
+    var i = from
+    while (i < s.length && chars.indexOf(s.charAt(i).toInt) < 0) i += 1
+    i
+  }
+
+  private def isWhitespace(b: Byte): Boolean = b == ' ' || b == '\n' || b == '\r' || b == '\t'
+
+  private def isDelimiter(b: Byte): Boolean = b == ',' || b == ']' || b == '}'
+
+  /**
+   * Drops JSON whitespace around a value. Numbers and literals are only known to end once the following
+   * byte has been read, so for them any trailing delimiters are dropped as well.
+   */
+  private[impl] def trim(bytes: ByteString, literal: Boolean): ByteString = {
+    val start = bytes.indexWhere(b => !isWhitespace(b))
+    if (start < 0) ByteString.empty
+    else {
+      var end = bytes.length
+      while (end > start && (isWhitespace(bytes(end - 1)) || (literal && isDelimiter(bytes(end - 1))))) end -= 1
+      bytes.slice(start, end)
+    }
+  }
+}
+
+/**
+ * Internal API
+ *
+ * Emits the matched values as slices of the incoming bytes, instead of rendering them from a parsed tree.
+ * Uses Jackson's non-blocking parser to track the byte offsets at which matched values start and end, and
+ * retains incoming chunks only as long as they may contain bytes of a value still to be emitted.
+ */
+@InternalApi
+private[akka] final class JsonSliceReader(path: String) extends GraphStage[FlowShape[ByteString, ByteString]] {
+  import JsonSlicePath._
+
+  private val segments = JsonSlicePath.parse(path)
+
+  private val in = Inlet[ByteString]("Json.in")
+  private val out = Outlet[ByteString]("Json.out")
+  override val shape = FlowShape(in, out)
+
+  override def initialAttributes: Attributes = Attributes.name(s"jsonSliceReader($path)")
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      setHandlers(in, out, this)
+
+      private var buffer = Queue.empty[ByteString]
+
+      private val parser: JsonParser = new JsonFactory().createNonBlockingByteArrayParser()
+      private val feeder = parser.getNonBlockingInputFeeder.asInstanceOf[ByteArrayFeeder]
+      private var scratch = Array.emptyByteArray
+
+      /** Incoming bytes not yet known to be irrelevant, starting at stream offset [[retainedOffset]]. */
+      private var retained = ByteString.empty
+      private var retainedOffset = 0L
+
+      /** Per nesting level: whether it is an array, and the current member name or element index. */
+      private var depth = 0
+      private var isArray = new Array[Boolean](16)
+      private var names = new Array[String](16)
+      private var indices = new Array[Int](16)
+
+      /** Depth of the matched container value being read, -1 if none. */
+      private var matchDepth = -1
+      private var matchStart = 0L
+
+      override def onPull(): Unit = tryPull(in)
+
+      override def onPush(): Unit = {
+        val input = grab(in)
+        retained ++= input
+
+        try {
+          feed(input)
+          readTokens()
+        } catch {
+          case e: JsonProcessingException =>
+            failStage(e)
+            return
+        }
+
+        if (buffer.nonEmpty) {
+          emitMultiple(out, buffer)
+          buffer = Queue.empty[ByteString]
+        } else {
+          tryPull(in)
+        }
+      }
+
+      override def onUpstreamFinish(): Unit = {
+        try {
+          feeder.endOfInput()
+          readTokens()
+          if (depth > 0) throw new JsonParseException(parser, "Unexpected end of input within a JSON structure")
+        } catch {
+          case e: JsonProcessingException =>
+            failStage(e)
+            return
+        }
+
+        emitMultiple(out, buffer)
+        completeStage()
+      }
+
+      /**
+       * Copies the bytes into an array reused for every chunk, as the parser consumes all input before
+       * [[readTokens]] returns.
+       */
+      private def feed(bytes: ByteString): Unit = {
+        if (scratch.length < bytes.length) scratch = new Array[Byte](math.max(bytes.length, scratch.length * 2))
+        bytes.copyToArray(scratch, 0, bytes.length)
+        feeder.feedInput(scratch, 0, bytes.length)
+      }
+
+      private def readTokens(): Unit = {
+        var token = parser.nextToken()
+        while (token != null && token != JsonToken.NOT_AVAILABLE) {
+          token match {
+            case JsonToken.FIELD_NAME =>
+              names(depth - 1) = parser.getCurrentName
+            case JsonToken.START_OBJECT | JsonToken.START_ARRAY =>
+              valueStarted(token)
+              enter(token == JsonToken.START_ARRAY)
+            case JsonToken.END_OBJECT | JsonToken.END_ARRAY =>
+              depth -= 1
+              if (depth == matchDepth) {
+                emitSlice(matchStart, parser.getCurrentLocation.getByteOffset, literal = false)
+                matchDepth = -1
+              }
+            case _ =>
+              if (valueStarted(token))
+                emitSlice(parser.getTokenLocation.getByteOffset,
+                          parser.getCurrentLocation.getByteOffset,
+                          literal = token != JsonToken.VALUE_STRING)
+          }
+          token = parser.nextToken()
+        }
+        releaseRetained()
+      }
+
+      /**
+       * Records a value starting at the current depth.
+       * @return true if it is a matched scalar value
+       */
+      private def valueStarted(token: JsonToken): Boolean = {
+        if (depth > 0 && isArray(depth - 1)) indices(depth - 1) += 1
+        if (matchDepth < 0 && depth == segments.length && matches()) {
+          token match {
+            case JsonToken.START_OBJECT | JsonToken.START_ARRAY =>
+              matchDepth = depth
+              matchStart = parser.getTokenLocation.getByteOffset
+              false
+            case _ =>
+              true
+          }
+        } else false
+      }
+
+      private def matches(): Boolean = {
+        var i = 0
+        var matching = true
+        while (matching && i < depth) {
+          matching = segments(i) match {
+            case Child(name) => !isArray(i) && name == names(i)
+            case AnyChild => !isArray(i)
+            case Index(index) => isArray(i) && index == indices(i)
+            case AnyIndex => isArray(i)
+          }
+          i += 1
+        }
+        matching
+      }
+
+      private def enter(array: Boolean): Unit = {
+        if (depth == isArray.length) {
+          isArray = java.util.Arrays.copyOf(isArray, depth * 2)
+          names = java.util.Arrays.copyOf(names, depth * 2)
+          indices = java.util.Arrays.copyOf(indices, depth * 2)
+        }
+        isArray(depth) = array
+        names(depth) = null
+        indices(depth) = -1
+        depth += 1
+      }
+
+      private def emitSlice(start: Long, end: Long, literal: Boolean): Unit = {
+        val slice = retained.slice((start - retainedOffset).toInt, (end - retainedOffset).toInt)
+        buffer = buffer.enqueue(trim(slice, literal))
+      }
+
+      /**
+       * Drops retained bytes before the current match or, if there is none, before the token being read,
+       * as no value to emit can start earlier.
+       */
+      private def releaseRetained(): Unit = {
+        val keepFrom = if (matchDepth >= 0) matchStart else parser.getTokenLocation.getByteOffset
+        if (keepFrom > retainedOffset) {
+          retained = retained.drop((keepFrom - retainedOffset).toInt)
+          retainedOffset = keepFrom
+        }
+      }
+    }
+}
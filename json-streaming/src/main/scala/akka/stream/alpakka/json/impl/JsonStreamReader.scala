@@ -12,19 +12,24 @@ import org.jsfr.json.exception.JsonSurfingException
 import org.jsfr.json.path.JsonPath
 import org.jsfr.json.{JsonPathListener, JsonSurferJackson, ParsingContext}
 
+import scala.collection.immutable
 import scala.collection.immutable.Queue
 
 /**
  * Internal API
+ *
+ * Binds all `paths` to a single non-blocking JsonSurfer parser and emits what `element` creates from the
+ * index of the matching path and the matched value.
  */
 @InternalApi
-private[akka] final class JsonStreamReader(path: JsonPath) extends GraphStage[FlowShape[ByteString, ByteString]] {
+private[akka] abstract class JsonStreamReaderBase[T](paths: immutable.Seq[JsonPath])
+    extends GraphStage[FlowShape[ByteString, T]] {
 
   private val in = Inlet[ByteString]("Json.in")
-  private val out = Outlet[ByteString]("Json.out")
+  private val out = Outlet[T]("Json.out")
   override val shape = FlowShape(in, out)
 
-  override def initialAttributes: Attributes = Attributes.name(s"jsonReader($path)")
+  protected def element(pathIndex: Int, value: ByteString): T
 
   override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
     new GraphStageLogic(shape) with InHandler with OutHandler {
@@ -32,14 +37,17 @@ private[akka] final class JsonStreamReader(path: JsonPath) extends GraphStage[Fl
       private val out = shape.out
       setHandlers(in, out, this)
 
-      private var buffer = Queue.empty[ByteString]
+      private var buffer = Queue.empty[T]
 
       private val surfer = JsonSurferJackson.INSTANCE
-      private val config = surfer.configBuilder
-        .bind(path, new JsonPathListener {
-          override def onValue(value: Any, context: ParsingContext): Unit =
-            buffer = buffer.enqueue(ByteString(value.toString))
-        })
+      private val config = paths.zipWithIndex
+        .foldLeft(surfer.configBuilder) {
+          case (builder, (path, index)) =>
+            builder.bind(path, new JsonPathListener {
+              override def onValue(value: Any, context: ParsingContext): Unit =
+                buffer = buffer.enqueue(element(index, ByteString(value.toString)))
+            })
+        }
         .build
       private val parser = surfer.createNonBlockingParser(config)
 
@@ -59,7 +67,7 @@ private[akka] final class JsonStreamReader(path: JsonPath) extends GraphStage[Fl
 
         if (buffer.nonEmpty) {
           emitMultiple(out, buffer)
-          buffer = Queue.empty[ByteString]
+          buffer = Queue.empty[T]
         } else {
           // Iff the buffer is empty, we haven't consumed any values yet
           // and thus we still need to fulfill downstream need.
@@ -77,3 +85,29 @@ private[akka] final class JsonStreamReader(path: JsonPath) extends GraphStage[Fl
         }
     }
 }
+
+/**
+ * Internal API
+ */
+@InternalApi
+private[akka] final class JsonStreamReader(path: JsonPath) extends JsonStreamReaderBase[ByteString](List(path)) {
+
+  override def initialAttributes: Attributes = Attributes.name(s"jsonReader($path)")
+
+  override protected def element(pathIndex: Int, value: ByteString): ByteString = value
+}
+
+/**
+ * Internal API
+ *
+ * Emits the values matching any of `paths`, tagged with the index of the matching path.
+ */
+@InternalApi
+private[akka] final class JsonMultiStreamReader(paths: immutable.Seq[JsonPath])
+    extends JsonStreamReaderBase[(Int, ByteString)](paths) {
+  require(paths.nonEmpty, "at least one JsonPath is required")
+
+  override def initialAttributes: Attributes = Attributes.name(s"jsonReader(${paths.mkString(", ")})")
+
+  override protected def element(pathIndex: Int, value: ByteString): (Int, ByteString) = (pathIndex, value)
+}
@@ -5,12 +5,14 @@
 package akka.stream.alpakka.json.scaladsl
 
 import akka.NotUsed
-import akka.stream.alpakka.json.impl.JsonStreamReader
+import akka.stream.alpakka.json.impl.{JsonMultiStreamReader, JsonSliceReader, JsonStreamReader}
 import akka.stream.scaladsl.Flow
 import akka.util.ByteString
 import org.jsfr.json.compiler.JsonPathCompiler
 import org.jsfr.json.path.JsonPath
 
+import scala.collection.immutable
+
 object JsonReader {
 
   /**
@@ -32,4 +34,26 @@ object JsonReader {
    * @see [[#select]]
    */
   def select(path: String): Flow[ByteString, ByteString, NotUsed] = select(JsonPathCompiler.compile(path))
+
+  /**
+   * A Flow that consumes incoming json in chunks and produces the json values matching any of the JsonPaths
+   * given, tagged with the index of the matching path in `paths`. All paths are matched by one parser in a
+   * single pass over the input.
+   *
+   * @see [[#select]]
+   */
+  def selectMany(paths: immutable.Seq[String]): Flow[ByteString, (Int, ByteString), NotUsed] =
+    Flow.fromGraph(new JsonMultiStreamReader(paths.map(path => JsonPathCompiler.compile(path))))
+
+  /**
+   * A Flow that consumes incoming json in chunks and produces the json values matching the JsonPath given
+   * as slices of the incoming bytes. The values keep their original formatting and are not copied, which
+   * avoids parsing them into a tree and rendering them again as [[#select]] does.
+   *
+   * Only a subset of JsonPath is supported: the root `$`, child names (`.name` or `['name']`), array
+   * indices (`[0]`) and wildcards (`.*` and `[*]`).
+   *
+   * @throws IllegalArgumentException if the path uses unsupported JsonPath syntax
+   */
+  def selectSlices(path: String): Flow[ByteString, ByteString, NotUsed] = Flow.fromGraph(new JsonSliceReader(path))
 }
@@ -5,6 +5,7 @@
 package docs.javadsl;
 
 import akka.actor.ActorSystem;
+import akka.japi.Pair;
 import akka.stream.ActorMaterializer;
 import akka.stream.Materializer;
 import akka.stream.alpakka.json.javadsl.JsonReader;
@@ -15,6 +16,7 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
@@ -22,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static org.hamcrest.CoreMatchers.hasItems;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 public class JsonReaderUsageTest {
@@ -71,6 +74,27 @@ public class JsonReaderUsageTest {
         .get(5, TimeUnit.SECONDS);
   }
 
+  @Test
+  public void jsonParserForSeveralPaths()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    final ByteString doc =
+        ByteString.fromString(
+            "{\"size\": 1, \"rows\": [{\"id\": 1, \"doc\": {\"name\":\"test1\"}}]}");
+
+    final CompletionStage<List<Pair<Integer, ByteString>>> resultStage =
+        Source.single(doc)
+            .via(JsonReader.selectMany(Arrays.asList("$.rows[*].doc", "$.size")))
+            .runWith(Sink.seq(), materializer);
+
+    final List<Pair<Integer, ByteString>> result =
+        resultStage.toCompletableFuture().get(5, TimeUnit.SECONDS);
+    assertEquals(
+        Arrays.asList(
+            Pair.create(1, ByteString.fromString("1")),
+            Pair.create(0, ByteString.fromString("{\"name\":\"test1\"}"))),
+        result);
+  }
+
   @BeforeClass
   public static void setup() throws Exception {
     system = ActorSystem.create();
@@ -9,6 +9,7 @@ import akka.stream.{ActorMaterializer, Materializer}
 import akka.stream.alpakka.json.scaladsl.JsonReader
 import akka.stream.scaladsl.{Sink, Source}
 import akka.util.ByteString
+import com.fasterxml.jackson.core.JsonProcessingException
 import org.jsfr.json.compiler.JsonPathCompiler
 import org.jsfr.json.exception.JsonSurfingException
 import org.scalatest.{BeforeAndAfterAll, Matchers, WordSpec}
@@ -107,10 +108,94 @@ class JsonReaderTest extends WordSpec with Matchers with BeforeAndAfterAll {
       }
     }
 
+    "push the elements of several paths in a single pass" in {
+      // #select-many
+      val results = Source
+        .single(ByteString.fromString(baseDocument))
+        .via(JsonReader.selectMany(List("$.rows[*].doc", "$.size")))
+        .runWith(Sink.seq)
+      // #select-many
+
+      val streamed = Await.result(results, timeout)
+      streamed shouldBe (1 -> ByteString("3")) +: expectedElements.map(e => 0 -> ByteString.fromString(e))
+    }
+
+    "push the elements of several paths arriving in very small chunks" in {
+      val chunks = baseDocument.grouped(2).toList.map(ByteString.fromString)
+
+      val streamed = collect(Source(chunks).via(JsonReader.selectMany(List("$.rows[*].id", "$.rows[*].doc"))))
+      streamed shouldBe expectedElements.zipWithIndex.flatMap {
+        case (e, i) => Seq(0 -> ByteString((i + 1).toString), 1 -> ByteString.fromString(e))
+      }
+    }
+
     "fail early if the given JsonPath is not parseable" in {
       a[RuntimeException] shouldBe thrownBy(JsonReader.select("invalid"))
     }
   }
 
+  "JSON slice support" must {
+    "push the elements wanted as slices of the input" in {
+      // #slices
+      val results = Source
+        .single(ByteString.fromString(baseDocument))
+        .via(JsonReader.selectSlices("$.rows[*].doc"))
+        .runWith(Sink.seq)
+      // #slices
+
+      val streamed = Await.result(results, timeout)
+      streamed shouldBe expectedElements.map(ByteString.fromString)
+    }
+
+    "push the elements wanted of json arriving in small and larger chunks" in {
+      for (size <- Seq(1, 2, 10)) {
+        val chunks = baseDocument.grouped(size).toList.map(ByteString.fromString)
+        collect(Source(chunks).via(JsonReader.selectSlices("$.rows[*].doc"))) shouldBe expectedElements
+          .map(ByteString.fromString)
+      }
+    }
+
+    "slice scalar values of a top-level array" in {
+      val content = """[1, "two" ,true,{"a":[3]}, null]"""
+
+      val streamed = collect(Source.single(ByteString.fromString(content)).via(JsonReader.selectSlices("$[*]")))
+      streamed shouldBe Seq("1", "\"two\"", "true", """{"a":[3]}""", "null").map(ByteString.fromString)
+    }
+
+    "keep the original formatting of values" in {
+      val content = """{"a": {"b" : [ 1,
+                      |  2 ] }, "c": 3}""".stripMargin
+
+      val streamed = collect(Source.single(ByteString.fromString(content)).via(JsonReader.selectSlices("$['a'].b")))
+      streamed shouldBe Seq(ByteString.fromString("""[ 1,
+                                                    |  2 ]""".stripMargin))
+    }
+
+    "select array elements by index" in {
+      val streamed =
+        collect(Source.single(ByteString.fromString(baseDocument)).via(JsonReader.selectSlices("$.rows[1].*")))
+      streamed shouldBe Seq(ByteString("2"), ByteString.fromString(expectedElements(1)))
+    }
+
+    "fail the stream if it encounters invalid json" in {
+      a[JsonProcessingException] shouldBe thrownBy {
+        collect(Source.single(ByteString("{invalid: json}")).via(JsonReader.selectSlices("$.invalid[*]")))
+      }
+    }
+
+    "fail the stream if the json is incomplete" in {
+      val chunks = Vector("{", "\"numbers\"", ":", "[", "1", ",", "2")
+
+      a[JsonProcessingException] shouldBe thrownBy {
+        collect(Source(chunks.map(ByteString.fromString)).via(JsonReader.selectSlices("$.numbers[*]")))
+      }
+    }
+
+    "fail early if the given JsonPath is not supported" in {
+      an[IllegalArgumentException] shouldBe thrownBy(JsonReader.selectSlices("$..doc"))
+      an[IllegalArgumentException] shouldBe thrownBy(JsonReader.selectSlices("$.rows[?(@.id > 1)]"))
+    }
+  }
+
   override protected def afterAll(): Unit = system.terminate()
 }
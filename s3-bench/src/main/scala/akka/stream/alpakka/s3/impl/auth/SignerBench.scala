@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl.auth
+
+import java.time.{ZoneOffset, ZonedDateTime}
+import java.util.concurrent.TimeUnit
+
+import akka.http.scaladsl.model.headers.{Host, RawHeader}
+import akka.http.scaladsl.model.{HttpMethods, HttpRequest, Uri}
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+import software.amazon.awssdk.auth.credentials.{AwsBasicCredentials, StaticCredentialsProvider}
+import software.amazon.awssdk.regions.Region
+
+/**
+ * Measures the work done to sign a single S3 request without a payload, like a HEAD or a DELETE request:
+ * creating the signing key, building the canonical request and computing the signature.
+ *
+ * Run with several threads to include contention on the shared signing key cache:
+ * > s3-bench/jmh:run -t4 -f1 -wi 5 -i 10 .*SignerBench
+ *
+ * @see https://github.com/ktoso/sbt-jmh
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class SignerBench {
+
+  private val credentials = StaticCredentialsProvider.create(
+    AwsBasicCredentials.create("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY")
+  )
+
+  private val request = HttpRequest(HttpMethods.HEAD)
+    .withUri(
+      Uri("https://bucket.s3.amazonaws.com/some/folder/object%20(1).txt").withQuery(Uri.Query("versionId" -> "3"))
+    )
+    .withHeaders(
+      Host("bucket.s3.amazonaws.com"),
+      RawHeader("x-amz-date", "20150830T123600Z"),
+      RawHeader("x-amz-content-sha256", "UNSIGNED-PAYLOAD")
+    )
+
+  private def signingKey(): SigningKey = {
+    val requestDate = ZonedDateTime.now(ZoneOffset.UTC)
+    SigningKey(requestDate, credentials, CredentialScope(requestDate.toLocalDate, Region.US_EAST_1, "s3"))
+  }
+
+  @Benchmark
+  def deriveKey(bh: Blackhole): Unit =
+    bh.consume(signingKey().key)
+
+  @Benchmark
+  def canonicalRequest(bh: Blackhole): Unit =
+    bh.consume(CanonicalRequest.from(request).canonicalString)
+
+  @Benchmark
+  def sign(bh: Blackhole): Unit = {
+    val key = signingKey()
+    val canonical = CanonicalRequest.from(request)
+    val stringToSign = Signer.stringToSign("AWS4-HMAC-SHA256", key, key.requestDate, canonical)
+    bh.consume(key.hexEncodedSignature(stringToSign.getBytes()))
+  }
+}
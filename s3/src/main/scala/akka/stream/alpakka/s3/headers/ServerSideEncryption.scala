@@ -125,7 +125,7 @@ final class CustomerKeys private[headers] (val key: String, val md5: Option[Stri
     })) :: Nil
 
   @InternalApi private[s3] override def headersFor(request: S3Request): immutable.Seq[HttpHeader] = request match {
-    case GetObject | HeadObject | PutObject | InitiateMultipartUpload | UploadPart =>
+    case GetObject | HeadObject | PutObject | InitiateMultipartUpload | UploadPart | ListParts =>
       headers
     case CopyPart =>
       val copyHeaders =
@@ -11,5 +11,16 @@ import akka.util.ByteString
 
 /**
  * Internal Api
+ *
+ * @param release frees the resources held by the chunk once its part has been uploaded, may be called several times
  */
-@InternalApi private[impl] final case class Chunk(data: Source[ByteString, NotUsed], size: Int)
+@InternalApi private[impl] final case class Chunk(data: Source[ByteString, NotUsed],
+                                                  size: Int,
+                                                  release: () => Unit = Chunk.NoRelease)
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object Chunk {
+  val NoRelease: () => Unit = () => ()
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import java.security.MessageDigest
+
+import akka.NotUsed
+import akka.annotation.InternalApi
+import akka.http.scaladsl.model.{HttpEntity, HttpHeader, HttpRequest}
+import akka.stream.alpakka.s3.S3Exception
+import akka.stream.scaladsl.{Flow, Source}
+import akka.util.ByteString
+
+import scala.concurrent.{Future, Promise}
+
+/**
+ * Internal Api
+ *
+ * Computes the MD5 of payloads while they stream, to check them against the ETag S3 reports for them.
+ */
+@InternalApi private[impl] object ContentMd5 {
+
+  /**
+   * Passes the bytes through, and fails the stream with the error `verify` returns for their MD5 once they are
+   * complete.
+   */
+  def digesting(verify: ByteString => Option[Throwable]): Flow[ByteString, ByteString, NotUsed] =
+    Flow
+      .setup { (_, _) =>
+        val digest = MessageDigest.getInstance("MD5")
+        Flow[ByteString]
+          .map { bytes =>
+            digest.update(bytes.asByteBuffer)
+            bytes
+          }
+          .concat(Source.lazily { () =>
+            verify(ByteString(digest.digest())).fold(Source.empty[ByteString])(Source.failed[ByteString])
+          })
+      }
+      .mapMaterializedValue(_ => NotUsed)
+
+  /**
+   * Computes the MD5 of the payload of `request` while it is sent.
+   * @return the request with its digested payload, and the MD5 once the payload is sent
+   */
+  def ofPayload(request: HttpRequest): (HttpRequest, Option[Future[ByteString]]) = request.entity match {
+    case HttpEntity.Default(contentType, contentLength, data) =>
+      val md5 = Promise[ByteString]()
+      val digested = data.via(digesting { digest =>
+        md5.trySuccess(digest)
+        None
+      })
+      (request.withEntity(HttpEntity(contentType, contentLength, digested)), Some(md5.future))
+    case _ => (request, None)
+  }
+
+  /**
+   * The error for a payload whose MD5 differs from the ETag in `headers`. ETags of multipart uploads and of objects
+   * encrypted with SSE-KMS or customer keys are not the MD5 of their content and are not checked.
+   */
+  def verify(headers: Seq[HttpHeader], md5: ByteString, payload: String): Option[Throwable] =
+    headers
+      .collectFirst { case h if h.is("etag") => h.value.stripPrefix("\"").stripSuffix("\"") }
+      .filter(etag => etag.length == 32 && !etag.contains('-') && !encrypted(headers))
+      .filterNot(_.equalsIgnoreCase(auth.encodeHex(md5)))
+      .map { etag =>
+        new S3Exception("BadDigest",
+                        s"The MD5 of the $payload (${auth.encodeHex(md5)}) does not match its ETag ($etag)",
+                        "-",
+                        "-")
+      }
+
+  private def encrypted(headers: Seq[HttpHeader]): Boolean =
+    headers.exists { h =>
+      (h.is("x-amz-server-side-encryption") && h.value == "aws:kms") ||
+      h.is("x-amz-server-side-encryption-customer-algorithm")
+    }
+}
@@ -4,13 +4,12 @@
 
 package akka.stream.alpakka.s3.impl
 
-import java.io.{File, FileOutputStream}
+import java.io.File
 import java.nio.BufferOverflowException
-import java.nio.file.Files
-import java.util.concurrent.atomic.AtomicInteger
+import java.nio.channels.FileChannel
+import java.nio.file.{Files, StandardOpenOption}
 
 import akka.NotUsed
-import akka.dispatch.ExecutionContexts
 import akka.stream.ActorAttributes
 import akka.stream.Attributes
 import akka.stream.FlowShape
@@ -32,14 +31,13 @@ import akka.annotation.InternalApi
  * Buffers the complete incoming stream into a file, which can then be read several times afterwards.
  *
  * The stage waits for the incoming stream to complete. After that, it emits a single Chunk item on its output. The Chunk
- * contains a bytestream source that can be materialized multiple times, and the total size of the file.
+ * contains a bytestream source that can be materialized multiple times, and the total size of the file. The temp file
+ * is deleted when the chunk is released, as requests for the part may read it again when they are retried.
  *
- * @param maxMaterializations Number of expected materializations for the completed chunk. After this, the temp file is deleted.
  * @param maxSize Maximum size on disk to buffer
  */
-@InternalApi private[impl] final class DiskBuffer(maxMaterializations: Int, maxSize: Int, tempPath: Option[Path])
+@InternalApi private[impl] final class DiskBuffer(maxSize: Int, tempPath: Option[Path])
     extends GraphStage[FlowShape[ByteString, Chunk]] {
-  require(maxMaterializations > 0, "maxMaterializations should be at least 1")
   require(maxSize > 0, "maximumSize should be at least 1")
 
   val in = Inlet[ByteString]("DiskBuffer.in")
@@ -57,7 +55,8 @@ import akka.annotation.InternalApi
         .toFile
       path.deleteOnExit()
       var length = 0
-      val pathOut = new FileOutputStream(path)
+      var emitted = false
+      val pathOut = FileChannel.open(path.toPath, StandardOpenOption.WRITE)
 
       override def onPull(): Unit = if (isClosed(in)) emit() else pull(in)
 
@@ -68,7 +67,9 @@ import akka.annotation.InternalApi
           throw new BufferOverflowException()
         }
 
-        pathOut.write(elem.toArray)
+        elem.asByteBuffers.foreach { buffer =>
+          while (buffer.hasRemaining) pathOut.write(buffer)
+        }
         pull(in)
       }
 
@@ -77,25 +78,22 @@ import akka.annotation.InternalApi
         completeStage()
       }
 
-      override def postStop(): Unit =
+      override def postStop(): Unit = {
         // close stream even if we didn't emit
         try {
           pathOut.close()
         } catch { case x: Throwable => () }
+        if (!emitted) path.delete()
+      }
 
       private def emit(): Unit = {
         pathOut.close()
 
-        val deleteCounter = new AtomicInteger(maxMaterializations)
-        val src = FileIO.fromPath(path.toPath, 65536).mapMaterializedValue { f =>
-          if (deleteCounter.decrementAndGet() <= 0)
-            f.onComplete { _ =>
-              path.delete()
-
-            }(ExecutionContexts.sameThreadExecutionContext)
-          NotUsed
-        }
-        emit(out, Chunk(src, length), () => completeStage())
+        val src = FileIO.fromPath(path.toPath, 65536).mapMaterializedValue(_ => NotUsed)
+        emit(out, Chunk(src, length, () => path.delete()), () => {
+          emitted = true
+          completeStage()
+        })
       }
       setHandlers(in, out, this)
     }
@@ -6,6 +6,8 @@ package akka.stream.alpakka.s3.impl
 
 import java.net.URLDecoder
 import java.nio.charset.StandardCharsets
+import java.security.MessageDigest
+import java.util.Base64
 
 import akka.annotation.InternalApi
 import akka.http.scaladsl.marshallers.xml.ScalaXmlSupport._
@@ -104,6 +106,16 @@ import scala.concurrent.{ExecutionContext, Future}
     ).withDefaultHeaders(s3Headers)
       .withEntity(HttpEntity(ContentTypes.`application/octet-stream`, payloadSize, payload))
 
+  def listPartsRequest(upload: MultipartUpload,
+                       partNumberMarker: Option[Int],
+                       s3Headers: Seq[HttpHeader] = Seq.empty)(implicit conf: S3Settings): HttpRequest = {
+    val query = Query(
+      Seq("uploadId" -> upload.uploadId) ++ partNumberMarker.map("part-number-marker" -> _.toString): _*
+    )
+    s3Request(upload.s3Location, HttpMethods.GET, _.withQuery(query))
+      .withDefaultHeaders(s3Headers)
+  }
+
   def completeMultipartUploadRequest(upload: MultipartUpload, parts: Seq[(Int, String)], headers: Seq[HttpHeader])(
       implicit ec: ExecutionContext,
       conf: S3Settings
@@ -129,6 +141,19 @@ import scala.concurrent.{ExecutionContext, Future}
     }
   }
 
+  def deleteObjectsRequest(bucket: String, keys: Seq[String], headers: Seq[HttpHeader] = Nil)(
+      implicit conf: S3Settings
+  ): HttpRequest = {
+    val payload = <Delete><Quiet>false</Quiet>{ keys.map(key => <Object><Key>{ key }</Key></Object>) }</Delete>
+    val body = ByteString(payload.toString)
+    // S3 requires the Content-MD5 header for multi-object delete requests
+    val contentMd5 = Base64.getEncoder.encodeToString(MessageDigest.getInstance("MD5").digest(body.toArray))
+
+    s3Request(S3Location(bucket, ""), HttpMethods.POST, _.withQuery(Query("delete")))
+      .withDefaultHeaders(RawHeader("Content-MD5", contentMd5) +: headers)
+      .withEntity(HttpEntity(ContentTypes.`text/xml(UTF-8)`, body))
+  }
+
   def uploadCopyPartRequest(multipartCopy: MultipartCopy,
                             sourceVersionId: Option[String] = None,
                             s3Headers: Seq[HttpHeader] = Seq.empty)(implicit conf: S3Settings): HttpRequest = {
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import java.util
+import java.util.concurrent.atomic.AtomicBoolean
+
+import akka.{Done, NotUsed}
+import akka.actor.{ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider}
+import akka.annotation.InternalApi
+import akka.dispatch.ExecutionContexts
+import akka.stream.scaladsl.{Flow, Source}
+import akka.util.ByteString
+
+import scala.collection.mutable
+import scala.concurrent.{Future, Promise}
+
+/**
+ * Internal Api
+ *
+ * A number of bytes shared by the multipart uploads of an actor system. Requests are granted in the order they are
+ * made, a request larger than the whole budget is granted once nothing else is acquired.
+ */
+@InternalApi private[impl] final class InFlightBudget(val maxBytes: Long) {
+  require(maxBytes > 0, "maxBytes should be at least 1")
+
+  private var available = maxBytes
+  private val waiting = new util.ArrayDeque[(Long, Promise[Done])]()
+
+  def acquire(bytes: Long): Future[Done] = synchronized {
+    val granted = math.min(bytes, maxBytes)
+    if (waiting.isEmpty && granted <= available) {
+      available -= granted
+      Future.successful(Done)
+    } else {
+      val promise = Promise[Done]()
+      waiting.add((granted, promise))
+      promise.future
+    }
+  }
+
+  def release(bytes: Long): Unit = {
+    val granted = synchronized {
+      available = math.min(available + bytes, maxBytes)
+      val granted = List.newBuilder[Promise[Done]]
+      while (!waiting.isEmpty && waiting.peek()._1 <= available) {
+        val (size, promise) = waiting.poll()
+        available -= size
+        granted += promise
+      }
+      granted.result()
+    }
+    // completed outside of the lock, as the callbacks may acquire or release again
+    granted.foreach(_.success(Done))
+  }
+
+  /**
+   * Buffers parts with `buffer` after acquiring `bytes` from the budget, or the whole budget if `bytes` exceeds it.
+   * The part's chunk keeps as many of the acquired bytes as it holds until it is released, the rest is returned when
+   * the chunk is complete. Everything is returned if the part's stream stops before the chunk is emitted.
+   */
+  def reserving(bytes: Long)(buffer: Flow[ByteString, Chunk, NotUsed]): Flow[ByteString, Chunk, NotUsed] =
+    Flow
+      .setup { (_, _) =>
+        val reservation = new Reservation(bytes)
+        Flow[ByteString]
+          // the part's bytes are not pulled before the prepended acquisition completes
+          .prepend(Source.fromFuture(reservation.acquire()).mapConcat(_ => List.empty[ByteString]))
+          .via(buffer)
+          .map(chunk => chunk.copy(release = reservation.claim(chunk.size, chunk.release)))
+          .watchTermination() { (_, done) =>
+            done.onComplete(_ => reservation.cancel())(ExecutionContexts.sameThreadExecutionContext)
+            NotUsed
+          }
+      }
+      .mapMaterializedValue(_ => NotUsed)
+
+  private final class Reservation(bytes: Long) {
+    // the budget grants at most all of its bytes, only those are returned
+    private val granted = math.min(bytes, maxBytes)
+    private var acquired = false
+    private var claimed = false
+    private var cancelled = false
+
+    def acquire(): Future[Done] =
+      InFlightBudget.this
+        .acquire(granted)
+        .map { done =>
+          synchronized {
+            if (cancelled) release(granted) else acquired = true
+          }
+          done
+        }(ExecutionContexts.sameThreadExecutionContext)
+
+    def claim(size: Long, releaseChunk: () => Unit): () => Unit = synchronized {
+      claimed = true
+      val kept = math.min(size, granted)
+      release(granted - kept)
+      val released = new AtomicBoolean(false)
+      () => {
+        releaseChunk()
+        if (released.compareAndSet(false, true)) release(kept)
+      }
+    }
+
+    def cancel(): Unit = synchronized {
+      if (acquired && !claimed) release(granted)
+      cancelled = true
+    }
+  }
+}
+
+/**
+ * Internal Api
+ *
+ * Manages the in-flight budgets of an actor system, one per size.
+ */
+@InternalApi private[impl] final class InFlightBudgets private () extends Extension {
+  private val budgets = mutable.Map.empty[Long, InFlightBudget]
+
+  def budget(maxBytes: Long): InFlightBudget = synchronized {
+    budgets.getOrElseUpdate(maxBytes, new InFlightBudget(maxBytes))
+  }
+}
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object InFlightBudgets extends ExtensionId[InFlightBudgets] with ExtensionIdProvider {
+  override def lookup = InFlightBudgets
+  override def createExtension(system: ExtendedActorSystem) = new InFlightBudgets()
+}
@@ -11,7 +11,12 @@ import akka.annotation.InternalApi
 import akka.http.scaladsl.marshallers.xml.ScalaXmlSupport
 import akka.http.scaladsl.model.{ContentTypes, HttpCharsets, MediaTypes, Uri}
 import akka.http.scaladsl.unmarshalling.{FromEntityUnmarshaller, Unmarshaller}
-import akka.stream.alpakka.s3.{ListBucketResultCommonPrefixes, ListBucketResultContents}
+import akka.stream.alpakka.s3.{
+  DeleteObjectResult,
+  ListBucketResultCommonPrefixes,
+  ListBucketResultContents,
+  MultipartUploadCheckpoint
+}
 
 import scala.util.Try
 import scala.xml.NodeSeq
@@ -81,6 +86,46 @@ import scala.xml.NodeSeq
     }
   }
 
+  implicit val listPartsResultUnmarshaller: FromEntityUnmarshaller[ListPartsResult] = {
+    nodeSeqUnmarshaller(MediaTypes.`application/xml` withCharset HttpCharsets.`UTF-8`).map {
+      case NodeSeq.Empty => throw Unmarshaller.NoContentException
+      case x =>
+        val truncated = (x \ isTruncated).text == "true"
+        val nextMarker = Some((x \ "NextPartNumberMarker").text).filter(_ => truncated).filter(_.nonEmpty)
+        ListPartsResult(
+          nextMarker.map(_.toInt),
+          (x \\ "Part").map { p =>
+            MultipartUploadCheckpoint(
+              (x \ "Bucket").text,
+              (x \ "Key").text,
+              (x \ "UploadId").text,
+              (p \ "PartNumber").text.toInt,
+              (p \ "ETag").text.drop(1).dropRight(1),
+              (p \ "Size").text.toLong
+            )
+          }
+        )
+    }
+  }
+
+  implicit val deleteObjectsResultUnmarshaller: FromEntityUnmarshaller[DeleteObjectsResult] = {
+    nodeSeqUnmarshaller(MediaTypes.`application/xml` withCharset HttpCharsets.`UTF-8`).map {
+      case NodeSeq.Empty => throw Unmarshaller.NoContentException
+      case x =>
+        def optional(node: NodeSeq) = Some(node.text).filter(_.nonEmpty)
+        DeleteObjectsResult(
+          (x \ "Deleted").map { d =>
+            DeleteObjectResult((d \ "Key").text, optional(d \ "VersionId"), None, None)
+          } ++ (x \ "Error").map { e =>
+            DeleteObjectResult((e \ "Key").text,
+                               optional(e \ "VersionId"),
+                               Some((e \ "Code").text),
+                               optional(e \ "Message"))
+          }
+        )
+    }
+  }
+
   implicit val copyPartResultUnmarshaller: FromEntityUnmarshaller[CopyPartResult] = {
     nodeSeqUnmarshaller(MediaTypes.`application/xml`, ContentTypes.`application/octet-stream`) map {
       case NodeSeq.Empty => throw Unmarshaller.NoContentException
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import java.util.concurrent.ConcurrentHashMap
+
+import akka.annotation.InternalApi
+
+/**
+ * Internal Api
+ *
+ * The chunks of a multipart upload which were buffered but not released yet. When the upload stops before their
+ * parts are uploaded, the chunks are released by [[releaseAll]] instead.
+ */
+@InternalApi private[impl] final class PendingReleases {
+  private val pending = ConcurrentHashMap.newKeySet[Pending]()
+  @volatile private var stopped = false
+
+  /** The chunk with a release that stops tracking it. */
+  def track(chunk: Chunk): Chunk = {
+    val release = new Pending(chunk)
+    pending.add(release)
+    // the upload may have stopped while the chunk was emitted
+    if (stopped) release()
+    chunk.copy(release = release)
+  }
+
+  def releaseAll(): Unit = {
+    stopped = true
+    val it = pending.iterator()
+    while (it.hasNext) it.next()()
+  }
+
+  private final class Pending(chunk: Chunk) extends (() => Unit) {
+    override def apply(): Unit = if (pending.remove(this)) chunk.release()
+  }
+}
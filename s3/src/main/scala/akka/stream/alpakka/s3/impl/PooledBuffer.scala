@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import java.nio.{BufferOverflowException, ByteBuffer}
+import java.util.concurrent.atomic.AtomicBoolean
+
+import akka.annotation.InternalApi
+import akka.dispatch.ExecutionContexts
+import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+import akka.stream.scaladsl.Source
+import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
+import akka.util.ByteString
+
+/**
+ * Internal Api
+ *
+ * Buffers the complete incoming stream into a slab taken from a [[SlabPool]], which can then be read several times
+ * afterwards.
+ *
+ * The stage waits for a free slab before pulling, and for the incoming stream to complete. After that, it emits a
+ * single Chunk item on its output. The Chunk contains a bytestream source read straight from the slab, that can be
+ * materialized multiple times, and the total size of the buffered data. The slab is returned to the pool when the
+ * chunk is released, as requests for the part may read it again when they are retried.
+ */
+@InternalApi private[impl] final class PooledBuffer(pool: SlabPool) extends GraphStage[FlowShape[ByteString, Chunk]] {
+
+  val in = Inlet[ByteString]("PooledBuffer.in")
+  val out = Outlet[Chunk]("PooledBuffer.out")
+  override val shape = FlowShape.of(in, out)
+
+  override def initialAttributes = super.initialAttributes and Attributes.name("PooledBuffer")
+
+  override def createLogic(attr: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private var slab: ByteBuffer = _
+      private var unclaimed: () => Unit = Chunk.NoRelease
+
+      override def preStart(): Unit = {
+        val acquired = getAsyncCallback[ByteBuffer] { s =>
+          slab = s
+          if (isClosed(in)) emit() else pull(in)
+        }
+        implicit val ec = ExecutionContexts.sameThreadExecutionContext
+        pool.acquire().foreach { s =>
+          // the stage may have stopped while waiting for the slab
+          acquired.invokeWithFeedback(s).failed.foreach(_ => pool.release(s))
+        }
+      }
+
+      override def onPull(): Unit = ()
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        if (elem.size > slab.remaining) {
+          throw new BufferOverflowException()
+        }
+
+        elem.copyToBuffer(slab)
+        pull(in)
+      }
+
+      override def onUpstreamFinish(): Unit =
+        if (slab ne null) emit()
+
+      override def postStop(): Unit = {
+        // return the slab even if we didn't emit
+        if (slab ne null) pool.release(slab)
+        unclaimed()
+      }
+
+      private def emit(): Unit = {
+        val owned = slab
+        slab = null
+        val data = owned.duplicate()
+        data.flip()
+
+        val released = new AtomicBoolean(false)
+        val release = () => if (released.compareAndSet(false, true)) pool.release(owned)
+        val src = Source.fromIterator(() => slices(data.duplicate()))
+        unclaimed = release
+        emit(out, Chunk(src, data.limit(), release), () => {
+          unclaimed = Chunk.NoRelease
+          completeStage()
+        })
+      }
+
+      setHandlers(in, out, this)
+    }
+
+  private def slices(data: ByteBuffer): Iterator[ByteString] = new Iterator[ByteString] {
+    override def hasNext: Boolean = data.hasRemaining
+
+    override def next(): ByteString = {
+      val slice = data.duplicate()
+      slice.limit(math.min(data.position() + PooledBuffer.SliceSize, data.limit()))
+      data.position(slice.limit())
+      ByteString(slice)
+    }
+  }
+}
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object PooledBuffer {
+  private val SliceSize = 64 * 1024
+}
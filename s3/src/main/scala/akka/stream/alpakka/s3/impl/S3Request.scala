@@ -40,11 +40,21 @@ import akka.annotation.InternalApi
  */
 @InternalApi private[s3] case object CopyPart extends S3Request
 
+/**
+ * Internal Api
+ */
+@InternalApi private[s3] case object ListParts extends S3Request
+
 /**
  * Internal Api
  */
 @InternalApi private[s3] case object DeleteObject extends S3Request
 
+/**
+ * Internal Api
+ */
+@InternalApi private[s3] case object DeleteObjects extends S3Request
+
 /**
  * Internal Api
  */
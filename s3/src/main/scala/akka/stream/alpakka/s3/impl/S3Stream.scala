@@ -5,14 +5,17 @@
 package akka.stream.alpakka.s3.impl
 
 import java.net.InetSocketAddress
+import java.nio.file.Path
 import java.time.{Instant, ZoneOffset, ZonedDateTime}
+import java.util.concurrent.atomic.AtomicInteger
 
 import akka.actor.ActorSystem
 import akka.annotation.InternalApi
 import akka.dispatch.ExecutionContexts
 
 import scala.collection.immutable.Seq
-import scala.concurrent.Future
+import scala.concurrent.{ExecutionContext, Future}
+import scala.concurrent.duration._
 import scala.util.{Failure, Success}
 import akka.{Done, NotUsed}
 import akka.http.scaladsl.{ClientTransport, Http}
@@ -28,11 +31,11 @@ import akka.http.scaladsl.model.{headers => http, _}
 import akka.http.scaladsl.settings.{ClientConnectionSettings, ConnectionPoolSettings}
 import akka.http.scaladsl.unmarshalling.{Unmarshal, Unmarshaller}
 import akka.stream.alpakka.s3.BucketAccess.{AccessDenied, AccessGranted, NotExists}
-import akka.stream.{ActorMaterializer, Attributes, Materializer}
+import akka.stream.{ActorMaterializer, Attributes, Materializer, OverflowStrategy}
 import akka.stream.alpakka.s3.impl.auth.{CredentialScope, Signer, SigningKey}
 import akka.stream.alpakka.s3._
 import akka.stream.alpakka.s3.headers.ServerSideEncryption
-import akka.stream.scaladsl.{Flow, Keep, RunnableGraph, Sink, Source}
+import akka.stream.scaladsl.{FileIO, Flow, Keep, RunnableGraph, Sink, Source}
 import akka.util.ByteString
 
 import scala.collection.immutable
@@ -53,7 +56,8 @@ import scala.collection.immutable
 /** Internal Api */
 @InternalApi private[impl] final case class SuccessfulUploadPart(multipartUpload: MultipartUpload,
                                                                  index: Int,
-                                                                 etag: String)
+                                                                 etag: String,
+                                                                 size: Long = 0L)
     extends UploadPartResponse
 
 /** Internal Api */
@@ -75,6 +79,13 @@ import scala.collection.immutable
                                                              contents: Seq[ListBucketResultContents],
                                                              commonPrefixes: Seq[ListBucketResultCommonPrefixes])
 
+/** Internal Api */
+@InternalApi private[impl] final case class DeleteObjectsResult(results: Seq[DeleteObjectResult])
+
+/** Internal Api */
+@InternalApi private[impl] final case class ListPartsResult(nextPartNumberMarker: Option[Int],
+                                                            parts: Seq[MultipartUploadCheckpoint])
+
 /** Internal Api */
 @InternalApi private[impl] final case class CopyPartResult(lastModified: Instant, eTag: String)
 
@@ -116,12 +127,18 @@ import scala.collection.immutable
     Source
       .setup { (mat, attr) =>
         implicit val materializer = mat
+        val conf = resolveSettings(attr, mat.system)
         issueRequest(s3Location, rangeOption = range, versionId = versionId, s3Headers = headers)(mat, attr)
           .map(response => response.withEntity(response.entity.withoutSizeLimit))
           .mapAsync(parallelism = 1)(entityForSuccess)
           .map {
             case (entity, headers) =>
-              Option((entity.dataBytes.mapMaterializedValue(_ => NotUsed), computeMetaData(headers, entity)))
+              val data = entity.dataBytes.mapMaterializedValue(_ => NotUsed)
+              val verified =
+                if (conf.validateChecksums && range.isEmpty)
+                  data.via(ContentMd5.digesting(ContentMd5.verify(headers, _, s"object ${s3Location.key}")))
+                else data
+              Option((verified, computeMetaData(headers, entity)))
           }
           .recover[Option[(Source[ByteString, NotUsed], ObjectMetadata)]] {
             case e: S3Exception if e.code == "NoSuchKey" => None
@@ -129,6 +146,71 @@ import scala.collection.immutable
       }
   }.mapMaterializedValue(_ => NotUsed)
 
+  /**
+   * Downloads an object with concurrent ranged GETs of `partSize` bytes. The object's metadata is requested
+   * first to learn its size, and every range is requested with an `If-Match` of the object's ETag so that all
+   * parts belong to the same version of the object. Up to `parallelism` parts are held in memory.
+   */
+  def getObjectParallel(
+      s3Location: S3Location,
+      partSize: Int,
+      parallelism: Int,
+      versionId: Option[String],
+      s3Headers: S3Headers
+  ): Source[Option[(Source[ByteString, NotUsed], ObjectMetadata)], NotUsed] = {
+    require(partSize > 0, "partSize must be positive")
+    require(parallelism > 0, "parallelism must be positive")
+
+    getObjectMetadata(s3Location.bucket, s3Location.key, versionId, s3Headers)
+      .map(_.map { metadata =>
+        (downloadParts(s3Location, metadata, partSize, parallelism, versionId, s3Headers), metadata)
+      })
+  }
+
+  private def downloadParts(
+      s3Location: S3Location,
+      metadata: ObjectMetadata,
+      partSize: Int,
+      parallelism: Int,
+      versionId: Option[String],
+      s3Headers: S3Headers
+  ): Source[ByteString, NotUsed] = {
+    val size = metadata.contentLength
+    val headers = s3Headers.headersFor(GetObject) ++
+      metadata.metadata.collectFirst { case e: http.ETag => http.`If-Match`(e.etag) }
+
+    Source
+      .setup { (mat, attr) =>
+        implicit val materializer = mat
+        import mat.executionContext
+        implicit val sys = mat.system
+        implicit val conf = resolveSettings(attr, mat.system)
+
+        Source
+          .unfold(0L) { start =>
+            if (start >= size) None
+            else Some((start + partSize, ByteRange(start, math.min(start + partSize, size) - 1)))
+          }
+          .mapAsync(parallelism) { range =>
+            val request =
+              requestHeaders(getDownloadRequest(s3Location, HttpMethods.GET, headers, versionId), Some(range))
+            Signer
+              .signedRequest(request, signingKey)
+              .map(_ -> range)
+              .via(superPool[ByteRange])
+              .mapAsync(parallelism = 1) {
+                case (Success(response), _) =>
+                  entityForSuccess(response).flatMap {
+                    case (entity, _) => entity.withoutSizeLimit().dataBytes.runFold(ByteString.empty)(_ ++ _)
+                  }
+                case (Failure(e), _) => Future.failed(e)
+              }
+              .runWith(Sink.head)
+          }
+      }
+      .mapMaterializedValue(_ => NotUsed)
+  }
+
   sealed trait ListBucketState
   case object Starting extends ListBucketState
   case class Running(continuationToken: String) extends ListBucketState
@@ -209,6 +291,76 @@ import scala.collection.immutable
       .mapMaterializedValue(_ => NotUsed)
   }
 
+  /**
+   * A part of a bucket listing: either keys listed while discovering the shards, or a prefix to be listed.
+   */
+  private type ListShard = Either[Seq[ListBucketResultContents], String]
+
+  /**
+   * Size of the buffer each shard is listed into ahead of time when the listing is ordered, one page of keys.
+   */
+  private val ShardBufferSize = 1000
+
+  def listBucketParallel(bucket: String,
+                         prefix: Option[String],
+                         delimiter: String,
+                         fanoutDepth: Int,
+                         parallelism: Int,
+                         ordered: Boolean,
+                         s3Headers: S3Headers): Source[ListBucketResultContents, NotUsed] = {
+    require(fanoutDepth > 0, "fanoutDepth should be at least 1")
+    require(parallelism > 0, "parallelism should be at least 1")
+
+    def listShard(shard: ListShard): Source[ListBucketResultContents, NotUsed] = shard match {
+      case Left(contents) => Source(contents)
+      case Right(shardPrefix) => listBucket(bucket, Some(shardPrefix), s3Headers)
+    }
+
+    val shards = listShards(bucket, prefix, delimiter, fanoutDepth, s3Headers)
+    if (ordered)
+      Source
+        .setup { (mat, attr) =>
+          // start listing the next shards while the current one is consumed
+          shards
+            .map(
+              listShard(_)
+                .buffer(ShardBufferSize, OverflowStrategy.backpressure)
+                .addAttributes(attr)
+                .preMaterialize()(mat)
+                ._2
+            )
+            .buffer(parallelism, OverflowStrategy.backpressure)
+            .flatMapConcat(identity)
+        }
+        .mapMaterializedValue(_ => NotUsed)
+    else shards.flatMapMerge(parallelism, listShard)
+  }
+
+  /**
+   * Splits the listing at `prefix` into the common prefixes found `depth` levels of `delimiter` deep, and the keys
+   * found on the way, in key order.
+   */
+  private def listShards(bucket: String,
+                         prefix: Option[String],
+                         delimiter: String,
+                         depth: Int,
+                         s3Headers: S3Headers): Source[ListShard, NotUsed] =
+    listBucketAndCommonPrefixes(bucket, delimiter, prefix, s3Headers)
+      .mapConcat {
+        case (contents, commonPrefixes) =>
+          val (shards, rest) = commonPrefixes.foldLeft((Vector.empty[ListShard], contents)) {
+            case ((acc, remaining), commonPrefix) =>
+              val (before, after) = remaining.span(_.key < commonPrefix.prefix)
+              val withKeys = if (before.isEmpty) acc else acc :+ Left(before)
+              (withKeys :+ Right(commonPrefix.prefix), after)
+          }
+          if (rest.isEmpty) shards else shards :+ Left(rest)
+      }
+      .flatMapConcat {
+        case Right(shardPrefix) if depth > 1 => listShards(bucket, Some(shardPrefix), delimiter, depth - 1, s3Headers)
+        case shard => Source.single(shard)
+      }
+
   def getObjectMetadata(bucket: String,
                         key: String,
                         versionId: Option[String],
@@ -261,10 +413,118 @@ import scala.collection.immutable
 
   def deleteObjectsByPrefix(bucket: String, prefix: Option[String], s3Headers: S3Headers): Source[Done, NotUsed] =
     listBucket(bucket, prefix, s3Headers)
-      .flatMapConcat(
-        listBucketResultContents =>
-          deleteObject(S3Location(bucket, listBucketResultContents.key), versionId = None, s3Headers)
-      )
+      .map(_.key)
+      .via(deleteObjects(bucket, DeleteObjectsParallelism, s3Headers))
+      .map { result =>
+        if (!result.deleted)
+          throw new S3Exception(result.errorCode.getOrElse("-"), result.errorMessage.getOrElse(result.key), "-", "-")
+        Done
+      }
+
+  /** The maximum number of keys S3 accepts in a single multi-object delete request. */
+  private val DeleteObjectsMaxKeys = 1000
+
+  private val DeleteObjectsParallelism = 4
+
+  /** How long to wait for more keys before sending an incomplete multi-object delete request. */
+  private val DeleteObjectsMaxWait = 1.second
+
+  def deleteObjects(bucket: String,
+                    parallelism: Int,
+                    s3Headers: S3Headers): Flow[String, DeleteObjectResult, NotUsed] = {
+    val headers = s3Headers.headersFor(DeleteObjects)
+
+    Flow
+      .setup { (mat, attr) =>
+        implicit val materializer = mat
+        implicit val attributes = attr
+        implicit val conf = resolveSettings(attr, mat.system)
+
+        Flow[String]
+          .groupedWithin(DeleteObjectsMaxKeys, DeleteObjectsMaxWait)
+          .mapAsync(parallelism) { keys =>
+            signAndGetAs[DeleteObjectsResult](HttpRequests.deleteObjectsRequest(bucket, keys, headers))
+          }
+          .mapConcat(_.results)
+      }
+      .mapMaterializedValue(_ => NotUsed)
+  }
+
+  /**
+   * Uploads objects with up to `parallelism` of them in flight. Objects smaller than `multipartThreshold` are put
+   * with a single request, larger ones are uploaded in parts of `chunkSize`. The settings are resolved once for all
+   * objects. The parts are scheduled per object, so up to `parallelism` times 4 part requests may be in flight.
+   */
+  def uploadObjects(
+      bucket: String,
+      parallelism: Int,
+      multipartThreshold: Long,
+      chunkSize: Int,
+      s3Headers: S3Headers
+  ): Flow[UploadTransfer, TransferredObject, TransferProgress] = {
+    require(parallelism > 0, "parallelism must be positive")
+    require(multipartThreshold <= MaxPutObjectSize, "multipartThreshold must be at most 5 GiB")
+
+    Flow
+      .setup { (mat, attr) =>
+        implicit val materializer = mat
+        import mat.executionContext
+        val settings = S3Attributes.settings(resolveSettings(attr, mat.system))
+
+        Flow[UploadTransfer].mapAsyncUnordered(parallelism) { transfer =>
+          val location = S3Location(bucket, transfer.key)
+          if (transfer.contentLength < multipartThreshold)
+            putObject(location, transfer.contentType, transfer.data, transfer.contentLength, s3Headers)
+              .addAttributes(settings)
+              .runWith(Sink.head)
+              .map(metadata => TransferredObject(transfer.key, transfer.contentLength, metadata.eTag))
+          else
+            transfer.data
+              .runWith(multipartUpload(location, transfer.contentType, s3Headers, chunkSize).addAttributes(settings))
+              .map(result => TransferredObject(transfer.key, transfer.contentLength, Some(result.etag)))
+        }
+      }
+      .viaMat(new TrackProgress)(Keep.right)
+  }
+
+  /**
+   * Downloads the objects with the incoming keys to the paired files, with up to `parallelism` of them in flight.
+   * The settings are resolved once for all objects.
+   */
+  def downloadObjects(
+      bucket: String,
+      parallelism: Int,
+      s3Headers: S3Headers
+  ): Flow[(String, Path), TransferredObject, TransferProgress] = {
+    require(parallelism > 0, "parallelism must be positive")
+
+    Flow
+      .setup { (mat, attr) =>
+        implicit val materializer = mat
+        import mat.executionContext
+        val settings = S3Attributes.settings(resolveSettings(attr, mat.system))
+
+        Flow[(String, Path)].mapAsyncUnordered(parallelism) {
+          case (key, path) =>
+            download(S3Location(bucket, key), None, None, s3Headers)
+              .addAttributes(settings)
+              .runWith(Sink.head)
+              .flatMap {
+                case Some((data, metadata)) =>
+                  data
+                    .runWith(FileIO.toPath(path))
+                    .flatMap { result =>
+                      Future.fromTry(result.status).map(_ => TransferredObject(key, result.count, metadata.eTag))
+                    }
+                case None =>
+                  Future.failed(new S3Exception("NoSuchKey", s"The object $key does not exist in $bucket", "-", "-"))
+              }
+        }
+      }
+      .viaMat(new TrackProgress)(Keep.right)
+  }
+
+  private val MaxPutObjectSize = 5L * 1024 * 1024 * 1024
 
   def putObject(s3Location: S3Location,
                 contentType: ContentType,
@@ -285,15 +545,19 @@ import scala.collection.immutable
         implicit val sys = mat.system
         implicit val conf = resolveSettings(attr, mat.system)
 
-        val req = uploadRequest(s3Location, data, contentLength, contentType, headers)
+        val (req, md5) = payloadChecksum(uploadRequest(s3Location, data, contentLength, contentType, headers))
 
-        signAndRequest(req)
+        signAndRequest(req, conf.validateChecksums)
           .flatMapConcat {
             case HttpResponse(OK, h, entity, _) =>
               Source.fromFuture {
-                entity.discardBytes().future().map { _ =>
-                  ObjectMetadata(h :+ `Content-Length`(entity.contentLengthOption.getOrElse(0)))
-                }
+                entity
+                  .discardBytes()
+                  .future()
+                  .flatMap(_ => verifyChecksum(md5, h, s"object ${s3Location.key}"))
+                  .map { _ =>
+                    ObjectMetadata(h :+ `Content-Length`(entity.contentLengthOption.getOrElse(0)))
+                  }
               }
             case HttpResponse(code, _, entity, _) =>
               Source.fromFuture {
@@ -445,10 +709,129 @@ import scala.collection.immutable
       s3Headers: S3Headers,
       chunkSize: Int = MinChunkSize,
       chunkingParallelism: Int = 4
+  ): Sink[ByteString, Future[MultipartUploadResult]] = {
+    val requestInfo = initiateUpload(s3Location, contentType, s3Headers.headersFor(InitiateMultipartUpload))
+    chunkAndRequest(s3Headers, chunkSize, requestInfo, atLeastOneByteString)(chunkingParallelism)
+      .toMat(completionSink(s3Location, s3Headers.serverSideEncryption))(Keep.right)
+  }
+
+  /**
+   * Uploads a stream of ByteStrings to a specified location as a multipart upload, reporting every uploaded part to
+   * `checkpoints`. When `uploadId` refers to an upload that was interrupted, the parts S3 already holds for it are
+   * listed, the bytes of the uninterrupted sequence of parts from part 1 are skipped, and the upload continues with
+   * the part after it.
+   */
+  def resumableMultipartUpload(
+      s3Location: S3Location,
+      uploadId: Option[String],
+      checkpoints: Sink[MultipartUploadCheckpoint, _],
+      contentType: ContentType = ContentTypes.`application/octet-stream`,
+      s3Headers: S3Headers,
+      chunkSize: Int = MinChunkSize,
+      chunkingParallelism: Int = 4
   ): Sink[ByteString, Future[MultipartUploadResult]] =
-    chunkAndRequest(s3Location, contentType, s3Headers, chunkSize)(chunkingParallelism)
+    Flow
+      .setup { (mat, attr) =>
+        implicit val materializer = mat
+        import mat.executionContext
+
+        val upload: Future[(MultipartUpload, Seq[MultipartUploadCheckpoint])] = (uploadId match {
+          case Some(id) =>
+            listParts(s3Location, id, s3Headers)
+              .fold(Vector.empty[MultipartUploadCheckpoint])(_ :+ _)
+              .map(parts => (MultipartUpload(s3Location, id), confirmedParts(parts)))
+          case None =>
+            initiateMultipartUpload(s3Location, contentType, s3Headers.headersFor(InitiateMultipartUpload))
+              .map(_ -> Seq.empty[MultipartUploadCheckpoint])
+        }).addAttributes(attr).runWith(Sink.head)
+
+        val requestInfo = Source.fromFuture(upload).flatMapConcat {
+          case (multipartUpload, parts) =>
+            Source.repeat(multipartUpload).zip(Source.fromIterator(() => Iterator.from(parts.size + 1)))
+        }
+        val uploadedBytes = upload.map { case (_, parts) => parts.map(_.size).sum }
+        val uploadedParts = Source.fromFuture(upload).mapConcat {
+          case (multipartUpload, parts) =>
+            parts.map { p =>
+              SuccessfulUploadPart(multipartUpload, p.partNumber, p.eTag, p.size): UploadPartResponse
+            }
+        }
+        val remainingBytes = dropBytes(uploadedBytes)
+          .orElse(Source.fromFuture(uploadedBytes).collect { case 0L => ByteString.empty })
+
+        chunkAndRequest(s3Headers, chunkSize, requestInfo, remainingBytes)(chunkingParallelism)
+          .alsoTo(
+            Flow[UploadPartResponse]
+              .collect {
+                case SuccessfulUploadPart(MultipartUpload(location, id), index, etag, size) =>
+                  val eTag = etag.stripPrefix("\"").stripSuffix("\"")
+                  MultipartUploadCheckpoint(location.bucket, location.key, id, index, eTag, size)
+              }
+              .to(checkpoints)
+          )
+          .prepend(uploadedParts)
+      }
       .toMat(completionSink(s3Location, s3Headers.serverSideEncryption))(Keep.right)
 
+  /**
+   * Lists the parts S3 holds for a multipart upload.
+   */
+  def listParts(s3Location: S3Location,
+                uploadId: String,
+                s3Headers: S3Headers): Source[MultipartUploadCheckpoint, NotUsed] = {
+    val upload = MultipartUpload(s3Location, uploadId)
+    val headers = s3Headers.headersFor(ListParts)
+
+    def listPartsCall(marker: Option[Int])(implicit mat: ActorMaterializer, attr: Attributes) = {
+      import mat.executionContext
+      implicit val conf = resolveSettings(attr, mat.system)
+
+      signAndGetAs[ListPartsResult](listPartsRequest(upload, marker, headers)).map { res =>
+        Some((res.nextPartNumberMarker.fold[ListBucketState](Finished)(m => Running(m.toString)), res.parts))
+      }
+    }
+
+    Source
+      .setup { (mat, attr) =>
+        implicit val materializer = mat
+        implicit val attributes = attr
+        Source
+          .unfoldAsync[ListBucketState, Seq[MultipartUploadCheckpoint]](Starting) {
+            case Finished => Future.successful(None)
+            case Starting => listPartsCall(None)
+            case Running(marker) => listPartsCall(Some(marker.toInt))
+          }
+          .mapConcat(identity)
+      }
+      .mapMaterializedValue(_ => NotUsed)
+  }
+
+  /** The parts from part 1 up to the first missing part number. */
+  private def confirmedParts(parts: Seq[MultipartUploadCheckpoint]): Seq[MultipartUploadCheckpoint] =
+    parts.sortBy(_.partNumber).zipWithIndex.takeWhile { case (part, i) => part.partNumber == i + 1 }.map(_._1)
+
+  /** Drops the first `count` bytes of the stream, waiting for `count` before emitting anything. */
+  private def dropBytes(count: Future[Long]): Flow[ByteString, ByteString, NotUsed] =
+    Flow[ByteString]
+      .map[Either[Long, ByteString]](Right(_))
+      .prepend(Source.fromFuture(count).map[Either[Long, ByteString]](Left(_)))
+      .statefulMapConcat { () =>
+        var remaining = 0L
+
+        {
+          case Left(n) =>
+            remaining = n
+            Nil
+          case Right(bytes) if remaining >= bytes.size =>
+            remaining -= bytes.size
+            Nil
+          case Right(bytes) =>
+            val rest = bytes.drop(remaining.toInt)
+            remaining = 0L
+            rest :: Nil
+        }
+      }
+
   private def initiateMultipartUpload(s3Location: S3Location,
                                       contentType: ContentType,
                                       s3Headers: Seq[HttpHeader]): Source[MultipartUpload, NotUsed] =
@@ -564,52 +947,101 @@ import scala.collection.immutable
   val atLeastOneByteString = Flow[ByteString].orElse(Source.single(ByteString.empty))
 
   private def createRequests(
-      s3Location: S3Location,
-      contentType: ContentType,
       s3Headers: S3Headers,
       chunkSize: Int,
-      parallelism: Int
-  ): Flow[ByteString, (HttpRequest, (MultipartUpload, Int)), NotUsed] = {
+      requestInfo: Source[(MultipartUpload, Int), NotUsed],
+      payload: Flow[ByteString, ByteString, NotUsed],
+      releases: PendingReleases
+  ): Flow[ByteString, (HttpRequest, (MultipartUpload, Int, Chunk, Option[Future[ByteString]])), NotUsed] = {
 
     assert(
       chunkSize >= MinChunkSize,
       s"Chunk size must be at least 5 MB = $MinChunkSize bytes (was $chunkSize bytes). See http://docs.aws.amazon.com/AmazonS3/latest/API/mpUploadUploadPart.html"
     )
 
-    val chunkBufferSize = chunkSize * 2
-
-    // First step of the multi part upload process is made.
-    //  The response is then used to construct the subsequent individual upload part requests
-    val requestInfo: Source[(MultipartUpload, Int), NotUsed] =
-      initiateUpload(s3Location, contentType, s3Headers.headersFor(InitiateMultipartUpload))
-
     val headers = s3Headers.serverSideEncryption.toIndexedSeq.flatMap(_.headersFor(UploadPart))
 
     Flow
       .setup { (mat, attr) =>
+        implicit val sys = mat.system
         implicit val conf = resolveSettings(attr, mat.system)
 
-        SplitAfterSize(chunkSize, chunkBufferSize)(atLeastOneByteString)
-          .via(getChunkBuffer(chunkSize, chunkBufferSize)) //creates the chunks
+        val partSize: Int => Int =
+          if (conf.adaptiveChunkSize) adaptiveChunkSize(chunkSize, _)
+          else _ => chunkSize
+        val budget = conf.maxInFlightBytes.map(InFlightBudgets(sys).budget)
+        val partNumbers = new AtomicInteger(0)
+
+        // the substreams are materialized one after the other, so they are numbered like the split parts
+        val partBuffer = Flow
+          .setup { (_, _) =>
+            val size = partSize(partNumbers.incrementAndGet())
+            val buffer = Flow.fromGraph(getChunkBuffer(size, size * 2))
+            budget.fold(buffer)(_.reserving(size * 2L)(buffer))
+          }
+
+        SplitAfterSize
+          .withPartSizes(partSize, partSize(_) * 2)(payload)
+          .via(partBuffer) //creates the chunks
           .concatSubstreams
+          .map(releases.track)
           .zipWith(requestInfo) {
             case (chunkedPayload, (uploadInfo, chunkIndex)) =>
               //each of the payload requests are created
-              val partRequest =
+              val (partRequest, md5) = payloadChecksum(
                 uploadPartRequest(uploadInfo, chunkIndex, chunkedPayload.data, chunkedPayload.size, headers)
-              (partRequest, (uploadInfo, chunkIndex))
+              )
+              (partRequest, (uploadInfo, chunkIndex, chunkedPayload, md5))
+          }
+          .flatMapConcat {
+            case (req, info) =>
+              Signer
+                .signedRequest(req, signingKey, conf.payloadSigning, conf.validateChecksums)
+                .zip(Source.single(info))
           }
-          .flatMapConcat { case (req, info) => Signer.signedRequest(req, signingKey).zip(Source.single(info)) }
       }
       .mapMaterializedValue(_ => NotUsed)
   }
 
-  private def getChunkBuffer(chunkSize: Int, bufferSize: Int)(implicit settings: S3Settings) =
+  /**
+   * Computes the MD5 of an upload's payload while it is sent, when checksums are validated and the payload is not
+   * hashed for signing anyway. Hashed payloads get a `Content-MD5` header from the signer instead, which S3 checks.
+   */
+  private def payloadChecksum(request: HttpRequest)(
+      implicit conf: S3Settings
+  ): (HttpRequest, Option[Future[ByteString]]) =
+    if (conf.validateChecksums && !Signer.hashesPayload(request, conf.payloadSigning)) ContentMd5.ofPayload(request)
+    else (request, None)
+
+  private def verifyChecksum(md5: Option[Future[ByteString]], headers: Seq[HttpHeader], payload: String)(
+      implicit ec: ExecutionContext
+  ): Future[Done] =
+    md5.fold(Future.successful(Done)) {
+      _.flatMap(ContentMd5.verify(headers, _, payload).fold(Future.successful(Done))(Future.failed[Done]))
+    }
+
+  /**
+   * The part size doubles every 1000 parts, so that 10000 parts starting at 5 MiB hold about 2 TiB, but never
+   * beyond 512 MiB.
+   */
+  private[impl] def adaptiveChunkSize(chunkSize: Int, partNumber: Int): Int =
+    if (chunkSize >= MaxAdaptiveChunkSize) chunkSize
+    else {
+      val doublings = math.min((partNumber - 1) / AdaptiveChunkSizeParts, 30)
+      math.min(chunkSize.toLong << doublings, MaxAdaptiveChunkSize.toLong).toInt
+    }
+
+  private val AdaptiveChunkSizeParts = 1000
+  private val MaxAdaptiveChunkSize = 512 * 1024 * 1024
+
+  private def getChunkBuffer(chunkSize: Int, bufferSize: Int)(implicit settings: S3Settings, sys: ActorSystem) =
     settings.bufferType match {
       case MemoryBufferType =>
         new MemoryBuffer(bufferSize)
       case d: DiskBufferType =>
-        new DiskBuffer(2, bufferSize, d.path)
+        new DiskBuffer(bufferSize, d.path)
+      case p: PooledBufferType =>
+        new PooledBuffer(SlabPools(sys).pool(p, bufferSize))
     }
 
   private def poolSettings(implicit settings: S3Settings, system: ActorSystem) =
@@ -633,18 +1065,12 @@ import scala.collection.immutable
     poolSettings.fold(Http().superPool[T]())(s => Http().superPool[T](settings = s))
 
   private def chunkAndRequest(
-      s3Location: S3Location,
-      contentType: ContentType,
       s3Headers: S3Headers,
-      chunkSize: Int
+      chunkSize: Int,
+      requestInfo: Source[(MultipartUpload, Int), NotUsed],
+      payload: Flow[ByteString, ByteString, NotUsed]
   )(parallelism: Int): Flow[ByteString, UploadPartResponse, NotUsed] = {
 
-    // Multipart upload requests (except for the completion api) are created here.
-    //  The initial upload request gets executed within this function as well.
-    //  The individual upload part requests are created.
-    val requestFlow = createRequests(s3Location, contentType, s3Headers, chunkSize, parallelism)
-
-    // The individual upload part requests are processed here
     Flow
       .setup { (mat, attr) =>
         implicit val materializer = mat
@@ -652,10 +1078,24 @@ import scala.collection.immutable
         implicit val sys = mat.system
         implicit val conf = resolveSettings(attr, mat.system)
 
+        // chunks not released after their part's response, as the upload stopped, are released when it stops
+        val releases = new PendingReleases()
+
+        // Multipart upload requests (except for the completion api) are created here.
+        //  The upload and part numbers the requests are made for come from `requestInfo`.
+        //  The individual upload part requests are created.
+        val requestFlow = createRequests(s3Headers, chunkSize, requestInfo, payload, releases)
+
+        // The individual upload part requests are processed here
         requestFlow
-          .via(superPool[(MultipartUpload, Int)])
+          .via(superPool[(MultipartUpload, Int, Chunk, Option[Future[ByteString]])])
+          .map {
+            case (response, (upload, index, chunk, md5)) =>
+              chunk.release()
+              (response, (upload, index, chunk.size, md5))
+          }
           .mapAsync(parallelism) {
-            case (Success(r), (upload, index)) =>
+            case (Success(r), (upload, index, size, md5)) =>
               if (r.status.isFailure()) {
                 Unmarshal(r.entity).to[String].map { errorBody =>
                   FailedUploadPart(
@@ -670,14 +1110,22 @@ import scala.collection.immutable
                 r.entity.discardBytes()
                 val etag = r.headers.find(_.lowercaseName() == "etag").map(_.value)
                 etag
-                  .map(t => Future.successful(SuccessfulUploadPart(upload, index, t)))
+                  .map { t =>
+                    verifyChecksum(md5, r.headers, s"part $index")
+                      .map(_ => SuccessfulUploadPart(upload, index, t, size.toLong): UploadPartResponse)
+                      .recover { case e => FailedUploadPart(upload, index, e) }
+                  }
                   .getOrElse(
                     Future
                       .successful(FailedUploadPart(upload, index, new RuntimeException(s"Cannot find etag in ${r}")))
                   )
               }
 
-            case (Failure(e), (upload, index)) => Future.successful(FailedUploadPart(upload, index, e))
+            case (Failure(e), (upload, index, _, _)) => Future.successful(FailedUploadPart(upload, index, e))
+          }
+          .watchTermination() { (_, done) =>
+            done.onComplete(_ => releases.releaseAll())(ExecutionContexts.sameThreadExecutionContext)
+            NotUsed
           }
       }
       .mapMaterializedValue(_ => NotUsed)
@@ -742,17 +1190,18 @@ import scala.collection.immutable
 
   private def signAndRequest(
       request: HttpRequest,
+      contentMd5: Boolean = false,
       retries: Int = 3
   )(implicit sys: ActorSystem, mat: ActorMaterializer, attr: Attributes): Source[HttpResponse, NotUsed] = {
     implicit val conf = resolveSettings(attr, sys)
 
     Signer
-      .signedRequest(request, signingKey)
+      .signedRequest(request, signingKey, conf.payloadSigning, contentMd5)
       .mapAsync(parallelism = 1)(req => singleRequest(req))
       .flatMapConcat {
         case HttpResponse(status, _, entity, _) if (retries > 0) && (500 to 599 contains status.intValue()) =>
           entity.discardBytes()
-          signAndRequest(request, retries - 1)
+          signAndRequest(request, contentMd5, retries - 1)
         case res => Source.single(res)
       }
   }
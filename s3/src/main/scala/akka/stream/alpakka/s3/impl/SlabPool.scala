@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.{Files, StandardOpenOption}
+import java.util
+
+import akka.actor.{ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider}
+import akka.annotation.InternalApi
+import akka.stream.alpakka.s3.PooledBufferType
+
+import scala.collection.mutable
+import scala.concurrent.{Future, Promise}
+
+/**
+ * Internal Api
+ *
+ * A bounded pool of equally sized slabs. Slabs are allocated on first use, up to `bufferType.slabs`, and are handed
+ * out again after being released. Requests for a slab while all of them are in use complete once one is released.
+ */
+@InternalApi private[impl] final class SlabPool(bufferType: PooledBufferType, val slabSize: Int) {
+  require(slabSize > 0, "slabSize should be at least 1")
+
+  private val free = new util.ArrayDeque[ByteBuffer]()
+  private val waiting = new util.ArrayDeque[Promise[ByteBuffer]]()
+  private var allocated = 0
+  private var inUse = 0
+  private var channel: FileChannel = _
+
+  def acquire(): Future[ByteBuffer] = synchronized {
+    if (!free.isEmpty) {
+      inUse += 1
+      Future.successful(free.pop())
+    } else if (allocated < bufferType.slabs) {
+      val slab = allocate(allocated)
+      allocated += 1
+      inUse += 1
+      Future.successful(slab)
+    } else {
+      val promise = Promise[ByteBuffer]()
+      waiting.add(promise)
+      promise.future
+    }
+  }
+
+  def release(slab: ByteBuffer): Unit = synchronized {
+    slab.clear()
+    val next = waiting.poll()
+    if (next ne null) next.success(slab)
+    else {
+      inUse -= 1
+      free.push(slab)
+    }
+  }
+
+  /** Whether none of the slabs is in use. */
+  def idle: Boolean = synchronized(inUse == 0)
+
+  /** Closes the file backing memory-mapped slabs, the mappings stay valid until the slabs are collected. */
+  def close(): Unit = synchronized {
+    if (channel ne null) channel.close()
+    // slabs allocated afterwards, by uploads still holding on to a dropped pool, are mapped from a new file
+    channel = null
+  }
+
+  private def allocate(index: Int): ByteBuffer =
+    if (bufferType.memoryMapped) {
+      if (channel eq null) {
+        val file = bufferType.path
+          .map(dir => Files.createTempFile(dir, "s3-slabs-", ".bin"))
+          .getOrElse(Files.createTempFile("s3-slabs-", ".bin"))
+        file.toFile.deleteOnExit()
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+      }
+      channel.map(FileChannel.MapMode.READ_WRITE, index.toLong * slabSize, slabSize)
+    } else ByteBuffer.allocateDirect(slabSize)
+}
+
+/**
+ * Internal Api
+ *
+ * Manages the slab pools of an actor system, one per buffer type and slab size. Pools of other slab sizes are
+ * dropped once none of their slabs is in use when a pool for a new size is created, so that adaptive chunk sizes
+ * do not keep the slabs of the sizes they outgrew.
+ */
+@InternalApi private[impl] final class SlabPools private (sys: ExtendedActorSystem) extends Extension {
+  private val pools = mutable.Map.empty[(PooledBufferType, Int), SlabPool]
+
+  sys.registerOnTermination(synchronized(pools.values.foreach(_.close())))
+
+  def pool(bufferType: PooledBufferType, slabSize: Int): SlabPool = synchronized {
+    val key = (bufferType, slabSize)
+    if (!pools.contains(key)) {
+      for ((other @ (`bufferType`, _), pool) <- pools.toList if pool.idle) {
+        pools -= other
+        pool.close()
+      }
+    }
+    pools.getOrElseUpdate(key, new SlabPool(bufferType, slabSize))
+  }
+}
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object SlabPools extends ExtensionId[SlabPools] with ExtensionIdProvider {
+  override def lookup = SlabPools
+  override def createExtension(system: ExtendedActorSystem) = new SlabPools(system)
+}
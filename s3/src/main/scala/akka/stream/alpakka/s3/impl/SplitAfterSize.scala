@@ -28,43 +28,57 @@ import scala.annotation.tailrec
   def apply[I, M](minChunkSize: Int,
                   maxChunkSize: Int)(in: Flow[I, ByteString, M]): SubFlow[ByteString, M, in.Repr, in.Closed] = {
     require(minChunkSize < maxChunkSize, "the min chunk size must be smaller than the max chunk size")
-    in.via(insertMarkers(minChunkSize, maxChunkSize)).splitWhen(_ == NewStream).collect { case bs: ByteString => bs }
+    withPartSizes(_ => minChunkSize, _ => maxChunkSize)(in)
   }
 
-  private case object NewStream
+  /**
+   * Splits up a byte stream source into sub-flows whose minimum and maximum sizes depend on their part number,
+   * starting at 1. The min chunk size of a part must be smaller than its max chunk size.
+   */
+  def withPartSizes[I, M](minChunkSize: Int => Int, maxChunkSize: Int => Int)(
+      in: Flow[I, ByteString, M]
+  ): SubFlow[ByteString, M, in.Repr, in.Closed] =
+    in.via(insertMarkers(minChunkSize, maxChunkSize)).splitWhen(_ == NewStream).collect { case bs: ByteString => bs }
 
-  private def insertMarkers(minChunkSize: Long, maxChunkSize: Int) = new GraphStage[FlowShape[ByteString, Any]] {
-    val in = Inlet[ByteString]("SplitAfterSize.in")
-    val out = Outlet[Any]("SplitAfterSize.out")
-    override val shape = FlowShape.of(in, out)
+  private case object NewStream
 
-    override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
-      new GraphStageLogic(shape) with OutHandler with InHandler {
-        var count: Int = 0
-        override def onPull(): Unit = pull(in)
+  private def insertMarkers(minChunkSize: Int => Int, maxChunkSize: Int => Int) =
+    new GraphStage[FlowShape[ByteString, Any]] {
+      val in = Inlet[ByteString]("SplitAfterSize.in")
+      val out = Outlet[Any]("SplitAfterSize.out")
+      override val shape = FlowShape.of(in, out)
 
-        override def onPush(): Unit = {
-          val elem = grab(in)
-          count += elem.size
-          if (count > maxChunkSize) {
-            splitElement(elem, elem.size - (count - maxChunkSize))
-          } else if (count >= minChunkSize) {
-            count = 0
-            emitMultiple(out, elem :: NewStream :: Nil)
-          } else emit(out, elem)
-        }
+      override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+        new GraphStageLogic(shape) with OutHandler with InHandler {
+          var partNumber: Int = 1
+          var count: Int = 0
+          override def onPull(): Unit = pull(in)
 
-        @tailrec private def splitElement(elem: ByteString, splitPos: Int): Unit =
-          if (elem.size > splitPos) {
-            val (part1, rest) = elem.splitAt(splitPos)
-            emitMultiple(out, part1 :: NewStream :: Nil)
-            splitElement(rest, maxChunkSize)
-          } else {
-            count = elem.size
-            emit(out, elem)
+          override def onPush(): Unit = {
+            val elem = grab(in)
+            count += elem.size
+            val maxSize = maxChunkSize(partNumber)
+            if (count > maxSize) {
+              splitElement(elem, elem.size - (count - maxSize))
+            } else if (count >= minChunkSize(partNumber)) {
+              count = 0
+              partNumber += 1
+              emitMultiple(out, elem :: NewStream :: Nil)
+            } else emit(out, elem)
           }
 
-        setHandlers(in, out, this)
-      }
-  }
+          @tailrec private def splitElement(elem: ByteString, splitPos: Int): Unit =
+            if (elem.size > splitPos) {
+              val (part1, rest) = elem.splitAt(splitPos)
+              emitMultiple(out, part1 :: NewStream :: Nil)
+              partNumber += 1
+              splitElement(rest, maxChunkSize(partNumber))
+            } else {
+              count = elem.size
+              emit(out, elem)
+            }
+
+          setHandlers(in, out, this)
+        }
+    }
 }
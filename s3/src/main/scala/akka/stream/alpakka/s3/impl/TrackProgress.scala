@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import akka.annotation.InternalApi
+import akka.stream.alpakka.s3.{TransferProgress, TransferredObject}
+import akka.stream.stage.{GraphStageLogic, GraphStageWithMaterializedValue, InHandler, OutHandler}
+import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+
+/**
+ * Internal Api
+ *
+ * Counts the transferred objects passing through into a [[TransferProgress]] materialized for every run.
+ */
+@InternalApi private[impl] final class TrackProgress
+    extends GraphStageWithMaterializedValue[FlowShape[TransferredObject, TransferredObject], TransferProgress] {
+  val in = Inlet[TransferredObject]("TrackProgress.in")
+  val out = Outlet[TransferredObject]("TrackProgress.out")
+  override val shape = FlowShape.of(in, out)
+
+  override def initialAttributes = super.initialAttributes and Attributes.name("TrackProgress")
+
+  override def createLogicAndMaterializedValue(attr: Attributes): (GraphStageLogic, TransferProgress) = {
+    val progress = new TransferProgress()
+    val logic = new GraphStageLogic(shape) with InHandler with OutHandler {
+      override def onPush(): Unit = {
+        val transferred = grab(in)
+        progress.transferred(transferred.size)
+        push(out, transferred)
+      }
+
+      override def onPull(): Unit = pull(in)
+
+      setHandlers(in, out, this)
+    }
+    (logic, progress)
+  }
+}
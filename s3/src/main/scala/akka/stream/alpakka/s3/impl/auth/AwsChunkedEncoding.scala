@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl.auth
+
+import java.security.MessageDigest
+
+import akka.annotation.InternalApi
+import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
+import akka.util.ByteString
+
+import scala.collection.immutable
+
+// Documentation: https://docs.aws.amazon.com/AmazonS3/latest/API/sigv4-streaming.html
+@InternalApi private[impl] object AwsChunkedEncoding {
+  val StreamingPayload = "STREAMING-AWS4-HMAC-SHA256-PAYLOAD"
+
+  /** The chunk size suggested by AWS, larger than the minimum of 8 KB. */
+  val ChunkSize: Int = 64 * 1024
+
+  private val SignatureLength = 64
+  private val SignatureExtension = ";chunk-signature="
+  private val CRLF = ByteString("\r\n")
+  private val EmptyHash = encodeHex(MessageDigest.getInstance("SHA-256").digest())
+
+  /** The number of bytes of `length` bytes of payload encoded in chunks of `chunkSize` bytes. */
+  def encodedLength(length: Long, chunkSize: Int): Long = {
+    val rest = (length % chunkSize).toInt
+    (length / chunkSize) * frameLength(chunkSize) + (if (rest > 0) frameLength(rest) else 0L) + frameLength(0)
+  }
+
+  private def frameLength(size: Int): Long =
+    Integer.toHexString(size).length + SignatureExtension.length + SignatureLength + CRLF.length + size + CRLF.length
+}
+
+/**
+ * Internal API
+ *
+ * Encodes the payload in `aws-chunked` frames of `chunkSize` bytes, each signed with the signature of the
+ * previous frame, starting from the signature of the request headers (`seedSignature`). A final empty frame
+ * ends the payload.
+ */
+@InternalApi private[impl] final class AwsChunkedEncoding(key: SigningKey,
+                                                          date: String,
+                                                          seedSignature: String,
+                                                          chunkSize: Int = AwsChunkedEncoding.ChunkSize)
+    extends GraphStage[FlowShape[ByteString, ByteString]] {
+  import AwsChunkedEncoding._
+
+  private val in = Inlet[ByteString]("AwsChunkedEncoding.in")
+  private val out = Outlet[ByteString]("AwsChunkedEncoding.out")
+  override val shape = FlowShape(in, out)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private val digest = MessageDigest.getInstance("SHA-256")
+      private val scope = key.scope.scopeString
+      private var previousSignature = seedSignature
+      private var buffer = ByteString.empty
+
+      setHandlers(in, out, this)
+
+      override def onPull(): Unit = pull(in)
+
+      override def onPush(): Unit = {
+        buffer ++= grab(in)
+        if (buffer.length >= chunkSize) {
+          val frames = immutable.Seq.newBuilder[ByteString]
+          while (buffer.length >= chunkSize) {
+            frames += frame(buffer.take(chunkSize))
+            buffer = buffer.drop(chunkSize)
+          }
+          emitMultiple(out, frames.result())
+        } else pull(in)
+      }
+
+      override def onUpstreamFinish(): Unit = {
+        // frames are chained by their signatures, so the final frame must be signed last
+        if (buffer.nonEmpty) {
+          val rest = frame(buffer)
+          emitMultiple(out, List(rest, frame(ByteString.empty)))
+        } else emit(out, frame(ByteString.empty))
+        completeStage()
+      }
+
+      private def frame(data: ByteString): ByteString = {
+        data.asByteBuffers.foreach(digest.update)
+        val stringToSign =
+          s"AWS4-HMAC-SHA256-PAYLOAD\n$date\n$scope\n$previousSignature\n$EmptyHash\n${encodeHex(digest.digest())}"
+        previousSignature = key.hexEncodedSignature(stringToSign.getBytes())
+        ByteString(Integer.toHexString(data.length) + SignatureExtension + previousSignature) ++ CRLF ++ data ++ CRLF
+      }
+    }
+}
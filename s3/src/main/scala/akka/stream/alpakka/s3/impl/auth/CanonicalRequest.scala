@@ -60,30 +60,64 @@ import akka.http.scaladsl.model.{HttpHeader, HttpRequest}
     reservedCharacters.contains(c)
 
   def canonicalQueryString(query: Query): String = {
-    def uriEncode(s: String): String = s.flatMap {
-      case c if isUnreservedCharacter(c) => c.toString
-      case c => "%" + c.toHexString.toUpperCase
-    }
-
+    val builder = new java.lang.StringBuilder
     query
       .sortBy { case (name, _) => name }
-      .map { case (name, value) => s"${uriEncode(name)}=${uriEncode(value)}" }
-      .mkString("&")
+      .foreach {
+        case (name, value) =>
+          if (builder.length > 0) builder.append('&')
+          uriEncode(name, builder)
+          builder.append('=')
+          uriEncode(value, builder)
+      }
+    builder.toString
   }
 
-  def canonicalHeaderString(headers: Seq[HttpHeader]): String =
-    headers
-      .groupBy(_.lowercaseName)
-      .map {
-        case (name, headers) =>
-          name -> headers
-            .map(header => header.value.replaceAll("\\s+", " ").trim)
-            .mkString(",")
+  private def uriEncode(s: String, builder: java.lang.StringBuilder): Unit = {
+    var i = 0
+    while (i < s.length) {
+      val c = s.charAt(i)
+      if (isUnreservedCharacter(c)) builder.append(c)
+      else builder.append('%').append(Integer.toHexString(c).toUpperCase)
+      i += 1
+    }
+  }
+
+  def canonicalHeaderString(headers: Seq[HttpHeader]): String = {
+    // values of headers with the same name are joined in the order they appear
+    val builder = new java.lang.StringBuilder
+    var previousName: String = null
+    headers.sortBy(_.lowercaseName).foreach { header =>
+      val name = header.lowercaseName
+      if (name == previousName) builder.append(',')
+      else {
+        if (previousName ne null) builder.append('\n')
+        builder.append(name).append(':')
+        previousName = name
       }
-      .toList
-      .sortBy { case (name, _) => name }
-      .map { case (name, value) => s"$name:$value" }
-      .mkString("\n")
+      builder.append(collapseWhitespace(header.value).trim)
+    }
+    builder.toString
+  }
+
+  /** Replaces every run of whitespace with a single space. */
+  private def collapseWhitespace(value: String): String = {
+    val builder = new java.lang.StringBuilder(value.length)
+    var inWhitespace = false
+    var i = 0
+    while (i < value.length) {
+      val c = value.charAt(i)
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+        if (!inWhitespace) builder.append(' ')
+        inWhitespace = true
+      } else {
+        builder.append(c)
+        inWhitespace = false
+      }
+      i += 1
+    }
+    builder.toString
+  }
 
   def signedHeadersString(headers: Seq[HttpHeader]): String =
     headers.map(_.lowercaseName).distinct.sorted.mkString(";")
@@ -91,9 +125,15 @@ import akka.http.scaladsl.model.{HttpHeader, HttpRequest}
   def pathEncode(path: Path): String =
     if (path.isEmpty) "/"
     else {
-      path.toString.flatMap {
-        case c if isReservedCharacter(c) => "%" + c.toHexString.toUpperCase
-        case c => c.toString
+      val s = path.toString
+      val builder = new java.lang.StringBuilder(s.length)
+      var i = 0
+      while (i < s.length) {
+        val c = s.charAt(i)
+        if (isReservedCharacter(c)) builder.append('%').append(Integer.toHexString(c).toUpperCase)
+        else builder.append(c)
+        i += 1
       }
+      builder.toString
     }
 }
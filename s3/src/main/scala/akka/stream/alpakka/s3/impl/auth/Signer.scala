@@ -4,32 +4,83 @@
 
 package akka.stream.alpakka.s3.impl.auth
 
-import java.security.MessageDigest
 import java.time.format.DateTimeFormatter
 import java.time.ZonedDateTime
+import java.util.Base64
 
 import akka.NotUsed
 import akka.annotation.InternalApi
-import akka.http.scaladsl.model.headers.RawHeader
-import akka.http.scaladsl.model.{HttpHeader, HttpRequest}
+import akka.http.scaladsl.model.headers.{`Content-Encoding`, HttpEncoding, RawHeader}
+import akka.http.scaladsl.model.{HttpEntity, HttpHeader, HttpRequest}
+import akka.stream.alpakka.s3.PayloadSigning
 import akka.stream.scaladsl.Source
 
 @InternalApi private[impl] object Signer {
   private val dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssX")
 
-  def signedRequest(request: HttpRequest, key: SigningKey): Source[HttpRequest, NotUsed] = {
-    val hashedBody = request.entity.dataBytes.via(digest()).map(hash => encodeHex(hash.toArray))
-
-    hashedBody
-      .map { hb =>
-        val headersToAdd = Vector(RawHeader("x-amz-date", key.requestDate.format(dateFormatter)),
-                                  RawHeader("x-amz-content-sha256", hb)) ++ sessionHeader(key)
-        val reqWithHeaders = request.withHeaders(request.headers ++ headersToAdd)
-        val cr = CanonicalRequest.from(reqWithHeaders)
-        val authHeader = authorizationHeader("AWS4-HMAC-SHA256", key, key.requestDate, cr)
-        reqWithHeaders.withHeaders(reqWithHeaders.headers :+ authHeader)
-      }
-      .mapMaterializedValue(_ => NotUsed)
+  private val Algorithm = "AWS4-HMAC-SHA256"
+  private val UnsignedPayload = "UNSIGNED-PAYLOAD"
+
+  /**
+   * Signs `request`, hashing its payload first unless [[hashesPayload]] says otherwise.
+   * @param contentMd5 whether to add a `Content-MD5` header computed in the same pass as the payload's hash, when the
+   *                   payload is hashed before it is sent
+   */
+  def signedRequest(request: HttpRequest,
+                    key: SigningKey,
+                    payloadSigning: PayloadSigning = PayloadSigning.Signed,
+                    contentMd5: Boolean = false): Source[HttpRequest, NotUsed] =
+    (payloadSigning, request.entity) match {
+      case (PayloadSigning.Unsigned, _) if request.uri.scheme == "https" =>
+        Source.single(sign(request, key, UnsignedPayload)._1)
+      case (PayloadSigning.StreamingSigned, HttpEntity.Default(contentType, contentLength, data)) =>
+        val chunkedRequest = request.withHeaders(
+          request.headers ++ Vector(`Content-Encoding`(HttpEncoding.custom("aws-chunked")),
+                                    RawHeader("x-amz-decoded-content-length", contentLength.toString))
+        )
+        val (signed, seedSignature) = sign(chunkedRequest, key, AwsChunkedEncoding.StreamingPayload)
+        val encodedLength = AwsChunkedEncoding.encodedLength(contentLength, AwsChunkedEncoding.ChunkSize)
+        val encodedData = data.via(new AwsChunkedEncoding(key, key.requestDate.format(dateFormatter), seedSignature))
+        Source.single(signed.withEntity(HttpEntity(contentType, encodedLength, encodedData)))
+      case _ if contentMd5 && !request.headers.exists(_.is("content-md5")) =>
+        request.entity.dataBytes
+          .via(digests(List("SHA-256", "MD5")))
+          .map {
+            case Seq(hash, md5) =>
+              val withMd5 = request.addHeader(RawHeader("Content-MD5", Base64.getEncoder.encodeToString(md5.toArray)))
+              sign(withMd5, key, encodeHex(hash.toArray))._1
+          }
+          .mapMaterializedValue(_ => NotUsed)
+      case _ =>
+        request.entity.dataBytes
+          .via(digest())
+          .map(hash => sign(request, key, encodeHex(hash.toArray))._1)
+          .mapMaterializedValue(_ => NotUsed)
+    }
+
+  /**
+   * Whether the payload of `request` is hashed before the request is sent. Unsigned payloads over HTTPS and streaming
+   * signed payloads of a known length are not.
+   */
+  def hashesPayload(request: HttpRequest, payloadSigning: PayloadSigning): Boolean =
+    (payloadSigning, request.entity) match {
+      case (PayloadSigning.Unsigned, _) if request.uri.scheme == "https" => false
+      case (PayloadSigning.StreamingSigned, _: HttpEntity.Default) => false
+      case _ => true
+    }
+
+  /**
+   * Adds the date, content hash and authorization headers.
+   * @return the signed request and its signature
+   */
+  private def sign(request: HttpRequest, key: SigningKey, hashedPayload: String): (HttpRequest, String) = {
+    val headersToAdd = Vector(RawHeader("x-amz-date", key.requestDate.format(dateFormatter)),
+                              RawHeader("x-amz-content-sha256", hashedPayload)) ++ sessionHeader(key)
+    val reqWithHeaders = request.withHeaders(request.headers ++ headersToAdd)
+    val cr = CanonicalRequest.from(reqWithHeaders)
+    val signature = key.hexEncodedSignature(stringToSign(Algorithm, key, key.requestDate, cr).getBytes())
+    val authHeader = authorizationHeader(Algorithm, key, cr, signature)
+    (reqWithHeaders.withHeaders(reqWithHeaders.headers :+ authHeader), signature)
   }
 
   private[this] def sessionHeader(key: SigningKey): Option[HttpHeader] =
@@ -37,24 +88,18 @@ import akka.stream.scaladsl.Source
 
   private[this] def authorizationHeader(algorithm: String,
                                         key: SigningKey,
-                                        requestDate: ZonedDateTime,
-                                        canonicalRequest: CanonicalRequest): HttpHeader =
-    RawHeader("Authorization", authorizationString(algorithm, key, requestDate, canonicalRequest))
-
-  private[this] def authorizationString(algorithm: String,
-                                        key: SigningKey,
-                                        requestDate: ZonedDateTime,
-                                        canonicalRequest: CanonicalRequest): String = {
-    val sign = key.hexEncodedSignature(stringToSign(algorithm, key, requestDate, canonicalRequest).getBytes())
-    s"$algorithm Credential=${key.credentialString}, SignedHeaders=${canonicalRequest.signedHeaders}, Signature=$sign"
-  }
+                                        canonicalRequest: CanonicalRequest,
+                                        signature: String): HttpHeader =
+    RawHeader(
+      "Authorization",
+      s"$algorithm Credential=${key.credentialString}, SignedHeaders=${canonicalRequest.signedHeaders}, Signature=$signature"
+    )
 
   def stringToSign(algorithm: String,
                    signingKey: SigningKey,
                    requestDate: ZonedDateTime,
                    canonicalRequest: CanonicalRequest): String = {
-    val digest = MessageDigest.getInstance("SHA-256")
-    val hashedRequest = encodeHex(digest.digest(canonicalRequest.canonicalString.getBytes()))
+    val hashedRequest = encodeHex(sha256().digest(canonicalRequest.canonicalString.getBytes()))
     val date = requestDate.format(dateFormatter)
     val scope = signingKey.scope.scopeString
     s"$algorithm\n$date\n$scope\n$hashedRequest"
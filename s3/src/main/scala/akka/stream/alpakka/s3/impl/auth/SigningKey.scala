@@ -6,9 +6,9 @@ package akka.stream.alpakka.s3.impl.auth
 
 import java.time.{LocalDate, ZonedDateTime}
 import java.time.format.DateTimeFormatter
+import java.util.concurrent.ConcurrentHashMap
 
 import akka.annotation.InternalApi
-import javax.crypto.Mac
 import javax.crypto.spec.SecretKeySpec
 import software.amazon.awssdk.auth.credentials._
 import software.amazon.awssdk.regions.Region
@@ -16,7 +16,7 @@ import software.amazon.awssdk.regions.Region
 @InternalApi private[impl] final case class CredentialScope(date: LocalDate, awsRegion: Region, awsService: String) {
   lazy val formattedDate: String = date.format(DateTimeFormatter.BASIC_ISO_DATE)
 
-  def scopeString = s"$formattedDate/$awsRegion/$awsService/aws4_request"
+  lazy val scopeString: String = s"$formattedDate/$awsRegion/$awsService/aws4_request"
 }
 
 @InternalApi private[impl] final case class SigningKey(requestDate: ZonedDateTime,
@@ -26,7 +26,7 @@ import software.amazon.awssdk.regions.Region
 
   private val credentials: AwsCredentials = credProvider.resolveCredentials
 
-  val rawKey = new SecretKeySpec(s"AWS4${credentials.secretAccessKey}".getBytes, algorithm)
+  lazy val rawKey = new SecretKeySpec(s"AWS4${credentials.secretAccessKey}".getBytes, algorithm)
 
   val sessionToken: Option[String] = credentials match {
     case c: AwsSessionCredentials => Some(c.sessionToken)
@@ -39,8 +39,11 @@ import software.amazon.awssdk.regions.Region
 
   def credentialString: String = s"${credentials.accessKeyId}/${scope.scopeString}"
 
+  // the derived key only changes with the credentials and the scope, so it is shared by all requests of a day
   lazy val key: SecretKeySpec =
-    wrapSignature(dateRegionServiceKey, "aws4_request".getBytes)
+    SigningKey.derivedKey(credentials.secretAccessKey, scope, algorithm) {
+      wrapSignature(dateRegionServiceKey, "aws4_request".getBytes)
+    }
 
   lazy val dateRegionServiceKey: SecretKeySpec =
     wrapSignature(dateRegionKey, scope.awsService.getBytes)
@@ -55,8 +58,30 @@ import software.amazon.awssdk.regions.Region
     new SecretKeySpec(signWithKey(signature, message), algorithm)
 
   private def signWithKey(key: SecretKeySpec, message: Array[Byte]): Array[Byte] = {
-    val mac = Mac.getInstance(algorithm)
-    mac.init(key)
-    mac.doFinal(message)
+    val hmac = mac(algorithm)
+    hmac.init(key)
+    hmac.doFinal(message)
+  }
+}
+
+@InternalApi private[impl] object SigningKey {
+
+  /** Keys of older dates are not needed any more, so the cache is simply emptied when it gets this large. */
+  private val MaxDerivedKeys = 64
+
+  private val derivedKeys = new ConcurrentHashMap[(String, CredentialScope, String), SecretKeySpec]()
+
+  private def derivedKey(secretAccessKey: String, scope: CredentialScope, algorithm: String)(
+      derive: => SecretKeySpec
+  ): SecretKeySpec = {
+    val cacheKey = (secretAccessKey, scope, algorithm)
+    val cached = derivedKeys.get(cacheKey)
+    if (cached ne null) cached
+    else {
+      if (derivedKeys.size >= MaxDerivedKeys) derivedKeys.clear()
+      val key = derive
+      derivedKeys.put(cacheKey, key)
+      key
+    }
   }
 }
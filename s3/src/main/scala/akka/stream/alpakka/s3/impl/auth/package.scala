@@ -10,11 +10,39 @@ import akka.NotUsed
 import akka.annotation.InternalApi
 import akka.stream.scaladsl.Flow
 import akka.util.ByteString
+import javax.crypto.Mac
+
+import scala.collection.immutable
 
 package object auth {
 
   private val Digits = "0123456789abcdef".toCharArray()
 
+  private val Sha256Digests = new ThreadLocal[MessageDigest] {
+    override def initialValue(): MessageDigest = MessageDigest.getInstance("SHA-256")
+  }
+
+  private val HmacSha256Macs = new ThreadLocal[Mac] {
+    override def initialValue(): Mac = Mac.getInstance("HmacSHA256")
+  }
+
+  /**
+   * A reset SHA-256 digest of the calling thread. It must not be kept beyond the current call.
+   */
+  @InternalApi private[impl] def sha256(): MessageDigest = {
+    val digest = Sha256Digests.get()
+    digest.reset()
+    digest
+  }
+
+  /**
+   * A MAC for `algorithm`, shared by the calling thread for HMAC-SHA256. It must be initialised before use and not be
+   * kept beyond the current call.
+   */
+  @InternalApi private[impl] def mac(algorithm: String): Mac =
+    if (algorithm == "HmacSHA256") HmacSha256Macs.get()
+    else Mac.getInstance(algorithm)
+
   @InternalApi private[impl] def encodeHex(bytes: Array[Byte]): String = {
     val length = bytes.length
     val out = new Array[Char](length * 2)
@@ -36,4 +64,18 @@ package object auth {
           digest
       }
       .map(d => ByteString(d.digest()))
+
+  /**
+   * Digests of the stream for each of `algorithms`, computed in a single pass over the bytes.
+   */
+  @InternalApi private[impl] def digests(
+      algorithms: immutable.Seq[String]
+  ): Flow[ByteString, immutable.Seq[ByteString], NotUsed] =
+    Flow[ByteString]
+      .fold(algorithms.map(MessageDigest.getInstance)) {
+        case (digests, bytes) =>
+          digests.foreach(_.update(bytes.asByteBuffer))
+          digests
+      }
+      .map(_.map(d => ByteString(d.digest())))
 }
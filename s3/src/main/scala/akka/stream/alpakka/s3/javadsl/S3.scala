@@ -16,7 +16,7 @@ import akka.stream.{Attributes, Materializer}
 import akka.stream.alpakka.s3.headers.{CannedAcl, ServerSideEncryption}
 import akka.stream.alpakka.s3._
 import akka.stream.alpakka.s3.impl._
-import akka.stream.javadsl.{RunnableGraph, Sink, Source}
+import akka.stream.javadsl.{Flow, RunnableGraph, Sink, Source}
 import akka.util.ByteString
 
 import scala.collection.JavaConverters._
@@ -206,6 +206,27 @@ object S3 {
       .map(_ => Done.getInstance())
       .asJava
 
+  /**
+   * Deletes the S3 Objects with the incoming keys, sending up to 1000 keys in one multi-object delete request
+   *
+   * @param bucket the s3 bucket name
+   * @return A [[akka.stream.javadsl.Flow Flow]] that emits a [[DeleteObjectResult]] for every key
+   */
+  def deleteObjects(bucket: String): Flow[String, DeleteObjectResult, NotUsed] =
+    deleteObjects(bucket, 4, S3Headers.empty)
+
+  /**
+   * Deletes the S3 Objects with the incoming keys, sending up to 1000 keys in one multi-object delete request
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/API/API_DeleteObjects.html
+   * @param bucket the s3 bucket name
+   * @param parallelism the number of delete requests to send at the same time
+   * @param s3Headers any headers you want to add
+   * @return A [[akka.stream.javadsl.Flow Flow]] that emits a [[DeleteObjectResult]] for every key
+   */
+  def deleteObjects(bucket: String, parallelism: Int, s3Headers: S3Headers): Flow[String, DeleteObjectResult, NotUsed] =
+    S3Stream.deleteObjects(bucket, parallelism, s3Headers).asJava
+
   /**
    * Uploads a S3 Object, use this for small files and [[multipartUpload]] for bigger ones
    *
@@ -410,6 +431,48 @@ object S3 {
     )
   }
 
+  /**
+   * Downloads a S3 Object with several concurrent ranged requests, which gives a higher throughput for large
+   * objects than a single connection. The parts are emitted in order and at most `parallelism` parts are buffered.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param partSize the number of bytes to request per range
+   * @param parallelism the number of ranges requested concurrently
+   * @return A [[akka.japi.Pair]] with a [[akka.stream.javadsl.Source Source]] of [[akka.util.ByteString ByteString]], and a [[akka.stream.javadsl.Source Source]] containing the [[ObjectMetadata]]
+   */
+  def getObjectParallel(
+      bucket: String,
+      key: String,
+      partSize: Int,
+      parallelism: Int
+  ): Source[Optional[JPair[Source[ByteString, NotUsed], ObjectMetadata]], NotUsed] =
+    getObjectParallel(bucket, key, partSize, parallelism, Optional.empty(), S3Headers.empty)
+
+  /**
+   * Downloads a S3 Object with several concurrent ranged requests, which gives a higher throughput for large
+   * objects than a single connection. The parts are emitted in order and at most `parallelism` parts are buffered.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param partSize the number of bytes to request per range
+   * @param parallelism the number of ranges requested concurrently
+   * @param versionId optional version id of the object
+   * @param s3Headers any headers you want to add
+   * @return A [[akka.japi.Pair]] with a [[akka.stream.javadsl.Source Source]] of [[akka.util.ByteString ByteString]], and a [[akka.stream.javadsl.Source Source]] containing the [[ObjectMetadata]]
+   */
+  def getObjectParallel(
+      bucket: String,
+      key: String,
+      partSize: Int,
+      parallelism: Int,
+      versionId: Optional[String],
+      s3Headers: S3Headers
+  ): Source[Optional[JPair[Source[ByteString, NotUsed], ObjectMetadata]], NotUsed] =
+    toJava(
+      S3Stream.getObjectParallel(S3Location(bucket, key), partSize, parallelism, versionId.asScala, s3Headers)
+    )
+
   /**
    * Will return a source of object metadata for a given bucket with optional prefix using version 2 of the List Bucket API.
    * This will automatically page through all keys with the given parameters.
@@ -555,6 +618,49 @@ object S3 {
       }
       .asJava
 
+  /**
+   * Will return a source of object metadata for a given bucket with optional prefix, listing the prefixes one level
+   * of `/` below `prefix` concurrently. The keys are emitted as soon as any of the listings returns them.
+   *
+   * @param bucket Which bucket that you list object metadata for
+   * @param prefix Prefix of the keys you want to list under passed bucket
+   * @param parallelism the number of prefixes to list at the same time
+   * @return [[akka.stream.javadsl.Source Source]] of [[ListBucketResultContents]]
+   */
+  def listBucketParallel(bucket: String,
+                         prefix: Optional[String],
+                         parallelism: Int): Source[ListBucketResultContents, NotUsed] =
+    listBucketParallel(bucket, prefix, parallelism, "/", 1, ordered = false, S3Headers.empty)
+
+  /**
+   * Will return a source of object metadata for a given bucket with optional prefix, listing parts of the bucket
+   * concurrently.
+   *
+   * The common prefixes up to `fanoutDepth` levels of `delimiter` below `prefix` are discovered first, after which
+   * up to `parallelism` of them are listed at the same time. Unless `ordered` is set, keys are emitted as soon as
+   * any of the listings returns them.
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/dev/ListingKeysHierarchy.html (prefix and delimiter documentation)
+   * @param bucket Which bucket that you list object metadata for
+   * @param prefix Prefix of the keys you want to list under passed bucket
+   * @param parallelism the number of prefixes to list at the same time
+   * @param delimiter Delimiter separating the levels of the key hierarchy the listing is split at
+   * @param fanoutDepth the number of levels of the key hierarchy to discover before listing concurrently
+   * @param ordered emit the keys in the order S3 lists them, keeping `parallelism` listings ahead
+   * @param s3Headers any headers you want to add
+   * @return [[akka.stream.javadsl.Source Source]] of [[ListBucketResultContents]]
+   */
+  def listBucketParallel(bucket: String,
+                         prefix: Optional[String],
+                         parallelism: Int,
+                         delimiter: String,
+                         fanoutDepth: Int,
+                         ordered: Boolean,
+                         s3Headers: S3Headers): Source[ListBucketResultContents, NotUsed] =
+    S3Stream
+      .listBucketParallel(bucket, prefix.asScala, delimiter, fanoutDepth, parallelism, ordered, s3Headers)
+      .asJava
+
   /**
    * Uploads a S3 Object by making multiple requests
    *
@@ -596,6 +702,72 @@ object S3 {
   def multipartUpload(bucket: String, key: String): Sink[ByteString, CompletionStage[MultipartUploadResult]] =
     multipartUpload(bucket, key, ContentTypes.APPLICATION_OCTET_STREAM)
 
+  /**
+   * Uploads a S3 Object by making multiple requests, and sends a checkpoint to `checkpoints` for every part S3 has
+   * stored. The checkpoints carry the upload id, which allows an interrupted upload to be resumed.
+   *
+   * To resume an upload, pass its `uploadId` and the complete data again. The parts S3 already holds for the upload are
+   * listed, the bytes of the uninterrupted sequence of parts starting with part 1 are skipped without being sent,
+   * and the upload continues with the following part.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param checkpoints receives a checkpoint for every part uploaded by this stream
+   * @param uploadId the id of an interrupted upload to resume, or empty to start a new upload
+   * @param contentType an optional [[akka.http.javadsl.model.ContentType ContentType]], used for new uploads
+   * @param s3Headers any headers you want to add
+   * @return a [[akka.stream.javadsl.Sink Sink]] that accepts [[akka.util.ByteString ByteString]]'s and materializes to a [[java.util.concurrent.CompletionStage CompletionStage]] of [[MultipartUploadResult]]
+   */
+  def resumableMultipartUpload(
+      bucket: String,
+      key: String,
+      checkpoints: Sink[MultipartUploadCheckpoint, _],
+      uploadId: Optional[String],
+      contentType: ContentType,
+      s3Headers: S3Headers
+  ): Sink[ByteString, CompletionStage[MultipartUploadResult]] =
+    S3Stream
+      .resumableMultipartUpload(
+        S3Location(bucket, key),
+        uploadId.asScala,
+        checkpoints.asScala,
+        contentType.asInstanceOf[ScalaContentType],
+        s3Headers
+      )
+      .mapMaterializedValue(_.toJava)
+      .asJava
+
+  /**
+   * Uploads a S3 Object by making multiple requests, and sends a checkpoint to `checkpoints` for every part S3 has
+   * stored. The checkpoints carry the upload id, which allows an interrupted upload to be resumed.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param checkpoints receives a checkpoint for every part uploaded by this stream
+   * @param uploadId the id of an interrupted upload to resume, or empty to start a new upload
+   * @return a [[akka.stream.javadsl.Sink Sink]] that accepts [[akka.util.ByteString ByteString]]'s and materializes to a [[java.util.concurrent.CompletionStage CompletionStage]] of [[MultipartUploadResult]]
+   */
+  def resumableMultipartUpload(
+      bucket: String,
+      key: String,
+      checkpoints: Sink[MultipartUploadCheckpoint, _],
+      uploadId: Optional[String]
+  ): Sink[ByteString, CompletionStage[MultipartUploadResult]] =
+    resumableMultipartUpload(bucket, key, checkpoints, uploadId, ContentTypes.APPLICATION_OCTET_STREAM, S3Headers.empty)
+
+  /**
+   * Lists the parts S3 holds for a multipart upload that has not been completed or aborted.
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListParts.html
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param uploadId the id of the multipart upload
+   * @return [[akka.stream.javadsl.Source Source]] of the parts in the order of their part numbers
+   */
+  def listParts(bucket: String, key: String, uploadId: String): Source[MultipartUploadCheckpoint, NotUsed] =
+    S3Stream.listParts(S3Location(bucket, key), uploadId, S3Headers.empty).asJava
+
   /**
    * Copy a S3 Object by making multiple requests.
    *
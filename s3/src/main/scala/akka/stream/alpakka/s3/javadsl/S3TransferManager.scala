@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.javadsl
+
+import java.nio.file.Path
+
+import akka.japi.{Pair => JPair}
+import akka.stream.alpakka.s3._
+import akka.stream.alpakka.s3.impl._
+import akka.stream.javadsl.Flow
+import akka.stream.scaladsl.{Keep, Flow => ScalaFlow}
+
+/**
+ * Java API
+ *
+ * Factory of S3 operations transferring many objects, with the S3 settings resolved once for the whole stream.
+ * Every object is transferred on its own, and the [[TransferProgress]] is updated as objects complete.
+ */
+object S3TransferManager {
+
+  /**
+   * Uploads the incoming objects with up to `parallelism` of them in flight. Objects smaller than 16 MiB are
+   * uploaded with a single request, larger ones with a multipart upload which sends up to 4 of its parts at the same
+   * time.
+   *
+   * @param bucket the s3 bucket name
+   * @param parallelism the number of objects to upload at the same time
+   * @return a [[akka.stream.javadsl.Flow Flow]] that emits a [[TransferredObject]] for every uploaded object, in the
+   *         order they complete, and materializes the [[TransferProgress]] of the completed objects
+   */
+  def upload(bucket: String, parallelism: Int): Flow[UploadTransfer, TransferredObject, TransferProgress] =
+    upload(bucket,
+           parallelism,
+           akka.stream.alpakka.s3.scaladsl.S3TransferManager.DefaultMultipartThreshold,
+           S3Stream.MinChunkSize,
+           S3Headers.empty)
+
+  /**
+   * Uploads the incoming objects with up to `parallelism` of them in flight. Objects smaller than
+   * `multipartThreshold` are uploaded with a single request, larger ones with a multipart upload which sends up to
+   * 4 of its parts at the same time.
+   *
+   * @param bucket the s3 bucket name
+   * @param parallelism the number of objects to upload at the same time
+   * @param multipartThreshold the size from which objects are uploaded in parts, at most 5 GiB
+   * @param chunkSize the size of the parts of multipart uploads, at least 5 MB
+   * @param s3Headers any headers you want to add
+   * @return a [[akka.stream.javadsl.Flow Flow]] that emits a [[TransferredObject]] for every uploaded object, in the
+   *         order they complete, and materializes the [[TransferProgress]] of the completed objects
+   */
+  def upload(bucket: String,
+             parallelism: Int,
+             multipartThreshold: Long,
+             chunkSize: Int,
+             s3Headers: S3Headers): Flow[UploadTransfer, TransferredObject, TransferProgress] =
+    S3Stream.uploadObjects(bucket, parallelism, multipartThreshold, chunkSize, s3Headers).asJava
+
+  /**
+   * Downloads the objects with the incoming keys to the paired files, with up to `parallelism` of them in flight.
+   * The stream fails for keys that do not exist.
+   *
+   * @param bucket the s3 bucket name
+   * @param parallelism the number of objects to download at the same time
+   * @return a [[akka.stream.javadsl.Flow Flow]] that emits a [[TransferredObject]] for every downloaded object, in
+   *         the order they complete, and materializes the [[TransferProgress]] of the completed objects
+   */
+  def download(bucket: String, parallelism: Int): Flow[JPair[String, Path], TransferredObject, TransferProgress] =
+    download(bucket, parallelism, S3Headers.empty)
+
+  /**
+   * Downloads the objects with the incoming keys to the paired files, with up to `parallelism` of them in flight.
+   * The stream fails for keys that do not exist.
+   *
+   * @param bucket the s3 bucket name
+   * @param parallelism the number of objects to download at the same time
+   * @param s3Headers any headers you want to add
+   * @return a [[akka.stream.javadsl.Flow Flow]] that emits a [[TransferredObject]] for every downloaded object, in
+   *         the order they complete, and materializes the [[TransferProgress]] of the completed objects
+   */
+  def download(bucket: String,
+               parallelism: Int,
+               s3Headers: S3Headers): Flow[JPair[String, Path], TransferredObject, TransferProgress] =
+    ScalaFlow[JPair[String, Path]]
+      .map(_.toScala)
+      .viaMat(S3Stream.downloadObjects(bucket, parallelism, s3Headers))(Keep.right)
+      .asJava
+}
@@ -4,10 +4,14 @@
 
 package akka.stream.alpakka.s3
 
+import java.nio.file.{Files, Path}
 import java.util.{Objects, Optional}
+import java.util.concurrent.atomic.AtomicLong
 
-import akka.http.scaladsl.model.{DateTime, HttpHeader, Uri}
+import akka.http.scaladsl.model.{ContentType, ContentTypes, DateTime, HttpHeader, Uri}
 import akka.http.scaladsl.model.headers._
+import akka.stream.scaladsl.{FileIO, Source}
+import akka.util.ByteString
 
 import scala.collection.immutable.Seq
 import scala.collection.immutable
@@ -316,6 +320,441 @@ object ListBucketResultCommonPrefixes {
   )
 }
 
+/**
+ * A part of a multipart upload that has been stored by S3.
+ *
+ * @param bucket The name of the bucket of the upload
+ * @param key The key of the uploaded object
+ * @param uploadId The id of the multipart upload
+ * @param partNumber The number of the part, starting at 1
+ * @param eTag The entity tag of the part
+ * @param size The size of the part in bytes
+ */
+final class MultipartUploadCheckpoint private (
+    val bucket: String,
+    val key: String,
+    val uploadId: String,
+    val partNumber: Int,
+    val eTag: String,
+    val size: Long
+) {
+
+  /** Java API */
+  def getBucket: String = bucket
+
+  /** Java API */
+  def getKey: String = key
+
+  /** Java API */
+  def getUploadId: String = uploadId
+
+  /** Java API */
+  def getPartNumber: Int = partNumber
+
+  /** Java API */
+  def getETag: String = eTag
+
+  /** Java API */
+  def getSize: Long = size
+
+  def withBucket(value: String): MultipartUploadCheckpoint = copy(bucket = value)
+  def withKey(value: String): MultipartUploadCheckpoint = copy(key = value)
+  def withUploadId(value: String): MultipartUploadCheckpoint = copy(uploadId = value)
+  def withPartNumber(value: Int): MultipartUploadCheckpoint = copy(partNumber = value)
+  def withETag(value: String): MultipartUploadCheckpoint = copy(eTag = value)
+  def withSize(value: Long): MultipartUploadCheckpoint = copy(size = value)
+
+  private def copy(
+      bucket: String = bucket,
+      key: String = key,
+      uploadId: String = uploadId,
+      partNumber: Int = partNumber,
+      eTag: String = eTag,
+      size: Long = size
+  ): MultipartUploadCheckpoint = new MultipartUploadCheckpoint(
+    bucket = bucket,
+    key = key,
+    uploadId = uploadId,
+    partNumber = partNumber,
+    eTag = eTag,
+    size = size
+  )
+
+  override def toString =
+    "MultipartUploadCheckpoint(" +
+    s"bucket=$bucket," +
+    s"key=$key," +
+    s"uploadId=$uploadId," +
+    s"partNumber=$partNumber," +
+    s"eTag=$eTag," +
+    s"size=$size" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: MultipartUploadCheckpoint =>
+      Objects.equals(this.bucket, that.bucket) &&
+      Objects.equals(this.key, that.key) &&
+      Objects.equals(this.uploadId, that.uploadId) &&
+      this.partNumber == that.partNumber &&
+      Objects.equals(this.eTag, that.eTag) &&
+      this.size == that.size
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(bucket, key, uploadId, Int.box(partNumber), eTag, Long.box(size))
+}
+
+object MultipartUploadCheckpoint {
+
+  /** Scala API */
+  def apply(
+      bucket: String,
+      key: String,
+      uploadId: String,
+      partNumber: Int,
+      eTag: String,
+      size: Long
+  ): MultipartUploadCheckpoint = new MultipartUploadCheckpoint(
+    bucket,
+    key,
+    uploadId,
+    partNumber,
+    eTag,
+    size
+  )
+
+  /** Java API */
+  def create(
+      bucket: String,
+      key: String,
+      uploadId: String,
+      partNumber: Int,
+      eTag: String,
+      size: Long
+  ): MultipartUploadCheckpoint = apply(
+    bucket,
+    key,
+    uploadId,
+    partNumber,
+    eTag,
+    size
+  )
+}
+
+/**
+ * The outcome of deleting a single key with a multi-object delete request.
+ *
+ * @param key the key of the object
+ * @param versionId the version of the object, if given in the request
+ * @param errorCode the error code reported by S3 if the object could not be deleted
+ * @param errorMessage the error message reported by S3 if the object could not be deleted
+ */
+final class DeleteObjectResult private (
+    val key: String,
+    val versionId: Option[String],
+    val errorCode: Option[String],
+    val errorMessage: Option[String]
+) {
+
+  /** Whether the object was deleted, S3 also reports keys that did not exist as deleted. */
+  def deleted: Boolean = errorCode.isEmpty
+
+  /** Java API */
+  def getKey: String = key
+
+  /** Java API */
+  def getVersionId: java.util.Optional[String] = versionId.asJava
+
+  /** Java API */
+  def getErrorCode: java.util.Optional[String] = errorCode.asJava
+
+  /** Java API */
+  def getErrorMessage: java.util.Optional[String] = errorMessage.asJava
+
+  /** Java API */
+  def isDeleted: Boolean = deleted
+
+  def withKey(value: String): DeleteObjectResult = copy(key = value)
+  def withVersionId(value: String): DeleteObjectResult = copy(versionId = Option(value))
+  def withErrorCode(value: String): DeleteObjectResult = copy(errorCode = Option(value))
+  def withErrorMessage(value: String): DeleteObjectResult = copy(errorMessage = Option(value))
+
+  private def copy(
+      key: String = key,
+      versionId: Option[String] = versionId,
+      errorCode: Option[String] = errorCode,
+      errorMessage: Option[String] = errorMessage
+  ): DeleteObjectResult = new DeleteObjectResult(
+    key = key,
+    versionId = versionId,
+    errorCode = errorCode,
+    errorMessage = errorMessage
+  )
+
+  override def toString =
+    "DeleteObjectResult(" +
+    s"key=$key," +
+    s"versionId=$versionId," +
+    s"errorCode=$errorCode," +
+    s"errorMessage=$errorMessage" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: DeleteObjectResult =>
+      Objects.equals(this.key, that.key) &&
+      Objects.equals(this.versionId, that.versionId) &&
+      Objects.equals(this.errorCode, that.errorCode) &&
+      Objects.equals(this.errorMessage, that.errorMessage)
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(key, versionId, errorCode, errorMessage)
+}
+
+object DeleteObjectResult {
+
+  /** Scala API */
+  def apply(
+      key: String,
+      versionId: Option[String],
+      errorCode: Option[String],
+      errorMessage: Option[String]
+  ): DeleteObjectResult = new DeleteObjectResult(
+    key,
+    versionId,
+    errorCode,
+    errorMessage
+  )
+
+  /** Java API */
+  def create(
+      key: String,
+      versionId: java.util.Optional[String],
+      errorCode: java.util.Optional[String],
+      errorMessage: java.util.Optional[String]
+  ): DeleteObjectResult = apply(
+    key,
+    versionId.asScala,
+    errorCode.asScala,
+    errorMessage.asScala
+  )
+}
+
+/**
+ * An object to upload with the [[akka.stream.alpakka.s3.scaladsl.S3TransferManager S3TransferManager]].
+ *
+ * @param key the key to upload the object to
+ * @param data the content of the object
+ * @param contentLength the number of bytes in `data`, which decides between a single request and a multipart upload
+ * @param contentType the content type of the object
+ */
+final class UploadTransfer private (
+    val key: String,
+    val data: Source[ByteString, _],
+    val contentLength: Long,
+    val contentType: ContentType
+) {
+
+  /** Java API */
+  def getKey: String = key
+
+  /** Java API */
+  def getData: akka.stream.javadsl.Source[ByteString, _] = data.asJava
+
+  /** Java API */
+  def getContentLength: Long = contentLength
+
+  /** Java API */
+  def getContentType: akka.http.javadsl.model.ContentType = contentType
+
+  def withKey(value: String): UploadTransfer = copy(key = value)
+  def withContentType(value: ContentType): UploadTransfer = copy(contentType = value)
+
+  private def copy(
+      key: String = key,
+      contentType: ContentType = contentType
+  ): UploadTransfer = new UploadTransfer(
+    key = key,
+    data = data,
+    contentLength = contentLength,
+    contentType = contentType
+  )
+
+  override def toString =
+    "UploadTransfer(" +
+    s"key=$key," +
+    s"contentLength=$contentLength," +
+    s"contentType=$contentType" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: UploadTransfer =>
+      Objects.equals(this.key, that.key) &&
+      Objects.equals(this.data, that.data) &&
+      this.contentLength == that.contentLength &&
+      Objects.equals(this.contentType, that.contentType)
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(key, data, Long.box(contentLength), contentType)
+}
+
+object UploadTransfer {
+
+  /** Scala API */
+  def apply(
+      key: String,
+      data: Source[ByteString, _],
+      contentLength: Long,
+      contentType: ContentType = ContentTypes.`application/octet-stream`
+  ): UploadTransfer = new UploadTransfer(
+    key,
+    data,
+    contentLength,
+    contentType
+  )
+
+  /** Scala API: uploads the file at `path`, whose size is read when the transfer is created */
+  def apply(key: String, path: Path): UploadTransfer =
+    apply(key, FileIO.fromPath(path), Files.size(path))
+
+  /** Java API */
+  def create(
+      key: String,
+      data: akka.stream.javadsl.Source[ByteString, _],
+      contentLength: Long,
+      contentType: akka.http.javadsl.model.ContentType
+  ): UploadTransfer = apply(
+    key,
+    data.asScala,
+    contentLength,
+    contentType.asInstanceOf[ContentType]
+  )
+
+  /** Java API */
+  def create(key: String, data: akka.stream.javadsl.Source[ByteString, _], contentLength: Long): UploadTransfer =
+    apply(key, data.asScala, contentLength)
+
+  /** Java API: uploads the file at `path`, whose size is read when the transfer is created */
+  def create(key: String, path: Path): UploadTransfer = apply(key, path)
+}
+
+/**
+ * An object transferred by the [[akka.stream.alpakka.s3.scaladsl.S3TransferManager S3TransferManager]].
+ *
+ * @param key the key of the object
+ * @param size the number of bytes transferred
+ * @param eTag the ETag S3 reports for the object
+ */
+final class TransferredObject private (
+    val key: String,
+    val size: Long,
+    val eTag: Option[String]
+) {
+
+  /** Java API */
+  def getKey: String = key
+
+  /** Java API */
+  def getSize: Long = size
+
+  /** Java API */
+  def getETag: java.util.Optional[String] = eTag.asJava
+
+  def withKey(value: String): TransferredObject = copy(key = value)
+  def withSize(value: Long): TransferredObject = copy(size = value)
+  def withETag(value: String): TransferredObject = copy(eTag = Option(value))
+
+  private def copy(
+      key: String = key,
+      size: Long = size,
+      eTag: Option[String] = eTag
+  ): TransferredObject = new TransferredObject(
+    key = key,
+    size = size,
+    eTag = eTag
+  )
+
+  override def toString =
+    "TransferredObject(" +
+    s"key=$key," +
+    s"size=$size," +
+    s"eTag=$eTag" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: TransferredObject =>
+      Objects.equals(this.key, that.key) &&
+      this.size == that.size &&
+      Objects.equals(this.eTag, that.eTag)
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(key, Long.box(size), eTag)
+}
+
+object TransferredObject {
+
+  /** Scala API */
+  def apply(
+      key: String,
+      size: Long,
+      eTag: Option[String]
+  ): TransferredObject = new TransferredObject(
+    key,
+    size,
+    eTag
+  )
+
+  /** Java API */
+  def create(
+      key: String,
+      size: Long,
+      eTag: java.util.Optional[String]
+  ): TransferredObject = apply(
+    key,
+    size,
+    eTag.asScala
+  )
+}
+
+/**
+ * The progress of a transfer of the [[akka.stream.alpakka.s3.scaladsl.S3TransferManager S3TransferManager]], which
+ * is updated as objects complete and can be read while the transfer runs. The bytes of objects still in flight are
+ * not counted.
+ */
+final class TransferProgress private[s3] () {
+  private val transferredObjects = new AtomicLong()
+  private val transferredBytes = new AtomicLong()
+
+  /** The number of objects transferred so far */
+  def objects: Long = transferredObjects.get()
+
+  /** The number of bytes of the objects transferred so far */
+  def bytes: Long = transferredBytes.get()
+
+  /** Java API */
+  def getObjects: Long = objects
+
+  /** Java API */
+  def getBytes: Long = bytes
+
+  private[s3] def transferred(size: Long): Unit = {
+    transferredObjects.incrementAndGet()
+    transferredBytes.addAndGet(size)
+  }
+
+  override def toString =
+    "TransferProgress(" +
+    s"objects=$objects," +
+    s"bytes=$bytes" +
+    ")"
+}
+
 /**
  * Modelled after com.amazonaws.services.s3.model.ObjectMetadata
  *
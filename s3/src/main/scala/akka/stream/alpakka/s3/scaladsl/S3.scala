@@ -10,7 +10,7 @@ import akka.stream.{Attributes, Materializer}
 import akka.stream.alpakka.s3.headers.{CannedAcl, ServerSideEncryption}
 import akka.stream.alpakka.s3._
 import akka.stream.alpakka.s3.impl._
-import akka.stream.scaladsl.{RunnableGraph, Sink, Source}
+import akka.stream.scaladsl.{Flow, RunnableGraph, Sink, Source}
 import akka.util.ByteString
 
 import scala.concurrent.Future
@@ -119,6 +119,20 @@ object S3 {
   def deleteObjectsByPrefix(bucket: String, prefix: Option[String], s3Headers: S3Headers): Source[Done, NotUsed] =
     S3Stream.deleteObjectsByPrefix(bucket, prefix, s3Headers)
 
+  /**
+   * Deletes the S3 Objects with the incoming keys, sending up to 1000 keys in one multi-object delete request
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/API/API_DeleteObjects.html
+   * @param bucket the s3 bucket name
+   * @param parallelism the number of delete requests to send at the same time
+   * @param s3Headers any headers you want to add
+   * @return A [[akka.stream.scaladsl.Flow Flow]] that emits a [[DeleteObjectResult]] for every key
+   */
+  def deleteObjects(bucket: String,
+                    parallelism: Int = 4,
+                    s3Headers: S3Headers = S3Headers.empty): Flow[String, DeleteObjectResult, NotUsed] =
+    S3Stream.deleteObjects(bucket, parallelism, s3Headers)
+
   /**
    * Uploads a S3 Object, use this for small files and [[multipartUpload]] for bigger ones
    *
@@ -176,6 +190,29 @@ object S3 {
   ): Source[Option[(Source[ByteString, NotUsed], ObjectMetadata)], NotUsed] =
     S3Stream.download(S3Location(bucket, key), range, versionId, s3Headers)
 
+  /**
+   * Downloads a S3 Object with several concurrent ranged requests, which gives a higher throughput for large
+   * objects than a single connection. The parts are emitted in order and at most `parallelism` parts are buffered.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param partSize the number of bytes to request per range
+   * @param parallelism the number of ranges requested concurrently
+   * @param versionId optional version id of the object
+   * @param s3Headers any headers you want to add
+   * @return The source will emit an empty [[scala.Option Option]] if an object can not be found.
+   *         Otherwise [[scala.Option Option]] will contain a tuple of object's data and metadata.
+   */
+  def getObjectParallel(
+      bucket: String,
+      key: String,
+      partSize: Int = MinChunkSize,
+      parallelism: Int = 4,
+      versionId: Option[String] = None,
+      s3Headers: S3Headers = S3Headers.empty
+  ): Source[Option[(Source[ByteString, NotUsed], ObjectMetadata)], NotUsed] =
+    S3Stream.getObjectParallel(S3Location(bucket, key), partSize, parallelism, versionId, s3Headers)
+
   /**
    * Will return a source of object metadata for a given bucket with optional prefix using version 2 of the List Bucket API.
    * This will automatically page through all keys with the given parameters.
@@ -253,6 +290,33 @@ object S3 {
   ): Source[(Seq[ListBucketResultContents], Seq[ListBucketResultCommonPrefixes]), NotUsed] =
     S3Stream.listBucketAndCommonPrefixes(bucket, delimiter, prefix, s3Headers)
 
+  /**
+   * Will return a source of object metadata for a given bucket with optional prefix, listing parts of the bucket
+   * concurrently.
+   *
+   * The common prefixes up to `fanoutDepth` levels of `delimiter` below `prefix` are discovered first, after which
+   * up to `parallelism` of them are listed at the same time. Unless `ordered` is set, keys are emitted as soon as
+   * any of the listings returns them.
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/dev/ListingKeysHierarchy.html (prefix and delimiter documentation)
+   * @param bucket Which bucket that you list object metadata for
+   * @param prefix Prefix of the keys you want to list under passed bucket
+   * @param parallelism the number of prefixes to list at the same time
+   * @param delimiter Delimiter separating the levels of the key hierarchy the listing is split at
+   * @param fanoutDepth the number of levels of the key hierarchy to discover before listing concurrently
+   * @param ordered emit the keys in the order S3 lists them, keeping `parallelism` listings ahead
+   * @param s3Headers any headers you want to add
+   * @return [[akka.stream.scaladsl.Source Source]] of [[ListBucketResultContents]]
+   */
+  def listBucketParallel(bucket: String,
+                         prefix: Option[String],
+                         parallelism: Int,
+                         delimiter: String = "/",
+                         fanoutDepth: Int = 1,
+                         ordered: Boolean = false,
+                         s3Headers: S3Headers = S3Headers.empty): Source[ListBucketResultContents, NotUsed] =
+    S3Stream.listBucketParallel(bucket, prefix, delimiter, fanoutDepth, parallelism, ordered, s3Headers)
+
   /**
    * Uploads a S3 Object by making multiple requests
    *
@@ -308,6 +372,62 @@ object S3 {
         chunkingParallelism
       )
 
+  /**
+   * Uploads a S3 Object by making multiple requests, and sends a checkpoint to `checkpoints` for every part S3 has
+   * stored. The checkpoints carry the upload id, which allows an interrupted upload to be resumed.
+   *
+   * To resume an upload, pass its `uploadId` and the complete data again. The parts S3 already holds for the upload are
+   * listed, the bytes of the uninterrupted sequence of parts starting with part 1 are skipped without being sent,
+   * and the upload continues with the following part.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param checkpoints receives a checkpoint for every part uploaded by this stream
+   * @param uploadId the id of an interrupted upload to resume, or `None` to start a new upload
+   * @param contentType an optional [[akka.http.scaladsl.model.ContentType ContentType]], used for new uploads
+   * @param chunkSize the size of the requests sent to S3, minimum [[MinChunkSize]]
+   * @param chunkingParallelism the number of parallel requests used for the upload, defaults to 4
+   * @param s3Headers any headers you want to add
+   * @return a [[akka.stream.scaladsl.Sink Sink]] that accepts [[akka.util.ByteString ByteString]]'s and materializes to a [[scala.concurrent.Future Future]] of [[MultipartUploadResult]]
+   */
+  def resumableMultipartUpload(
+      bucket: String,
+      key: String,
+      checkpoints: Sink[MultipartUploadCheckpoint, _],
+      uploadId: Option[String] = None,
+      contentType: ContentType = ContentTypes.`application/octet-stream`,
+      chunkSize: Int = MinChunkSize,
+      chunkingParallelism: Int = 4,
+      s3Headers: S3Headers = S3Headers.empty
+  ): Sink[ByteString, Future[MultipartUploadResult]] =
+    S3Stream
+      .resumableMultipartUpload(
+        S3Location(bucket, key),
+        uploadId,
+        checkpoints,
+        contentType,
+        s3Headers,
+        chunkSize,
+        chunkingParallelism
+      )
+
+  /**
+   * Lists the parts S3 holds for a multipart upload that has not been completed or aborted.
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListParts.html
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param uploadId the id of the multipart upload
+   * @param s3Headers any headers you want to add
+   * @return [[akka.stream.scaladsl.Source Source]] of the parts in the order of their part numbers
+   */
+  def listParts(bucket: String,
+                key: String,
+                uploadId: String,
+                s3Headers: S3Headers = S3Headers.empty): Source[MultipartUploadCheckpoint, NotUsed] =
+    S3Stream.listParts(S3Location(bucket, key), uploadId, s3Headers)
+
   /**
    * Copy an S3 object from source bucket to target bucket using multi part copy upload.
    *
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.scaladsl
+
+import java.nio.file.Path
+
+import akka.stream.alpakka.s3._
+import akka.stream.alpakka.s3.impl._
+import akka.stream.scaladsl.Flow
+
+/**
+ * Factory of S3 operations transferring many objects, with the S3 settings resolved once for the whole stream.
+ * Every object is transferred on its own, and the [[TransferProgress]] is updated as objects complete.
+ */
+object S3TransferManager {
+
+  /** The size from which objects are uploaded with a multipart upload by default */
+  val DefaultMultipartThreshold: Long = 16L * 1024 * 1024
+
+  /**
+   * Uploads the incoming objects with up to `parallelism` of them in flight. Objects smaller than
+   * `multipartThreshold` are uploaded with a single request, larger ones with a multipart upload which sends up to
+   * 4 of its parts at the same time.
+   *
+   * @param bucket the s3 bucket name
+   * @param parallelism the number of objects to upload at the same time
+   * @param multipartThreshold the size from which objects are uploaded in parts, at most 5 GiB
+   * @param chunkSize the size of the parts of multipart uploads, at least 5 MB
+   * @param s3Headers any headers you want to add
+   * @return a [[akka.stream.scaladsl.Flow Flow]] that emits a [[TransferredObject]] for every uploaded object, in the
+   *         order they complete, and materializes the [[TransferProgress]] of the completed objects
+   */
+  def upload(bucket: String,
+             parallelism: Int = 8,
+             multipartThreshold: Long = DefaultMultipartThreshold,
+             chunkSize: Int = S3.MinChunkSize,
+             s3Headers: S3Headers = S3Headers.empty): Flow[UploadTransfer, TransferredObject, TransferProgress] =
+    S3Stream.uploadObjects(bucket, parallelism, multipartThreshold, chunkSize, s3Headers)
+
+  /**
+   * Downloads the objects with the incoming keys to the paired files, with up to `parallelism` of them in flight.
+   * The stream fails for keys that do not exist.
+   *
+   * @param bucket the s3 bucket name
+   * @param parallelism the number of objects to download at the same time
+   * @param s3Headers any headers you want to add
+   * @return a [[akka.stream.scaladsl.Flow Flow]] that emits a [[TransferredObject]] for every downloaded object, in
+   *         the order they complete, and materializes the [[TransferProgress]] of the completed objects
+   */
+  def download(bucket: String,
+               parallelism: Int = 8,
+               s3Headers: S3Headers = S3Headers.empty): Flow[(String, Path), TransferredObject, TransferProgress] =
+    S3Stream.downloadObjects(bucket, parallelism, s3Headers)
+}
@@ -10,6 +10,7 @@ import java.util.Objects
 import scala.util.Try
 import akka.actor.ActorSystem
 import akka.http.scaladsl.model.Uri
+import akka.stream.alpakka.s3.impl.S3Stream
 import software.amazon.awssdk.auth.credentials._
 import software.amazon.awssdk.regions.providers._
 import com.typesafe.config.Config
@@ -177,6 +178,40 @@ object ApiVersion {
   def getListBucketVersion2: ListBucketVersion2 = ListBucketVersion2
 }
 
+/**
+ * How the payload of upload requests is covered by the request signature.
+ */
+sealed abstract class PayloadSigning
+object PayloadSigning {
+
+  /** The whole payload is hashed before the request is sent. */
+  sealed abstract class Signed extends PayloadSigning
+  case object Signed extends Signed
+
+  /** Java Api */
+  def getSigned: Signed = Signed
+
+  /**
+   * The payload is sent in `aws-chunked` encoding with every chunk signed as it is sent
+   * (`STREAMING-AWS4-HMAC-SHA256-PAYLOAD`). Applies to requests with a known content length.
+   */
+  sealed abstract class StreamingSigned extends PayloadSigning
+  case object StreamingSigned extends StreamingSigned
+
+  /** Java Api */
+  def getStreamingSigned: StreamingSigned = StreamingSigned
+
+  /**
+   * The payload is not signed (`UNSIGNED-PAYLOAD`) and relies on TLS for integrity.
+   * Requests over plain HTTP are still signed.
+   */
+  sealed abstract class Unsigned extends PayloadSigning
+  case object Unsigned extends Unsigned
+
+  /** Java Api */
+  def getUnsigned: Unsigned = Unsigned
+}
+
 final class S3Settings private (
     val bufferType: BufferType,
     val credentialsProvider: AwsCredentialsProvider,
@@ -184,9 +219,19 @@ final class S3Settings private (
     val pathStyleAccess: Boolean,
     val endpointUrl: Option[String],
     val listBucketApiVersion: ApiVersion,
-    val forwardProxy: Option[ForwardProxy]
+    val forwardProxy: Option[ForwardProxy],
+    val payloadSigning: PayloadSigning,
+    val adaptiveChunkSize: Boolean,
+    val maxInFlightBytes: Option[Long],
+    val validateChecksums: Boolean
 ) {
 
+  require(
+    maxInFlightBytes.forall(_ >= 2L * S3Stream.MinChunkSize),
+    s"maxInFlightBytes must be at least twice the minimum chunk size of ${S3Stream.MinChunkSize} bytes, " +
+    "as every part reserves twice its chunk size"
+  )
+
   @deprecated("Please use endpointUrl instead", since = "1.0.1") val proxy: Option[Proxy] = None
 
   /** Java API */
@@ -214,6 +259,18 @@ final class S3Settings private (
   /** Java API */
   def getForwardProxy: java.util.Optional[ForwardProxy] = forwardProxy.asJava
 
+  /** Java API */
+  def getPayloadSigning: PayloadSigning = payloadSigning
+
+  /** Java API */
+  def isAdaptiveChunkSize: Boolean = adaptiveChunkSize
+
+  /** Java API */
+  def getMaxInFlightBytes: java.util.Optional[java.lang.Long] = maxInFlightBytes.map(Long.box).asJava
+
+  /** Java API */
+  def isValidateChecksums: Boolean = validateChecksums
+
   def withBufferType(value: BufferType): S3Settings = copy(bufferType = value)
 
   @deprecated("Please use endpointUrl instead", since = "1.0.1")
@@ -229,6 +286,16 @@ final class S3Settings private (
     copy(listBucketApiVersion = value)
   def withForwardProxy(value: ForwardProxy): S3Settings =
     copy(forwardProxy = Option(value))
+  def withPayloadSigning(value: PayloadSigning): S3Settings = copy(payloadSigning = value)
+  def withAdaptiveChunkSize(value: Boolean): S3Settings = copy(adaptiveChunkSize = value)
+
+  /**
+   * Bounds the bytes buffered for multipart upload parts in the actor system, 0 removes the bound. Every part
+   * reserves twice its chunk size, so the bound must be at least twice the minimum chunk size. A part reserving more
+   * than the bound waits until no other part holds any bytes, so that uploads continue one part at a time.
+   */
+  def withMaxInFlightBytes(value: Long): S3Settings = copy(maxInFlightBytes = Some(value).filter(_ > 0))
+  def withValidateChecksums(value: Boolean): S3Settings = copy(validateChecksums = value)
 
   private def copy(
       bufferType: BufferType = bufferType,
@@ -237,7 +304,11 @@ final class S3Settings private (
       pathStyleAccess: Boolean = pathStyleAccess,
       endpointUrl: Option[String] = endpointUrl,
       listBucketApiVersion: ApiVersion = listBucketApiVersion,
-      forwardProxy: Option[ForwardProxy] = forwardProxy
+      forwardProxy: Option[ForwardProxy] = forwardProxy,
+      payloadSigning: PayloadSigning = payloadSigning,
+      adaptiveChunkSize: Boolean = adaptiveChunkSize,
+      maxInFlightBytes: Option[Long] = maxInFlightBytes,
+      validateChecksums: Boolean = validateChecksums
   ): S3Settings = new S3Settings(
     bufferType = bufferType,
     credentialsProvider = credentialsProvider,
@@ -245,7 +316,11 @@ final class S3Settings private (
     pathStyleAccess = pathStyleAccess,
     endpointUrl = endpointUrl,
     listBucketApiVersion = listBucketApiVersion,
-    forwardProxy = forwardProxy
+    forwardProxy = forwardProxy,
+    payloadSigning = payloadSigning,
+    adaptiveChunkSize = adaptiveChunkSize,
+    maxInFlightBytes = maxInFlightBytes,
+    validateChecksums = validateChecksums
   )
 
   override def toString =
@@ -256,7 +331,11 @@ final class S3Settings private (
     s"pathStyleAccess=$pathStyleAccess," +
     s"endpointUrl=$endpointUrl," +
     s"listBucketApiVersion=$listBucketApiVersion" +
-    s"forwardProxy=$forwardProxy" +
+    s"forwardProxy=$forwardProxy," +
+    s"payloadSigning=$payloadSigning," +
+    s"adaptiveChunkSize=$adaptiveChunkSize," +
+    s"maxInFlightBytes=$maxInFlightBytes," +
+    s"validateChecksums=$validateChecksums" +
     ")"
 
   override def equals(other: Any): Boolean = other match {
@@ -267,7 +346,11 @@ final class S3Settings private (
       Objects.equals(this.pathStyleAccess, that.pathStyleAccess) &&
       Objects.equals(this.endpointUrl, that.endpointUrl) &&
       Objects.equals(this.listBucketApiVersion, that.listBucketApiVersion) &&
-      Objects.equals(this.forwardProxy, that.forwardProxy)
+      Objects.equals(this.forwardProxy, that.forwardProxy) &&
+      Objects.equals(this.payloadSigning, that.payloadSigning) &&
+      this.adaptiveChunkSize == that.adaptiveChunkSize &&
+      Objects.equals(this.maxInFlightBytes, that.maxInFlightBytes) &&
+      this.validateChecksums == that.validateChecksums
     case _ => false
   }
 
@@ -278,7 +361,11 @@ final class S3Settings private (
                  Boolean.box(pathStyleAccess),
                  endpointUrl,
                  listBucketApiVersion,
-                 forwardProxy)
+                 forwardProxy,
+                 payloadSigning,
+                 Boolean.box(adaptiveChunkSize),
+                 maxInFlightBytes,
+                 Boolean.box(validateChecksums))
 }
 
 object S3Settings {
@@ -297,8 +384,14 @@ object S3Settings {
         val diskBufferPath = c.getString("disk-buffer-path")
         DiskBufferType(Paths.get(diskBufferPath))
 
+      case "pooled" =>
+        val slabs = c.getInt("pooled-buffer.slabs")
+        if (c.getBoolean("pooled-buffer.memory-mapped"))
+          PooledBufferType.memoryMapped(slabs, Paths.get(c.getString("disk-buffer-path")))
+        else PooledBufferType(slabs)
+
       case other =>
-        throw new IllegalArgumentException(s"Buffer type must be 'memory' or 'disk'. Got: [$other]")
+        throw new IllegalArgumentException(s"Buffer type must be 'memory', 'disk' or 'pooled'. Got: [$other]")
     }
 
     val maybeProxy = for {
@@ -385,6 +478,27 @@ object S3Settings {
       case 2 => ApiVersion.ListBucketVersion2
     }).getOrElse(ApiVersion.ListBucketVersion2)
 
+    val payloadSigning =
+      if (c.hasPath("payload-signing")) c.getString("payload-signing") match {
+        case "signed" => PayloadSigning.Signed
+        case "streaming" => PayloadSigning.StreamingSigned
+        case "unsigned" => PayloadSigning.Unsigned
+        case other =>
+          throw new IllegalArgumentException(
+            s"Payload signing must be 'signed', 'streaming' or 'unsigned'. Got: [$other]"
+          )
+      } else PayloadSigning.Signed
+
+    val adaptiveChunkSize =
+      c.hasPath("multipart-upload.adaptive-chunk-size") && c.getBoolean("multipart-upload.adaptive-chunk-size")
+
+    val maxInFlightBytesPath = "multipart-upload.max-in-flight-bytes"
+    val maxInFlightBytes =
+      if (!c.hasPath(maxInFlightBytesPath) || c.getString(maxInFlightBytesPath) == "off") None
+      else Some(c.getBytes(maxInFlightBytesPath).longValue).filter(_ > 0)
+
+    val validateChecksums = c.hasPath("validate-checksums") && c.getBoolean("validate-checksums")
+
     new S3Settings(
       bufferType = bufferType,
       credentialsProvider = credentialsProvider,
@@ -392,7 +506,11 @@ object S3Settings {
       pathStyleAccess = pathStyleAccess,
       endpointUrl = endpointUrl,
       listBucketApiVersion = apiVersion,
-      forwardProxy = maybeForwardProxy
+      forwardProxy = maybeForwardProxy,
+      payloadSigning = payloadSigning,
+      adaptiveChunkSize = adaptiveChunkSize,
+      maxInFlightBytes = maxInFlightBytes,
+      validateChecksums = validateChecksums
     )
   }
 
@@ -418,7 +536,11 @@ object S3Settings {
     pathStyleAccess,
     endpointUrl,
     listBucketApiVersion,
-    None
+    None,
+    PayloadSigning.Signed,
+    false,
+    None,
+    false
   )
 
   /** Scala API */
@@ -434,7 +556,11 @@ object S3Settings {
     false,
     None,
     listBucketApiVersion,
-    None
+    None,
+    PayloadSigning.Signed,
+    false,
+    None,
+    false
   )
 
   /** Java API */
@@ -502,3 +628,47 @@ case object DiskBufferType {
   /** Java API */
   def create(path: Path): DiskBufferType = DiskBufferType(path)
 }
+
+/**
+ * Buffers parts in a bounded pool of reusable slabs, shared by all uploads with the same part size
+ * within an actor system. Uploads wait for a slab to be released when all of them are in use.
+ */
+final class PooledBufferType private (val slabs: Int, val memoryMapped: Boolean, filePath: Path) extends BufferType {
+  require(slabs > 0, "slabs should be at least 1")
+
+  override val path: Option[Path] = Some(filePath).filter(_ => memoryMapped).filterNot(_.toString.isEmpty)
+
+  /** Java API */
+  def getSlabs: Int = slabs
+
+  /** Java API */
+  def isMemoryMapped: Boolean = memoryMapped
+
+  override def toString =
+    s"PooledBufferType(slabs=$slabs,memoryMapped=$memoryMapped,path=$path)"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: PooledBufferType =>
+      this.slabs == that.slabs &&
+      this.memoryMapped == that.memoryMapped &&
+      Objects.equals(this.path, that.path)
+    case _ => false
+  }
+
+  override def hashCode(): Int = Objects.hash(Int.box(slabs), Boolean.box(memoryMapped), path)
+}
+object PooledBufferType {
+
+  /** Slabs allocated in direct memory. */
+  def apply(slabs: Int): PooledBufferType = new PooledBufferType(slabs, memoryMapped = false, Paths.get(""))
+
+  /** Slabs mapped from a file in `path`, or in the standard java temp path if `path` is empty. */
+  def memoryMapped(slabs: Int, path: Path): PooledBufferType =
+    new PooledBufferType(slabs, memoryMapped = true, path)
+
+  /** Java API: Slabs allocated in direct memory. */
+  def create(slabs: Int): PooledBufferType = PooledBufferType(slabs)
+
+  /** Java API: Slabs mapped from a file in `path`, or in the standard java temp path if `path` is empty. */
+  def createMemoryMapped(slabs: Int, path: Path): PooledBufferType = memoryMapped(slabs, path)
+}
@@ -21,7 +21,9 @@ import akka.stream.alpakka.s3.*;
 import akka.stream.alpakka.s3.headers.CustomerKeys;
 import akka.stream.alpakka.s3.headers.ServerSideEncryption;
 import akka.stream.alpakka.s3.javadsl.S3;
+import akka.stream.alpakka.s3.javadsl.S3TransferManager;
 import akka.stream.alpakka.s3.scaladsl.S3WireMockBase;
+import akka.stream.javadsl.Keep;
 import akka.stream.javadsl.Sink;
 import akka.stream.javadsl.Source;
 import akka.testkit.javadsl.TestKit;
@@ -89,6 +91,35 @@ public class S3Test extends S3WireMockBase {
         result);
   }
 
+  @Test
+  public void resumableMultipartUpload() throws Exception {
+    final String uploadedPart = "already uploaded";
+    mockResumedUpload(uploadedPart, body());
+
+    // the complete data of the object, of which S3 holds the first part
+    final Source<ByteString, NotUsed> file =
+        Source.single(ByteString.fromString(uploadedPart + body()));
+
+    // #resumable-upload
+    // persists the upload id and the parts, e.g. to a database
+    final Sink<MultipartUploadCheckpoint, CompletionStage<Done>> checkpoints =
+        Sink.foreach(checkpoint -> System.out.println(checkpoint));
+
+    final CompletionStage<MultipartUploadResult> resultCompletionStage =
+        file.runWith(
+            S3.resumableMultipartUpload(bucket(), bucketKey(), checkpoints, Optional.of(uploadId())),
+            materializer);
+    // #resumable-upload
+
+    MultipartUploadResult result =
+        resultCompletionStage.toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertEquals(
+        MultipartUploadResult.create(
+            Uri.create(url()), bucket(), bucketKey(), etag(), Optional.empty()),
+        result);
+  }
+
   @Test
   public void multipartUploadSSE() throws Exception {
 
@@ -288,6 +319,31 @@ public class S3Test extends S3WireMockBase {
     assertTrue(Arrays.equals(rangeOfBody(), result));
   }
 
+  @Test
+  public void getObjectParallel() throws Exception {
+
+    mockParallelDownload(5);
+
+    // #getObjectParallel
+    final Source<Optional<Pair<Source<ByteString, NotUsed>, ObjectMetadata>>, NotUsed>
+        sourceAndMeta = S3.getObjectParallel(bucket(), bucketKey(), 5, 3);
+    // #getObjectParallel
+
+    final Source<ByteString, NotUsed> source =
+        sourceAndMeta
+            .runWith(Sink.head(), materializer)
+            .toCompletableFuture()
+            .get(5, TimeUnit.SECONDS)
+            .get()
+            .first();
+    final CompletionStage<String> resultCompletionStage =
+        source.map(ByteString::utf8String).runWith(Sink.fold("", String::concat), materializer);
+
+    String result = resultCompletionStage.toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertEquals(body(), result);
+  }
+
   @Test
   public void rangedDownloadServerSideEncryption() throws Exception {
 
@@ -335,6 +391,25 @@ public class S3Test extends S3WireMockBase {
     assertEquals(result.key(), listKey());
   }
 
+  @Test
+  public void listBucketParallel() throws Exception {
+
+    mockListBucketParallel();
+
+    // #list-bucket-parallel
+    final Source<ListBucketResultContents, NotUsed> keySource =
+        S3.listBucketParallel(bucket(), Optional.of(prefix), 8);
+    // #list-bucket-parallel
+
+    final CompletionStage<List<ListBucketResultContents>> resultCompletionStage =
+        keySource.runWith(Sink.seq(), materializer);
+
+    List<ListBucketResultContents> result =
+        resultCompletionStage.toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertEquals(2, result.size());
+  }
+
   @Test
   public void listBucketVersion1() throws Exception {
     mockListBucketVersion1();
@@ -614,6 +689,54 @@ public class S3Test extends S3WireMockBase {
         Done.done());
   }
 
+  @Test
+  public void deleteObjects() throws Exception {
+    mockDeleteObjects("deleted.txt", "protected.txt");
+
+    // #delete-objects
+    final CompletionStage<List<DeleteObjectResult>> results =
+        Source.from(Arrays.asList("deleted.txt", "protected.txt"))
+            .via(S3.deleteObjects(bucket()))
+            .runWith(Sink.seq(), materializer);
+    // #delete-objects
+
+    List<DeleteObjectResult> result = results.toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertTrue(result.get(0).isDeleted());
+    assertEquals(Optional.of("AccessDenied"), result.get(1).getErrorCode());
+  }
+
+  @Test
+  public void transferManagerUpload() throws Exception {
+    mockPutObject("smallKey", "small");
+    mockUpload();
+
+    // #transfer-upload
+    final Source<UploadTransfer, NotUsed> uploads =
+        Source.from(
+            Arrays.asList(
+                UploadTransfer.create(
+                    "smallKey", Source.single(ByteString.fromString("small")), 5),
+                UploadTransfer.create(
+                    bucketKey(), Source.single(ByteString.fromString(body())), body().length())));
+
+    final Pair<TransferProgress, CompletionStage<List<TransferredObject>>> transfer =
+        uploads
+            .viaMat(
+                S3TransferManager.upload(bucket(), 8, 10, 5 * 1024 * 1024, S3Headers.empty()),
+                Keep.right())
+            .toMat(Sink.seq(), Keep.both())
+            .run(materializer);
+    // #transfer-upload
+
+    List<TransferredObject> result =
+        transfer.second().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertEquals(2, result.size());
+    assertEquals(2, transfer.first().getObjects());
+    assertEquals(5 + body().length(), transfer.first().getBytes());
+  }
+
   @Test
   public void deleteBucket() throws Exception {
     final String bucketName = "samplebucket1";
@@ -174,6 +174,72 @@ class S3SettingsSpec extends S3WireMockBase with S3ClientIntegrationSpec with Op
     settings.listBucketApiVersion shouldEqual ApiVersion.ListBucketVersion2
   }
 
+  it should "instantiate with pooled direct memory slabs if buffer is set to pooled" in {
+    val settings: S3Settings = mkSettings("""
+        |buffer = pooled
+        |pooled-buffer {
+        |  slabs = 3
+        |  memory-mapped = false
+        |}
+        |""".stripMargin)
+    settings.bufferType shouldEqual PooledBufferType(3)
+    settings.bufferType.path shouldBe None
+  }
+
+  it should "instantiate with pooled memory-mapped slabs if pooled-buffer.memory-mapped is set" in {
+    val settings: S3Settings = mkSettings("""
+        |buffer = pooled
+        |disk-buffer-path = /tmp/s3-slabs
+        |pooled-buffer {
+        |  slabs = 2
+        |  memory-mapped = true
+        |}
+        |""".stripMargin)
+    settings.bufferType shouldEqual PooledBufferType.memoryMapped(2, java.nio.file.Paths.get("/tmp/s3-slabs"))
+  }
+
+  it should "sign payloads by default" in {
+    val settings: S3Settings = mkSettings("")
+    settings.payloadSigning shouldEqual PayloadSigning.Signed
+  }
+
+  it should "instantiate with streaming payload signing if payload-signing is set to streaming" in {
+    val settings: S3Settings = mkSettings("payload-signing = streaming")
+    settings.payloadSigning shouldEqual PayloadSigning.StreamingSigned
+  }
+
+  it should "instantiate with unsigned payloads if payload-signing is set to unsigned" in {
+    val settings: S3Settings = mkSettings("payload-signing = unsigned")
+    settings.payloadSigning shouldEqual PayloadSigning.Unsigned
+  }
+
+  it should "use fixed part sizes without an in-flight bound by default" in {
+    val settings: S3Settings = mkSettings("")
+    settings.adaptiveChunkSize shouldBe false
+    settings.maxInFlightBytes shouldBe None
+  }
+
+  it should "instantiate with adaptive part sizes and an in-flight bound if multipart-upload is set" in {
+    val settings: S3Settings = mkSettings(
+      """multipart-upload {
+        |  adaptive-chunk-size = true
+        |  max-in-flight-bytes = 64 MiB
+        |}""".stripMargin
+    )
+    settings.adaptiveChunkSize shouldBe true
+    settings.maxInFlightBytes shouldBe Some(64L * 1024 * 1024)
+  }
+
+  it should "reject an in-flight bound below twice the minimum chunk size" in {
+    an[IllegalArgumentException] should be thrownBy mkSettings("multipart-upload.max-in-flight-bytes = 8 MiB")
+    an[IllegalArgumentException] should be thrownBy mkSettings("").withMaxInFlightBytes(8L * 1024 * 1024)
+  }
+
+  it should "validate checksums if validate-checksums is set" in {
+    mkSettings("").validateChecksums shouldBe false
+    mkSettings("validate-checksums = true").validateChecksums shouldBe true
+  }
+
   it should "parse forward proxy without credentials" in {
     val settings = mkSettings("""
         |forward-proxy {
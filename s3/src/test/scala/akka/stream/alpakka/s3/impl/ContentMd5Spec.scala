@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import akka.actor.ActorSystem
+import akka.http.scaladsl.model.{ContentTypes, HttpEntity, HttpMethods, HttpRequest}
+import akka.http.scaladsl.model.headers.RawHeader
+import akka.stream.alpakka.s3.S3Exception
+import akka.stream.scaladsl.{Sink, Source}
+import akka.stream.{ActorMaterializer, ActorMaterializerSettings}
+import akka.testkit.TestKit
+import akka.util.ByteString
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.{BeforeAndAfterAll, FlatSpecLike, Matchers}
+
+class ContentMd5Spec(_system: ActorSystem)
+    extends TestKit(_system)
+    with FlatSpecLike
+    with Matchers
+    with BeforeAndAfterAll
+    with ScalaFutures {
+
+  def this() = this(ActorSystem("ContentMd5Spec"))
+  implicit val materializer = ActorMaterializer(ActorMaterializerSettings(system).withDebugLogging(true))
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  val payload = Vector(ByteString("a"), ByteString("bc"))
+  val md5 = "900150983cd24fb0d6963f7d28e17f72"
+
+  "ContentMd5" should "pass the bytes through when their MD5 matches the ETag" in {
+    Source(payload)
+      .via(ContentMd5.digesting(ContentMd5.verify(List(RawHeader("ETag", s""""$md5"""")), _, "payload")))
+      .runWith(Sink.seq)
+      .futureValue shouldBe payload
+  }
+
+  it should "fail the stream when their MD5 does not match the ETag" in {
+    val etag = "fba9dede5f27731c9771645a39863328"
+    val failure = Source(payload)
+      .via(ContentMd5.digesting(ContentMd5.verify(List(RawHeader("ETag", etag)), _, "payload")))
+      .runWith(Sink.ignore)
+      .failed
+      .futureValue
+
+    failure shouldBe an[S3Exception]
+    failure.getMessage should include(etag)
+  }
+
+  it should "not check ETags that are not the MD5 of the content" in {
+    val digest = ByteString(1, 2, 3)
+    ContentMd5.verify(List(RawHeader("ETag", s"$md5-2")), digest, "payload") shouldBe None
+    ContentMd5.verify(List(RawHeader("ETag", md5), RawHeader("x-amz-server-side-encryption", "aws:kms")),
+                      digest,
+                      "payload") shouldBe None
+    ContentMd5.verify(List(RawHeader("ETag", md5), RawHeader("x-amz-server-side-encryption", "AES256")),
+                      digest,
+                      "payload") shouldBe defined
+  }
+
+  it should "compute the MD5 of a request payload while it is sent" in {
+    val request = HttpRequest(HttpMethods.PUT)
+      .withEntity(HttpEntity(ContentTypes.`application/octet-stream`, 3, Source(payload)))
+
+    val (digested, Some(digest)) = ContentMd5.ofPayload(request)
+    digested.entity.contentLengthOption shouldBe Some(3)
+    digest.isCompleted shouldBe false
+
+    digested.entity.dataBytes.runWith(Sink.ignore).futureValue
+    auth.encodeHex(digest.futureValue) shouldBe md5
+  }
+}
@@ -35,7 +35,7 @@ class DiskBufferSpec(_system: ActorSystem)
   "DiskBuffer" should
   "emit a chunk on its output containing the concatenation of all input values" in {
     val result = Source(Vector(ByteString(1, 2, 3, 4, 5), ByteString(6, 7, 8, 9, 10, 11, 12), ByteString(13, 14)))
-      .via(new DiskBuffer(1, 200, None))
+      .via(new DiskBuffer(200, None))
       .runWith(Sink.seq)
       .futureValue
 
@@ -49,7 +49,7 @@ class DiskBufferSpec(_system: ActorSystem)
     EventFilter[BufferOverflowException](occurrences = 1) intercept {
       whenReady(
         Source(Vector(ByteString(1, 2, 3, 4, 5), ByteString(6, 7, 8, 9, 10, 11, 12), ByteString(13, 14)))
-          .via(new DiskBuffer(1, 10, None))
+          .via(new DiskBuffer(10, None))
           .runWith(Sink.seq)
           .failed
       ) { e =>
@@ -58,22 +58,23 @@ class DiskBufferSpec(_system: ActorSystem)
     }
   }
 
-  it should "delete its temp file after N materializations" in {
+  it should "keep its temp file until the chunk is released" in {
     val tmpDir = Files.createTempDirectory("DiskBufferSpec").toFile()
     val before = tmpDir.list().size
-    val source = Source(Vector(ByteString(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14)))
-      .via(new DiskBuffer(2, 200, Some(tmpDir.toPath)))
+    val chunk = Source(Vector(ByteString(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14)))
+      .via(new DiskBuffer(200, Some(tmpDir.toPath)))
       .runWith(Sink.seq)
       .futureValue
       .head
-      .data
 
     tmpDir.list().size should be(before + 1)
 
-    source.runWith(Sink.ignore).futureValue
+    chunk.data.runWith(Sink.ignore).futureValue
+    chunk.data.runWith(Sink.ignore).futureValue
+    chunk.data.runWith(Sink.ignore).futureValue
     tmpDir.list().size should be(before + 1)
 
-    source.runWith(Sink.ignore).futureValue
+    chunk.release()
     eventually {
       tmpDir.list().size should be(before)
     }
@@ -478,4 +478,21 @@ class HttpRequestsSpec extends FlatSpec with Matchers with ScalaFutures {
     request.uri.queryString() should equal(None)
     request.method should equal(HttpMethods.HEAD)
   }
+
+  it should "create multi-object delete request" in {
+    implicit val settings: S3Settings = getSettings()
+
+    val request = HttpRequests.deleteObjectsRequest("bucket", List("a/b.txt", "c&d.txt"))
+
+    request.method should equal(HttpMethods.POST)
+    request.uri.authority.host.toString should equal("bucket.s3.amazonaws.com")
+    request.uri.rawQueryString should equal(Some("delete"))
+    val body = request.entity.asInstanceOf[HttpEntity.Strict].data
+    body.utf8String should equal(
+      "<Delete><Quiet>false</Quiet><Object><Key>a/b.txt</Key></Object><Object><Key>c&amp;d.txt</Key></Object></Delete>"
+    )
+    val expectedMd5 = java.util.Base64.getEncoder
+      .encodeToString(java.security.MessageDigest.getInstance("MD5").digest(body.toArray))
+    request.headers should contain(RawHeader("Content-MD5", expectedMd5))
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.{Flow, Sink, Source}
+import akka.stream.{ActorMaterializer, ActorMaterializerSettings}
+import akka.testkit.TestKit
+import akka.util.ByteString
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.{BeforeAndAfterAll, FlatSpecLike, Matchers}
+
+class InFlightBudgetSpec(_system: ActorSystem)
+    extends TestKit(_system)
+    with FlatSpecLike
+    with Matchers
+    with BeforeAndAfterAll
+    with ScalaFutures {
+
+  def this() = this(ActorSystem("InFlightBudgetSpec"))
+  implicit val materializer = ActorMaterializer(ActorMaterializerSettings(system).withDebugLogging(true))
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  "InFlightBudget" should "grant requests in order once enough bytes are released" in {
+    val budget = new InFlightBudget(100)
+    budget.acquire(60).isCompleted shouldBe true
+    val second = budget.acquire(60)
+    val third = budget.acquire(10)
+    second.isCompleted shouldBe false
+    third.isCompleted shouldBe false
+
+    budget.release(60)
+    second.isCompleted shouldBe true
+    third.isCompleted shouldBe true
+  }
+
+  it should "grant a request larger than the budget once everything is released" in {
+    val budget = new InFlightBudget(100)
+    budget.acquire(1).isCompleted shouldBe true
+    val large = budget.acquire(500)
+    large.isCompleted shouldBe false
+
+    budget.release(1)
+    large.isCompleted shouldBe true
+    budget.acquire(1).isCompleted shouldBe false
+  }
+
+  it should "keep the size of a buffered part until its chunk is released" in {
+    val budget = new InFlightBudget(100)
+    val chunk = Source(Vector(ByteString(1, 2, 3), ByteString(4, 5)))
+      .via(budget.reserving(100)(Flow.fromGraph(new MemoryBuffer(100))))
+      .runWith(Sink.head)
+      .futureValue
+
+    chunk.size shouldBe 5
+    budget.acquire(95).isCompleted shouldBe true
+    val waiting = budget.acquire(5)
+    waiting.isCompleted shouldBe false
+
+    chunk.release()
+    waiting.isCompleted shouldBe true
+  }
+
+  it should "return no more than the whole budget for a part reserving more than it" in {
+    val budget = new InFlightBudget(100)
+    val chunk = Source(Vector(ByteString(1, 2, 3), ByteString(4, 5)))
+      .via(budget.reserving(500)(Flow.fromGraph(new MemoryBuffer(500))))
+      .runWith(Sink.head)
+      .futureValue
+
+    budget.acquire(95).isCompleted shouldBe true
+    chunk.release()
+    budget.acquire(5).isCompleted shouldBe true
+    budget.acquire(1).isCompleted shouldBe false
+  }
+
+  it should "not exceed its size when more bytes are released than acquired" in {
+    val budget = new InFlightBudget(100)
+    budget.release(50)
+    budget.acquire(100).isCompleted shouldBe true
+    budget.acquire(1).isCompleted shouldBe false
+  }
+
+  it should "return the reserved bytes when the part's stream fails" in {
+    val budget = new InFlightBudget(100)
+    Source
+      .failed[ByteString](new RuntimeException("boom"))
+      .via(budget.reserving(100)(Flow.fromGraph(new MemoryBuffer(100))))
+      .runWith(Sink.ignore)
+      .failed
+      .futureValue
+
+    budget.acquire(100).futureValue
+  }
+}
@@ -9,7 +9,7 @@ import java.time.Instant
 import akka.actor.ActorSystem
 import akka.http.scaladsl.model.{MediaTypes, _}
 import akka.stream.{ActorMaterializer, ActorMaterializerSettings}
-import akka.stream.alpakka.s3.{ListBucketResultCommonPrefixes, ListBucketResultContents}
+import akka.stream.alpakka.s3.{DeleteObjectResult, ListBucketResultCommonPrefixes, ListBucketResultContents}
 import akka.testkit.TestKit
 import org.scalatest.concurrent.ScalaFutures
 import org.scalatest.{BeforeAndAfterAll, FlatSpecLike, Matchers}
@@ -204,4 +204,34 @@ class MarshallingSpec(_system: ActorSystem)
                                                   "5b27a21a97fcf8a7004dd1d906e7a5ba")
   }
 
+  it should "parse DeleteResult" in {
+    val xmlString =
+      """<?xml version="1.0" encoding="UTF-8"?>
+        |<DeleteResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+        |  <Deleted>
+        |    <Key>sample1.txt</Key>
+        |  </Deleted>
+        |  <Deleted>
+        |    <Key>sample2.txt</Key>
+        |    <VersionId>3</VersionId>
+        |  </Deleted>
+        |  <Error>
+        |    <Key>sample3.txt</Key>
+        |    <Code>AccessDenied</Code>
+        |    <Message>Access Denied</Message>
+        |  </Error>
+        |</DeleteResult>""".stripMargin
+
+    val entity = HttpEntity(MediaTypes.`application/xml` withCharset HttpCharsets.`UTF-8`, xmlString)
+
+    val result = Marshalling.deleteObjectsResultUnmarshaller(entity)
+
+    result.futureValue shouldEqual DeleteObjectsResult(
+      List(
+        DeleteObjectResult("sample1.txt", None, None, None),
+        DeleteObjectResult("sample2.txt", Some("3"), None, None),
+        DeleteObjectResult("sample3.txt", None, Some("AccessDenied"), Some("Access Denied"))
+      )
+    )
+  }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.s3.impl
+
+import java.nio.BufferOverflowException
+import java.nio.file.Files
+
+import akka.actor.ActorSystem
+import akka.stream.alpakka.s3.PooledBufferType
+import akka.stream.scaladsl.{Sink, Source}
+import akka.stream.{ActorMaterializer, ActorMaterializerSettings}
+import akka.testkit.{EventFilter, TestKit}
+import akka.util.ByteString
+import org.scalatest.concurrent.{Eventually, ScalaFutures}
+import org.scalatest.time.{Millis, Seconds, Span}
+import org.scalatest.{BeforeAndAfterAll, FlatSpecLike, Matchers}
+
+class PooledBufferSpec(_system: ActorSystem)
+    extends TestKit(_system)
+    with FlatSpecLike
+    with Matchers
+    with BeforeAndAfterAll
+    with ScalaFutures
+    with Eventually {
+
+  def this() = this(ActorSystem("PooledBufferSpec"))
+
+  implicit val defaultPatience =
+    PatienceConfig(timeout = Span(2, Seconds), interval = Span(200, Millis))
+
+  implicit val materializer = ActorMaterializer(ActorMaterializerSettings(system).withDebugLogging(true))
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  "PooledBuffer" should
+  "emit a chunk on its output containing the concatenation of all input values" in {
+    val pool = new SlabPool(PooledBufferType(1), 200)
+    val result = Source(Vector(ByteString(1, 2, 3, 4, 5), ByteString(6, 7, 8, 9, 10, 11, 12), ByteString(13, 14)))
+      .via(new PooledBuffer(pool))
+      .runWith(Sink.seq)
+      .futureValue
+
+    result should have size (1)
+    val chunk = result.head
+    chunk.size should be(14)
+    chunk.data.runWith(Sink.seq).futureValue should be(Seq(ByteString(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14)))
+  }
+
+  it should "emit a chunk read from a memory-mapped slab" in {
+    val tmpDir = Files.createTempDirectory("PooledBufferSpec")
+    val pool = new SlabPool(PooledBufferType.memoryMapped(1, tmpDir), 200)
+    val chunk = Source(Vector(ByteString(1, 2, 3), ByteString(4, 5)))
+      .via(new PooledBuffer(pool))
+      .runWith(Sink.head)
+      .futureValue
+
+    chunk.data.runWith(Sink.seq).futureValue should be(Seq(ByteString(1, 2, 3, 4, 5)))
+    tmpDir.toFile.list() should have size 1
+    pool.close()
+  }
+
+  it should "fail if more than the slab size is fed into it" in {
+    val pool = new SlabPool(PooledBufferType(1), 10)
+    EventFilter[BufferOverflowException](occurrences = 1) intercept {
+      whenReady(
+        Source(Vector(ByteString(1, 2, 3, 4, 5), ByteString(6, 7, 8, 9, 10, 11, 12), ByteString(13, 14)))
+          .via(new PooledBuffer(pool))
+          .runWith(Sink.seq)
+          .failed
+      ) { e =>
+        e shouldBe a[BufferOverflowException]
+      }
+    }
+    // the slab was returned to the pool
+    pool.acquire().futureValue.capacity() should be(10)
+  }
+
+  it should "keep its slab however often the chunk is read until it is released" in {
+    val pool = new SlabPool(PooledBufferType(1), 200)
+    val first = Source
+      .single(ByteString(1, 2, 3))
+      .via(new PooledBuffer(pool))
+      .runWith(Sink.head)
+      .futureValue
+
+    val second = Source
+      .single(ByteString(4, 5, 6))
+      .via(new PooledBuffer(pool))
+      .runWith(Sink.head)
+
+    first.data.runWith(Sink.ignore).futureValue
+    first.data.runWith(Sink.ignore).futureValue
+    first.data.runWith(Sink.fold(ByteString.empty)(_ ++ _)).futureValue should be(ByteString(1, 2, 3))
+    second.isCompleted should be(false)
+
+    first.release()
+    second.futureValue.data.runWith(Sink.fold(ByteString.empty)(_ ++ _)).futureValue should be(ByteString(4, 5, 6))
+  }
+
+  it should "return its slab when released" in {
+    val pool = new SlabPool(PooledBufferType(1), 200)
+    val first = Source
+      .single(ByteString(1, 2, 3))
+      .via(new PooledBuffer(pool))
+      .runWith(Sink.head)
+      .futureValue
+
+    val second = Source
+      .single(ByteString(4, 5, 6))
+      .via(new PooledBuffer(pool))
+      .runWith(Sink.head)
+
+    first.release()
+    first.release()
+    eventually {
+      second.isCompleted should be(true)
+    }
+    pool.acquire().isCompleted should be(false)
+  }
+
+  "SlabPools" should "drop the pools of other slab sizes once none of their slabs is in use" in {
+    val bufferType = PooledBufferType(3)
+    val pools = SlabPools(system)
+    val small = pools.pool(bufferType, 100)
+    val slab = small.acquire().futureValue
+
+    pools.pool(bufferType, 200)
+    pools.pool(bufferType, 100) should be theSameInstanceAs small
+
+    small.release(slab)
+    pools.pool(bufferType, 300)
+    pools.pool(bufferType, 100) should not be theSameInstanceAs(small)
+  }
+}
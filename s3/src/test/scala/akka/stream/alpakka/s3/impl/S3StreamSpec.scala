@@ -152,6 +152,16 @@ class S3StreamSpec(_system: ActorSystem)
     partitions should equal(List(CopyPartition(1, sourceLocation)))
   }
 
+  "adaptiveChunkSize" should "double the chunk size every 1000 parts up to 512 MiB" in {
+    val chunkSize = S3Stream.MinChunkSize
+    S3Stream.adaptiveChunkSize(chunkSize, 1) shouldBe chunkSize
+    S3Stream.adaptiveChunkSize(chunkSize, 1000) shouldBe chunkSize
+    S3Stream.adaptiveChunkSize(chunkSize, 1001) shouldBe chunkSize * 2
+    S3Stream.adaptiveChunkSize(chunkSize, 3001) shouldBe chunkSize * 8
+    S3Stream.adaptiveChunkSize(chunkSize, 10000) shouldBe 512 * 1024 * 1024
+    S3Stream.adaptiveChunkSize(Int.MaxValue, 10000) shouldBe Int.MaxValue
+  }
+
   "processCheckIfExistsResponse" should "convert head response to BucketAccess" in {
     def bucketStatusPreparation(response: HttpResponse): Future[BucketAccess] = {
       val testedMethod = PrivateMethod[Future[BucketAccess]]('processCheckIfExistsResponse)
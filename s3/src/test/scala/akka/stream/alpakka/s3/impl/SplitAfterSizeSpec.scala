@@ -125,6 +125,25 @@ class SplitAfterSizeSpec(_system: ActorSystem)
     )
   }
 
+  it should "grow the chunk sizes with the part number" in assertAllStagesStopped {
+    Source(Vector(ByteString(bytes(1, 32))))
+      .via(
+        SplitAfterSize
+          .withPartSizes(part => 4 * part, part => 8 * part)(Flow[ByteString])
+          .prefixAndTail(10)
+          .map { case (prefix, tail) => prefix }
+          .concatSubstreams
+      )
+      .runWith(Sink.seq)
+      .futureValue should be(
+      Seq(
+        Seq(ByteString(bytes(1, 8))),
+        Seq(ByteString(bytes(9, 24))),
+        Seq(ByteString(bytes(25, 32)))
+      )
+    )
+  }
+
   def bytes(start: Byte, end: Byte): Array[Byte] = (start to end).map(_.toByte).toArray[Byte]
 
 }
@@ -179,4 +179,28 @@ class CanonicalRequestSpec extends FlatSpec with Matchers {
         |testhash""".stripMargin
     )
   }
+
+  it should "join repeated headers and collapse whitespace in header values" in {
+    val req = HttpRequest(
+      HttpMethods.GET,
+      Uri("https://mytestbucket.s3.amazonaws.com/test")
+    ).withHeaders(
+      RawHeader("x-amz-meta-b", "  second\t value "),
+      RawHeader("x-amz-content-sha256", "testhash"),
+      RawHeader("X-Amz-Meta-A", "first  value"),
+      RawHeader("x-amz-meta-b", "third")
+    )
+    val canonical = CanonicalRequest.from(req)
+    canonical.canonicalString should equal(
+      """GET
+        |/test
+        |
+        |x-amz-content-sha256:testhash
+        |x-amz-meta-a:first value
+        |x-amz-meta-b:second value,third
+        |
+        |x-amz-content-sha256;x-amz-meta-a;x-amz-meta-b
+        |testhash""".stripMargin
+    )
+  }
 }
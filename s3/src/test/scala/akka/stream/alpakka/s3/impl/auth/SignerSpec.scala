@@ -7,9 +7,11 @@ package akka.stream.alpakka.s3.impl.auth
 import java.time.{LocalDateTime, ZoneOffset, ZonedDateTime}
 
 import akka.actor.ActorSystem
-import akka.http.scaladsl.model.{HttpMethods, HttpRequest}
-import akka.http.scaladsl.model.headers.{`Raw-Request-URI`, Host, RawHeader}
-import akka.stream.scaladsl.Sink
+import akka.http.scaladsl.model.{ContentTypes, HttpEntity, HttpMethods, HttpRequest}
+import akka.http.scaladsl.model.headers.{`Content-Encoding`, `Raw-Request-URI`, Host, HttpEncoding, RawHeader}
+import akka.stream.alpakka.s3.PayloadSigning
+import akka.stream.scaladsl.{Sink, Source}
+import akka.util.ByteString
 import akka.stream.{ActorMaterializer, ActorMaterializerSettings}
 import akka.testkit.TestKit
 import software.amazon.awssdk.auth.credentials._
@@ -143,4 +145,85 @@ class SignerSpec(_system: ActorSystem)
       )
     }
   }
+
+  it should "not hash the payload of unsigned requests over HTTPS" in {
+    val req = HttpRequest(HttpMethods.PUT)
+      .withUri("https://examplebucket.s3.amazonaws.com/chunkObject.txt")
+      .withEntity(HttpEntity(ContentTypes.`application/octet-stream`, 3, Source.single(ByteString("abc"))))
+
+    val date = LocalDateTime.of(2015, 8, 30, 12, 36, 0).atZone(ZoneOffset.UTC)
+    val srFuture = Signer.signedRequest(req, signingKey(date), PayloadSigning.Unsigned).runWith(Sink.head)
+
+    whenReady(srFuture) { signedRequest =>
+      signedRequest.getHeader("x-amz-content-sha256").get.value should equal("UNSIGNED-PAYLOAD")
+      signedRequest.entity should be theSameInstanceAs req.entity
+    }
+  }
+
+  it should "sign the payload of unsigned requests over HTTP" in {
+    val req = HttpRequest(HttpMethods.PUT)
+      .withUri("http://examplebucket.s3.amazonaws.com/chunkObject.txt")
+      .withEntity(HttpEntity(ContentTypes.`application/octet-stream`, ByteString("abc")))
+
+    val date = LocalDateTime.of(2015, 8, 30, 12, 36, 0).atZone(ZoneOffset.UTC)
+    val srFuture = Signer.signedRequest(req, signingKey(date), PayloadSigning.Unsigned).runWith(Sink.head)
+
+    whenReady(srFuture) { signedRequest =>
+      signedRequest.getHeader("x-amz-content-sha256").get.value should equal(
+        "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"
+      )
+    }
+  }
+
+  it should "add a Content-MD5 header computed with the payload hash" in {
+    val req = HttpRequest(HttpMethods.PUT)
+      .withUri("https://examplebucket.s3.amazonaws.com/chunkObject.txt")
+      .withEntity(HttpEntity(ContentTypes.`application/octet-stream`, ByteString("abc")))
+
+    val date = LocalDateTime.of(2015, 8, 30, 12, 36, 0).atZone(ZoneOffset.UTC)
+    val srFuture =
+      Signer.signedRequest(req, signingKey(date), PayloadSigning.Signed, contentMd5 = true).runWith(Sink.head)
+
+    whenReady(srFuture) { signedRequest =>
+      signedRequest.getHeader("Content-MD5").get.value should equal("kAFQmDzST7DWlj99KOF/cg==")
+      signedRequest.getHeader("x-amz-content-sha256").get.value should equal(
+        "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"
+      )
+      signedRequest.getHeader("Authorization").get.value should include("content-md5")
+    }
+  }
+
+  it should "not hash payloads that are not signed upfront for a Content-MD5 header" in {
+    val req = HttpRequest(HttpMethods.PUT)
+      .withUri("https://examplebucket.s3.amazonaws.com/chunkObject.txt")
+      .withEntity(HttpEntity(ContentTypes.`application/octet-stream`, 3, Source.single(ByteString("abc"))))
+
+    Signer.hashesPayload(req, PayloadSigning.Signed) shouldBe true
+    Signer.hashesPayload(req, PayloadSigning.Unsigned) shouldBe false
+    Signer.hashesPayload(req, PayloadSigning.StreamingSigned) shouldBe false
+    Signer.hashesPayload(req.withUri("http://examplebucket.s3.amazonaws.com/chunkObject.txt"),
+                         PayloadSigning.Unsigned) shouldBe true
+  }
+
+  it should "encode the payload of streaming signed requests in signed chunks" in {
+    val payload = ByteString("a" * 1024)
+    val req = HttpRequest(HttpMethods.PUT)
+      .withUri("https://examplebucket.s3.amazonaws.com/chunkObject.txt")
+      .withEntity(HttpEntity(ContentTypes.`application/octet-stream`, payload.length.toLong, Source.single(payload)))
+
+    val date = LocalDateTime.of(2015, 8, 30, 12, 36, 0).atZone(ZoneOffset.UTC)
+    val srFuture = Signer.signedRequest(req, signingKey(date), PayloadSigning.StreamingSigned).runWith(Sink.head)
+
+    whenReady(srFuture) { signedRequest =>
+      signedRequest.getHeader("x-amz-content-sha256").get.value should equal("STREAMING-AWS4-HMAC-SHA256-PAYLOAD")
+      signedRequest.getHeader("x-amz-decoded-content-length").get.value should equal("1024")
+      signedRequest.header[`Content-Encoding`].value.encodings should contain(HttpEncoding.custom("aws-chunked"))
+      signedRequest.entity.contentLengthOption.value should equal(AwsChunkedEncoding.encodedLength(1024, 64 * 1024))
+
+      val encoded = signedRequest.entity.dataBytes.runWith(Sink.fold(ByteString.empty)(_ ++ _)).futureValue
+      encoded.length.toLong should equal(signedRequest.entity.contentLengthOption.value)
+      encoded.utf8String should startWith("400;chunk-signature=")
+      encoded.utf8String should endWith("\r\n\r\n")
+    }
+  }
 }
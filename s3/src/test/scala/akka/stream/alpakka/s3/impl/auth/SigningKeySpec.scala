@@ -36,4 +36,19 @@ class SigningKeySpec extends FlatSpec with Matchers {
       "5d672d79c15b13162d9279b0855cfba6789a8edb4c82c400e06b5924a6f2b5d7"
     )
   }
+
+  it should "reuse the derived key for the same credentials and scope" in {
+    val laterRequestDate = ZonedDateTime.of(2015, 8, 30, 12, 0, 0, 0, ZoneId.of("UTC"))
+    val laterKey =
+      SigningKey(laterRequestDate, credentials, CredentialScope(laterRequestDate.toLocalDate, Region.US_EAST_1, "iam"))
+
+    laterKey.key should be theSameInstanceAs signingKey.key
+  }
+
+  it should "derive a new key for another date" in {
+    val nextDay = ZonedDateTime.of(2015, 8, 31, 1, 2, 3, 4, ZoneId.of("UTC"))
+    val nextDayKey = SigningKey(nextDay, credentials, CredentialScope(nextDay.toLocalDate, Region.US_EAST_1, "iam"))
+
+    nextDayKey.key.getEncoded should not equal signingKey.key.getEncoded
+  }
 }
@@ -105,6 +105,7 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
   val listDelimiter = "/"
   val listCommonPrefix = "commonPrefix/"
   val listKey = "testingKey.txt"
+  val listCommonPrefixKey = s"${listCommonPrefix}nestedKey.txt"
 
   val sseCustomerKey = "key"
   val sseCustomerMd5Key = "md5"
@@ -122,6 +123,18 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
         )
       )
 
+  def mockDownloadWithContentMd5(): Unit =
+    mock
+      .register(
+        get(urlEqualTo(s"/$bucketKey")).willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("ETag", s""""$etag"""")
+            .withHeader("Content-Length", body.length.toString)
+            .withBody(body)
+        )
+      )
+
   def mockDownload(region: Region): Unit =
     mock
       .register(
@@ -231,6 +244,25 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
           )
       )
 
+  def mockParallelDownload(partSize: Int): Unit = {
+    mockHead(body.length.toLong)
+    body.getBytes.grouped(partSize).zipWithIndex.foreach {
+      case (part, index) =>
+        val start = index * partSize
+        mock.register(
+          get(urlEqualTo(s"/$bucketKey"))
+            .withHeader("Range", new EqualToPattern(s"bytes=$start-${start + part.length - 1}"))
+            .withHeader("If-Match", new EqualToPattern(s""""$etag""""))
+            .willReturn(
+              aResponse()
+                .withStatus(206)
+                .withHeader("ETag", s""""$etag"""")
+                .withBody(part)
+            )
+        )
+    }
+  }
+
   def mockListBucket(): Unit =
     mock
       .register(
@@ -309,6 +341,33 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
         )
       )
 
+  def mockListBucketParallel(): Unit = {
+    mockListBucketAndCommonPrefixes()
+    mock
+      .register(
+        get(urlEqualTo(s"/?list-type=2&prefix=$listCommonPrefix")).willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/xml")
+            .withBody(s"""|<?xml version="1.0" encoding="UTF-8"?>
+                          |<ListBucketResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                          |    <Name>bucket</Name>
+                          |    <Prefix>$listCommonPrefix</Prefix>
+                          |    <KeyCount>1</KeyCount>
+                          |    <MaxKeys>1000</MaxKeys>
+                          |    <IsTruncated>false</IsTruncated>
+                          |    <Contents>
+                          |        <Key>$listCommonPrefixKey</Key>
+                          |        <LastModified>2009-10-12T17:50:30.000Z</LastModified>
+                          |        <ETag>&quot;fba9dede5f27731c9771645a39863328&quot;</ETag>
+                          |        <Size>434234</Size>
+                          |        <StorageClass>STANDARD</StorageClass>
+                          |    </Contents>
+                          |</ListBucketResult>""".stripMargin)
+        )
+      )
+  }
+
   def mockListBucketAndCommonPrefixesVersion1(): Unit =
     mock
       .register(
@@ -337,6 +396,57 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
         )
       )
 
+  def mockPutObject(key: String, expectedBody: String): Unit =
+    mock.register(
+      put(urlEqualTo(s"/$key"))
+        .withRequestBody(equalTo(expectedBody))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("x-amz-request-id", "5A37448A37622243")
+            .withHeader("ETag", "\"" + etag + "\"")
+        )
+    )
+
+  /** Answers putting the object and its first part with the ETag of [[body]], whatever is sent. */
+  def mockUploadsAnsweringETagOfBody(): Unit = {
+    mock.register(
+      put(urlEqualTo(s"/$bucketKey"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("x-amz-request-id", "5A37448A37622243")
+            .withHeader("ETag", "\"" + etag + "\"")
+        )
+    )
+
+    mock.register(
+      post(urlEqualTo(s"/$bucketKey?uploads")).willReturn(
+        aResponse()
+          .withStatus(200)
+          .withHeader("x-amz-id-2", "Uuag1LuByRx9e6j5Onimru9pO4ZVKnJ2Qz7/C1NPcfTWAtRPfTaOFg==")
+          .withHeader("x-amz-request-id", "656c76696e6727732072657175657374")
+          .withBody(s"""<?xml version="1.0" encoding="UTF-8"?>
+                       |<InitiateMultipartUploadResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                       |  <Bucket>$bucket</Bucket>
+                       |  <Key>$bucketKey</Key>
+                       |  <UploadId>$uploadId</UploadId>
+                       |</InitiateMultipartUploadResult>""".stripMargin)
+      )
+    )
+
+    mock.register(
+      put(urlEqualTo(s"/$bucketKey?partNumber=1&uploadId=$uploadId"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("x-amz-id-2", "Zn8bf8aEFQ+kBnGPBc/JaAf9SoWM68QDPS9+SyFwkIZOHUG2BiRLZi5oXw4cOCEt")
+            .withHeader("x-amz-request-id", "5A37448A37622243")
+            .withHeader("ETag", "\"" + etag + "\"")
+        )
+    )
+  }
+
   def mockUpload(): Unit = mockUpload(body)
   def mockUpload(expectedBody: String): Unit = {
     mock
@@ -388,6 +498,74 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
     )
   }
 
+  def mockResumedUpload(uploadedPart: String, expectedBody: String): Unit = {
+    mock.register(
+      get(urlEqualTo(s"/$bucketKey?uploadId=$uploadId"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/xml; charset=UTF-8")
+            .withHeader("x-amz-id-2", "Uuag1LuByRx9e6j5Onimru9pO4ZVKnJ2Qz7/C1NPcfTWAtRPfTaOFg==")
+            .withHeader("x-amz-request-id", "656c76696e6727732072657175657374")
+            .withBody(s"""<?xml version="1.0" encoding="UTF-8"?>
+                         |<ListPartsResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                         |  <Bucket>$bucket</Bucket>
+                         |  <Key>$bucketKey</Key>
+                         |  <UploadId>$uploadId</UploadId>
+                         |  <PartNumberMarker>0</PartNumberMarker>
+                         |  <NextPartNumberMarker>3</NextPartNumberMarker>
+                         |  <MaxParts>1000</MaxParts>
+                         |  <IsTruncated>false</IsTruncated>
+                         |  <Part>
+                         |    <PartNumber>1</PartNumber>
+                         |    <LastModified>2010-11-10T20:48:34.000Z</LastModified>
+                         |    <ETag>"$etagSSE"</ETag>
+                         |    <Size>${uploadedPart.length}</Size>
+                         |  </Part>
+                         |  <Part>
+                         |    <PartNumber>3</PartNumber>
+                         |    <LastModified>2010-11-10T20:48:35.000Z</LastModified>
+                         |    <ETag>"7778aef83f66abc1fa1e8477f296d394"</ETag>
+                         |    <Size>10485760</Size>
+                         |  </Part>
+                         |</ListPartsResult>""".stripMargin)
+        )
+    )
+
+    mock.register(
+      put(urlEqualTo(s"/$bucketKey?partNumber=2&uploadId=$uploadId"))
+        .withRequestBody(matching(expectedBody))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("x-amz-id-2", "Zn8bf8aEFQ+kBnGPBc/JaAf9SoWM68QDPS9+SyFwkIZOHUG2BiRLZi5oXw4cOCEt")
+            .withHeader("x-amz-request-id", "5A37448A37622243")
+            .withHeader("ETag", "\"" + etag + "\"")
+        )
+    )
+
+    mock.register(
+      post(urlEqualTo(s"/$bucketKey?uploadId=$uploadId"))
+        .withRequestBody(containing("CompleteMultipartUpload"))
+        .withRequestBody(containing(etagSSE))
+        .withRequestBody(containing(etag))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/xml; charset=UTF-8")
+            .withHeader("x-amz-id-2", "Zn8bf8aEFQ+kBnGPBc/JaAf9SoWM68QDPS9+SyFwkIZOHUG2BiRLZi5oXw4cOCEt")
+            .withHeader("x-amz-request-id", "5A37448A3762224333")
+            .withBody(s"""<?xml version="1.0" encoding="UTF-8"?>
+                         |<CompleteMultipartUploadResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                         |  <Location>$url</Location>
+                         |  <Bucket>$bucket</Bucket>
+                         |  <Key>$bucketKey</Key>
+                         |  <ETag>"$etag"</ETag>
+                         |</CompleteMultipartUploadResult>""".stripMargin)
+        )
+    )
+  }
+
   def mockUploadWithInternalError(expectedBody: String): Unit = {
     mock
       .register(
@@ -833,6 +1011,81 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
     )
   }
 
+  def mockDeleteObjects(deletedKey: String, failedKey: String): Unit =
+    mock.register(
+      post(urlEqualTo("/?delete"))
+        .withHeader("Content-MD5", matching(".+"))
+        .withRequestBody(containing(s"<Key>$deletedKey</Key>"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/xml")
+            .withBody(s"""|<?xml version="1.0" encoding="UTF-8"?>
+                          |<DeleteResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                          |  <Deleted>
+                          |    <Key>$deletedKey</Key>
+                          |  </Deleted>
+                          |  <Error>
+                          |    <Key>$failedKey</Key>
+                          |    <Code>AccessDenied</Code>
+                          |    <Message>Access Denied</Message>
+                          |  </Error>
+                          |</DeleteResult>""".stripMargin)
+        )
+    )
+
+  /** Lists two keys with the prefix, and deletes them in one request unless `failedKey` is one of them. */
+  def mockDeleteObjectsByPrefix(failedKey: Option[String]): Unit = {
+    val keys = List(s"$listPrefix/a.txt", s"$listPrefix/b.txt")
+    def contents(key: String) =
+      s"""|    <Contents>
+          |        <Key>$key</Key>
+          |        <LastModified>2009-10-12T17:50:30.000Z</LastModified>
+          |        <ETag>&quot;fba9dede5f27731c9771645a39863328&quot;</ETag>
+          |        <Size>1</Size>
+          |        <StorageClass>STANDARD</StorageClass>
+          |    </Contents>""".stripMargin
+    mock.register(
+      get(urlEqualTo(s"/?list-type=2&prefix=$listPrefix")).willReturn(
+        aResponse()
+          .withStatus(200)
+          .withHeader("Content-Type", "application/xml")
+          .withBody(s"""|<?xml version="1.0" encoding="UTF-8"?>
+                        |<ListBucketResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                        |    <Name>bucket</Name>
+                        |    <Prefix>$listPrefix</Prefix>
+                        |    <KeyCount>2</KeyCount>
+                        |    <MaxKeys>1000</MaxKeys>
+                        |    <IsTruncated>false</IsTruncated>
+                        |${keys.map(contents).mkString}
+                        |</ListBucketResult>""".stripMargin)
+      )
+    )
+
+    val body = s"<Delete><Quiet>false</Quiet>${keys.map(key => s"<Object><Key>$key</Key></Object>").mkString}</Delete>"
+    val contentMd5 = java.util.Base64.getEncoder
+      .encodeToString(java.security.MessageDigest.getInstance("MD5").digest(body.getBytes("UTF-8")))
+    val results = keys.map { key =>
+      if (failedKey.contains(key))
+        s"<Error><Key>$key</Key><Code>AccessDenied</Code><Message>Access Denied</Message></Error>"
+      else s"<Deleted><Key>$key</Key></Deleted>"
+    }
+    mock.register(
+      post(urlEqualTo("/?delete"))
+        .withHeader("Content-MD5", new EqualToPattern(contentMd5))
+        .withRequestBody(equalTo(body))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/xml")
+            .withBody(s"""|<?xml version="1.0" encoding="UTF-8"?>
+                          |<DeleteResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                          |  ${results.mkString}
+                          |</DeleteResult>""".stripMargin)
+        )
+    )
+  }
+
   def mockMakingBucket(): Unit =
     mock.register(
       put(urlEqualTo("/")).willReturn(
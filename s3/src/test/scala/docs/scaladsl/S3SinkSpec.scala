@@ -6,11 +6,14 @@ package docs.scaladsl
 
 import akka.NotUsed
 import akka.stream.alpakka.s3.headers.{CannedAcl, ServerSideEncryption}
-import akka.stream.alpakka.s3.scaladsl.{S3, S3ClientIntegrationSpec, S3WireMockBase}
-import akka.stream.alpakka.s3.{FailedUpload, MultipartUploadResult, S3Headers}
-import akka.stream.scaladsl.{Sink, Source}
+import akka.stream.alpakka.s3.scaladsl.{S3, S3ClientIntegrationSpec, S3TransferManager, S3WireMockBase}
+import akka.stream.alpakka.s3._
+import akka.stream.scaladsl.{Keep, Sink, Source}
 import akka.util.ByteString
+import com.github.tomakehurst.wiremock.client.WireMock.{getRequestedFor, urlEqualTo}
+import com.github.tomakehurst.wiremock.matching.EqualToPattern
 
+import scala.collection.immutable
 import scala.concurrent.Future
 
 class S3SinkSpec extends S3WireMockBase with S3ClientIntegrationSpec {
@@ -48,6 +51,84 @@ class S3SinkSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
   }
 
+  it should "resume an interrupted upload after the parts S3 holds" in {
+    val uploadedPart = "already uploaded"
+    mockResumedUpload(uploadedPart, body)
+
+    // the complete data of the object, of which S3 holds the first part
+    val file: Source[ByteString, NotUsed] =
+      Source(List(ByteString(uploadedPart.take(7)), ByteString(uploadedPart.drop(7) + body)))
+
+    //#resumable-upload
+    // persists the upload id and the parts, e.g. to a database
+    val checkpoints: Sink[MultipartUploadCheckpoint, NotUsed] =
+      Sink.actorRef(testActor, onCompleteMessage = "uploaded")
+
+    val result: Future[MultipartUploadResult] =
+      file.runWith(S3.resumableMultipartUpload(bucket, bucketKey, checkpoints, uploadId = Some(uploadId)))
+    //#resumable-upload
+
+    result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
+    expectMsg(MultipartUploadCheckpoint(bucket, bucketKey, uploadId, 2, etag, body.length.toLong))
+    expectMsg("uploaded")
+  }
+
+  it should "list the parts of an upload" in {
+    mockResumedUpload("already uploaded", body)
+
+    //#list-parts
+    val parts: Future[immutable.Seq[MultipartUploadCheckpoint]] =
+      S3.listParts(bucket, bucketKey, uploadId).runWith(Sink.seq)
+    //#list-parts
+
+    parts.futureValue.map(p => (p.partNumber, p.eTag)) shouldBe Seq(
+      (1, etagSSE),
+      (3, "7778aef83f66abc1fa1e8477f296d394")
+    )
+  }
+
+  it should "pass custom headers when listing the parts of an upload" in {
+    mockResumedUpload("already uploaded", body)
+
+    val headers = S3Headers().withCustomHeaders(Map("x-amz-request-payer" -> "requester"))
+    S3.listParts(bucket, bucketKey, uploadId, headers).runWith(Sink.ignore).futureValue
+
+    mock.verifyThat(
+      getRequestedFor(urlEqualTo(s"/$bucketKey?uploadId=$uploadId"))
+        .withHeader("x-amz-request-payer", new EqualToPattern("requester"))
+    )
+  }
+
+  it should "upload small objects with single requests and large ones in parts" in {
+    val smallKey = "smallKey"
+    val smallBody = "small"
+    mockPutObject(smallKey, smallBody)
+    mockUpload()
+
+    //#transfer-upload
+    val uploads: Source[UploadTransfer, NotUsed] =
+      Source(
+        List(
+          UploadTransfer(smallKey, Source.single(ByteString(smallBody)), smallBody.length.toLong),
+          UploadTransfer(bucketKey, Source.single(ByteString(body)), body.length.toLong)
+        )
+      )
+
+    val (progress, transferred) =
+      uploads
+        .viaMat(S3TransferManager.upload(bucket, parallelism = 8, multipartThreshold = 10))(Keep.right)
+        .toMat(Sink.seq)(Keep.both)
+        .run()
+    //#transfer-upload
+
+    transferred.futureValue should contain theSameElementsAs List(
+      TransferredObject(smallKey, smallBody.length.toLong, Some(etag)),
+      TransferredObject(bucketKey, body.length.toLong, Some(etag))
+    )
+    progress.objects shouldBe 2
+    progress.bytes shouldBe (smallBody.length + body.length).toLong
+  }
+
   "S3Sink" should "retry upload after internal server error" in {
 
     mockUploadWithInternalError(body)
@@ -97,6 +178,80 @@ class S3SinkSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     result.failed.futureValue.getMessage should startWith("Upload part 1 request failed")
   }
 
+  it should "fail putting an object whose MD5 does not match the ETag S3 answers with" in {
+    mockUploadsAnsweringETagOfBody()
+    // streamed payloads are not hashed for signing, so their MD5 is checked against the ETag
+    val settings = S3Settings(system)
+      .withValidateChecksums(true)
+      .withPayloadSigning(PayloadSigning.StreamingSigned)
+    val content = ByteString("not the body")
+
+    val failure = S3
+      .putObject(bucket, bucketKey, Source.single(content), content.length.toLong, s3Headers = S3Headers.empty)
+      .withAttributes(S3Attributes.settings(settings))
+      .runWith(Sink.head)
+      .failed
+      .futureValue
+
+    failure shouldBe an[S3Exception]
+    failure.asInstanceOf[S3Exception].code shouldBe "BadDigest"
+  }
+
+  it should "fail a multipart upload with a part whose MD5 does not match the ETag S3 answers with" in {
+    mockUploadsAnsweringETagOfBody()
+    val settings = S3Settings(system)
+      .withValidateChecksums(true)
+      .withPayloadSigning(PayloadSigning.StreamingSigned)
+
+    val failure = Source
+      .single(ByteString("not the body"))
+      .runWith(S3.multipartUpload(bucket, bucketKey).withAttributes(S3Attributes.settings(settings)))
+      .failed
+      .futureValue
+
+    failure shouldBe a[FailedUpload]
+    val reason = failure.asInstanceOf[FailedUpload].reasons.head
+    reason shouldBe an[S3Exception]
+    reason.asInstanceOf[S3Exception].code shouldBe "BadDigest"
+  }
+
+  it should "return the in-flight bytes of an upload failing midway" in {
+    mockFailureAfterInitiate()
+    val settings = S3Settings(system).withMaxInFlightBytes(2L * S3.MinChunkSize)
+
+    // fails after the first part was buffered and sent
+    val failed = Source(List(ByteString(new Array[Byte](S3.MinChunkSize)), ByteString("x")))
+      .concat(Source.failed(new RuntimeException("boom")))
+      .runWith(S3.multipartUpload(bucket, bucketKey).withAttributes(S3Attributes.settings(settings)))
+    failed.failed.futureValue
+
+    mockUpload()
+    // every part reserves twice its size, all of the budget
+    val result = Source
+      .single(ByteString(body))
+      .runWith(S3.multipartUpload(bucket, bucketKey).withAttributes(S3Attributes.settings(settings)))
+
+    result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
+  }
+
+  it should "return the pooled slabs of an upload failing midway" in {
+    mockFailureAfterInitiate()
+    val settings = S3Settings(system).withBufferType(PooledBufferType(1))
+
+    // fails after the first part was buffered and sent
+    val failed = Source(List(ByteString(new Array[Byte](S3.MinChunkSize)), ByteString("x")))
+      .concat(Source.failed(new RuntimeException("boom")))
+      .runWith(S3.multipartUpload(bucket, bucketKey).withAttributes(S3Attributes.settings(settings)))
+    failed.failed.futureValue
+
+    mockUpload()
+    val result = Source
+      .single(ByteString(body))
+      .runWith(S3.multipartUpload(bucket, bucketKey).withAttributes(S3Attributes.settings(settings)))
+
+    result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
+  }
+
   it should "copy a file from source bucket to target bucket when expected content length is less then chunk size" in {
     mockCopy()
 
@@ -4,19 +4,23 @@
 
 package docs.scaladsl
 
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+
 import akka.http.scaladsl.model.headers.ByteRange
 import akka.http.scaladsl.model.{ContentType, ContentTypes, HttpEntity, HttpResponse, IllegalUriException}
 import akka.stream.Attributes
 import akka.stream.alpakka.s3.BucketAccess.{AccessDenied, AccessGranted, NotExists}
 import akka.stream.alpakka.s3._
 import akka.stream.alpakka.s3.headers.ServerSideEncryption
-import akka.stream.alpakka.s3.scaladsl.{S3, S3ClientIntegrationSpec, S3WireMockBase}
-import akka.stream.scaladsl.{Sink, Source}
+import akka.stream.alpakka.s3.scaladsl.{S3, S3ClientIntegrationSpec, S3TransferManager, S3WireMockBase}
+import akka.stream.scaladsl.{Keep, Sink, Source}
 import akka.util.ByteString
 import akka.{Done, NotUsed}
 import software.amazon.awssdk.regions.Region
 import software.amazon.awssdk.regions.providers._
 
+import scala.collection.immutable
 import scala.concurrent.Future
 
 class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
@@ -148,6 +152,31 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     result.futureValue shouldBe rangeOfBody
   }
 
+  it should "download a file's bytes with several ranged requests" in {
+
+    mockParallelDownload(partSize = 5)
+
+    //#getObjectParallel
+    val downloadResult: Source[Option[(Source[ByteString, NotUsed], ObjectMetadata)], NotUsed] =
+      S3.getObjectParallel(bucket, bucketKey, partSize = 5, parallelism = 3)
+    //#getObjectParallel
+
+    val Some((s3Source: Source[ByteString, _], metadata)) = downloadResult.runWith(Sink.head).futureValue
+    val result: Future[String] = s3Source.map(_.utf8String).runWith(Sink.fold("")(_ + _))
+
+    result.futureValue shouldBe body
+    metadata.contentLength shouldBe body.length
+  }
+
+  it should "emit None for a parallel download if the object does not exist" in {
+
+    mock404s()
+
+    val downloadResult = S3.getObjectParallel(bucket, bucketKey, partSize = 5, parallelism = 3)
+
+    downloadResult.runWith(Sink.head).futureValue shouldBe None
+  }
+
   it should "download a stream of bytes using customer server side encryption" in {
 
     mockDownloadSSEC()
@@ -176,6 +205,73 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     }
   }
 
+  it should "check the MD5 of a downloaded object against its ETag" in {
+
+    mockDownloadWithContentMd5()
+
+    val Some((data, _)) = S3
+      .download(bucket, bucketKey)
+      .withAttributes(S3Attributes.settings(sampleSettings.withValidateChecksums(true)))
+      .runWith(Sink.head)
+      .futureValue
+
+    // the MD5 is checked once all bytes are read
+    data.runWith(Sink.fold(ByteString.empty)(_ ++ _)).futureValue.utf8String shouldBe body
+  }
+
+  it should "fail a download whose MD5 does not match its ETag" in {
+
+    mockDownload()
+
+    val Some((data, _)) = S3
+      .download(bucket, bucketKey)
+      .withAttributes(S3Attributes.settings(sampleSettings.withValidateChecksums(true)))
+      .runWith(Sink.head)
+      .futureValue
+
+    val failure = data.runWith(Sink.ignore).failed.futureValue
+    failure shouldBe an[S3Exception]
+    failure.asInstanceOf[S3Exception].code shouldBe "BadDigest"
+  }
+
+  it should "download several objects to files" in {
+
+    mockDownload()
+    val path = Files.createTempFile("S3SourceSpec", ".txt")
+
+    //#transfer-download
+    val (progress, transferred) =
+      Source
+        .single(bucketKey -> path)
+        .viaMat(S3TransferManager.download(bucket, parallelism = 8))(Keep.right)
+        .toMat(Sink.seq)(Keep.both)
+        .run()
+    //#transfer-download
+
+    transferred.futureValue shouldBe Seq(
+      TransferredObject(bucketKey, body.length.toLong, Some("fba9dede5f27731c9771645a39863328"))
+    )
+    new String(Files.readAllBytes(path), StandardCharsets.UTF_8) shouldBe body
+    progress.objects shouldBe 1
+    Files.delete(path)
+  }
+
+  it should "fail a download of several objects if one does not exist" in {
+
+    mock404s()
+    val path = Files.createTempFile("S3SourceSpec", ".txt")
+
+    val failure = Source
+      .single("nonexisting_file.xml" -> path)
+      .via(S3TransferManager.download("nonexisting_bucket"))
+      .runWith(Sink.ignore)
+      .failed
+      .futureValue
+
+    failure shouldBe an[S3Exception]
+    Files.delete(path)
+  }
+
   it should "fail if request returns 404" in {
 
     mock404s()
@@ -273,6 +369,30 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     commonPrefixes.head.prefix shouldBe listCommonPrefix
   }
 
+  it should "list keys for a given bucket with a prefix in parallel" in {
+    mockListBucketParallel()
+
+    //#list-bucket-parallel
+    val keySource: Source[ListBucketResultContents, NotUsed] =
+      S3.listBucketParallel(bucket, Some(listPrefix), parallelism = 8, delimiter = "/")
+    //#list-bucket-parallel
+
+    val result = keySource.map(_.key).runWith(Sink.seq)
+
+    result.futureValue should contain theSameElementsAs Seq(listCommonPrefixKey, listKey)
+  }
+
+  it should "list keys for a given bucket with a prefix in parallel in key order" in {
+    mockListBucketParallel()
+
+    val result = S3
+      .listBucketParallel(bucket, Some(listPrefix), parallelism = 8, ordered = true)
+      .map(_.key)
+      .runWith(Sink.seq)
+
+    result.futureValue shouldBe Seq(listCommonPrefixKey, listKey)
+  }
+
   it should "list keys and common prefixes for a given bucket with a prefix and delimiter using the version 1 api" in {
     mockListBucketAndCommonPrefixesVersion1()
 
@@ -336,6 +456,39 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     makeBucketSourceRequest.runWith(Sink.ignore).futureValue shouldBe Done
   }
 
+  it should "delete several objects in one request" in {
+    val deletedKey = "deleted.txt"
+    val failedKey = "protected.txt"
+
+    mockDeleteObjects(deletedKey, failedKey)
+
+    //#delete-objects
+    val results: Future[immutable.Seq[DeleteObjectResult]] =
+      Source(List(deletedKey, failedKey))
+        .via(S3.deleteObjects(bucket))
+        .runWith(Sink.seq)
+    //#delete-objects
+
+    results.futureValue shouldBe List(
+      DeleteObjectResult(deletedKey, None, None, None),
+      DeleteObjectResult(failedKey, None, Some("AccessDenied"), Some("Access Denied"))
+    )
+  }
+
+  it should "delete the objects with a prefix in one batched request" in {
+    mockDeleteObjectsByPrefix(failedKey = None)
+
+    S3.deleteObjectsByPrefix(bucket, Some(listPrefix)).runWith(Sink.seq).futureValue shouldBe List(Done, Done)
+  }
+
+  it should "fail deleting the objects with a prefix when one of them is not deleted" in {
+    mockDeleteObjectsByPrefix(failedKey = Some(s"$listPrefix/b.txt"))
+
+    val failure = S3.deleteObjectsByPrefix(bucket, Some(listPrefix)).runWith(Sink.ignore).failed.futureValue
+    failure shouldBe an[S3Exception]
+    failure.asInstanceOf[S3Exception].code shouldBe "AccessDenied"
+  }
+
   it should "delete a bucket with given name" in {
     val bucketName = "samplebucket1"
 
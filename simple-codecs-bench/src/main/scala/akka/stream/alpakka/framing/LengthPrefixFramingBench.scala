@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.framing
+
+import java.util.concurrent.TimeUnit
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.ActorMaterializer
+import akka.stream.alpakka.framing.scaladsl.LengthPrefixFraming
+import akka.stream.alpakka.recordio.scaladsl.RecordIOFraming
+import akka.stream.scaladsl.{Flow, Source}
+import akka.util.ByteString
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures the time to encode about 4 MB of frames, and to frame them again from chunks of 8 KB,
+ * for the different length prefixes and frame sizes.
+ *
+ * @see https://github.com/ktoso/sbt-jmh
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class LengthPrefixFramingBench {
+
+  implicit val system = ActorSystem()
+  implicit val executionContext = system.dispatcher
+  implicit val mat = ActorMaterializer()
+
+  @Param(Array("recordio", "varint", "int32", "int16"))
+  var prefix: String = _
+
+  /** The size of each frame's data in bytes. */
+  @Param(Array("16", "256", "4096"))
+  var frameSize: Int = _
+
+  var frames: Source[ByteString, NotUsed] = _
+  var chunks: Source[ByteString, NotUsed] = _
+  var encoder: Flow[ByteString, ByteString, NotUsed] = _
+  var scanner: Flow[ByteString, ByteString, NotUsed] = _
+
+  @Benchmark
+  def encode(bh: Blackhole): Unit = {
+    val futureDone = frames.via(encoder).runForeach(bh.consume)
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def frame(bh: Blackhole): Unit = {
+    val futureDone = chunks.via(scanner).runForeach(bh.consume)
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    mat.shutdown()
+    system.terminate()
+  }
+
+  @Setup
+  def setup(): Unit = {
+    prefix match {
+      case "recordio" =>
+        encoder = RecordIOFraming.encoder
+        scanner = RecordIOFraming.scanner()
+      case "varint" =>
+        encoder = LengthPrefixFraming.varintEncoder()
+        scanner = LengthPrefixFraming.varintScanner()
+      case "int32" =>
+        encoder = LengthPrefixFraming.int32Encoder()
+        scanner = LengthPrefixFraming.int32Scanner()
+      case "int16" =>
+        encoder = LengthPrefixFraming.int16Encoder()
+        scanner = LengthPrefixFraming.int16Scanner()
+    }
+    val frame = ByteString(Array.fill[Byte](frameSize)('x'))
+    val frameList = List.fill(4 * 1024 * 1024 / frameSize)(frame)
+    frames = Source(frameList)
+    val encoded = Await.result(frames.via(encoder).runFold(ByteString.newBuilder)(_ ++= _), Duration.Inf).result()
+    chunks = Source(encoded.grouped(8192).map(_.compact).toList)
+  }
+}
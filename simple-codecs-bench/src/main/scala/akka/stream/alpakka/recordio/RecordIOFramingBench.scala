@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.recordio
+
+import java.util.concurrent.TimeUnit
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.ActorMaterializer
+import akka.stream.alpakka.recordio.scaladsl.RecordIOFraming
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures the time to frame about 4 MB of RecordIO data, arriving in chunks of 8 KB, for different record sizes.
+ *
+ * @see https://github.com/ktoso/sbt-jmh
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class RecordIOFramingBench {
+
+  implicit val system = ActorSystem()
+  implicit val executionContext = system.dispatcher
+  implicit val mat = ActorMaterializer()
+
+  /** The size of each record's data in bytes. */
+  @Param(Array("16", "256", "4096", "65536"))
+  var recordSize: Int = _
+
+  var source: Source[ByteString, NotUsed] = _
+
+  @Benchmark
+  def frame(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(RecordIOFraming.scanner())
+        .runForeach(bh.consume)
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    mat.shutdown()
+    system.terminate()
+  }
+
+  @Setup
+  def setup(): Unit = {
+    val record = ByteString(s"$recordSize\n") ++ ByteString(Array.fill[Byte](recordSize)('x'))
+    val count = 4 * 1024 * 1024 / record.length
+    val data = Iterator.fill(count)(record).foldLeft(ByteString.newBuilder)(_ ++= _).result()
+    source = Source(data.grouped(8192).map(_.compact).toList)
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.framing.impl
+
+import java.util.ArrayDeque
+
+import akka.annotation.InternalApi
+import akka.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * The bytes received by a framing stage. Chunks are queued as they are and read from a position within the first
+ * chunk, so that bytes are never copied: frames are taken as slices of the chunks they were received in.
+ */
+@InternalApi
+private[alpakka] final class ChunkQueue {
+  private val chunks = new ArrayDeque[ByteString]()
+  private var position = 0 // the read position within the first chunk
+  private var unread = 0 // the number of unread bytes in all chunks
+
+  def add(chunk: ByteString): Unit =
+    if (chunk.nonEmpty) {
+      chunks.addLast(chunk)
+      unread += chunk.length
+    }
+
+  /** The number of unread bytes. */
+  def buffered: Int = unread
+
+  def isEmpty: Boolean = unread == 0
+
+  /** The unread byte at `index`. */
+  def apply(index: Int): Byte = {
+    val first = chunks.peekFirst()
+    if (position + index < first.length) first(position + index)
+    else {
+      val iterator = chunks.iterator()
+      var i = index + position
+      var chunk = iterator.next()
+      while (i >= chunk.length) {
+        i -= chunk.length
+        chunk = iterator.next()
+      }
+      chunk(i)
+    }
+  }
+
+  /** The index of the first unread occurrence of `byte`, or -1. */
+  def indexOf(byte: Byte): Int = {
+    val iterator = chunks.iterator()
+    var from = position
+    var offset = 0
+    var index = -1
+    while (index < 0 && iterator.hasNext) {
+      val chunk = iterator.next()
+      val i = chunk.indexOf(byte, from)
+      if (i >= 0) index = offset + i - from
+      else offset += chunk.length - from
+      from = 0
+    }
+    index
+  }
+
+  /** Removes the next `n` unread bytes and returns them as slices of the chunks. */
+  def take(n: Int): ByteString = {
+    var result = ByteString.empty
+    var remaining = n
+    while (remaining > 0) {
+      val chunk = chunks.peekFirst()
+      val available = chunk.length - position
+      if (available > remaining) {
+        result ++= chunk.slice(position, position + remaining)
+        position += remaining
+        remaining = 0
+      } else {
+        result ++= (if (position == 0) chunk else chunk.drop(position))
+        chunks.pollFirst()
+        position = 0
+        remaining -= available
+      }
+    }
+    unread -= n
+    result
+  }
+
+  /** Removes the next `n` unread bytes. */
+  def skip(n: Int): Unit = {
+    var remaining = n
+    while (remaining > 0) {
+      val available = chunks.peekFirst().length - position
+      if (available > remaining) {
+        position += remaining
+        remaining = 0
+      } else {
+        chunks.pollFirst()
+        position = 0
+        remaining -= available
+      }
+    }
+    unread -= n
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.framing.impl
+
+import akka.annotation.InternalApi
+import akka.stream.Attributes.name
+import akka.stream.scaladsl.Framing.FramingException
+import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
+import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+import akka.util.ByteString
+
+import scala.annotation.tailrec
+
+/**
+ * INTERNAL API
+ *
+ * The encodings of a frame's length preceding its data.
+ */
+@InternalApi
+private[framing] sealed abstract class LengthPrefix(val name: String, val maxLength: Int) {
+
+  /**
+   * Reads and removes the length prefix from the start of `buffer`.
+   *
+   * @return the frame length, or -1 if the prefix is not complete yet, in which case nothing is removed
+   */
+  def read(buffer: ChunkQueue): Long
+
+  /** The frame prefixed with its length. The frame's bytes are not copied. */
+  def encode(frame: ByteString): ByteString
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[framing] object LengthPrefix {
+
+  /** Unsigned LEB128 (as in Protocol Buffers), seven bits per byte starting with the lowest. */
+  case object Varint extends LengthPrefix("varint", Int.MaxValue) {
+    private final val MaxBytes = 5
+
+    override def read(buffer: ChunkQueue): Long = {
+      var value = 0L
+      var i = 0
+      var complete = false
+      while (!complete && i < buffer.buffered) {
+        if (i == MaxBytes) throw new FramingException(s"Varint length prefix is longer than $MaxBytes bytes.")
+        val b = buffer(i)
+        value |= (b & 0x7FL) << (7 * i)
+        complete = (b & 0x80) == 0
+        i += 1
+      }
+      if (complete) {
+        buffer.skip(i)
+        value
+      } else -1
+    }
+
+    override def encode(frame: ByteString): ByteString = {
+      var bytes = 1
+      while (bytes < MaxBytes && (frame.length >>> (7 * bytes)) != 0) bytes += 1
+      val prefix = new Array[Byte](bytes)
+      var i = 0
+      while (i < bytes) {
+        val group = (frame.length >>> (7 * i)) & 0x7F
+        prefix(i) = (if (i < bytes - 1) group | 0x80 else group).toByte
+        i += 1
+      }
+      ByteString.fromArrayUnsafe(prefix) ++ frame
+    }
+  }
+
+  /** A big-endian integer of `width` bytes. */
+  sealed abstract class FixedWidth(name: String, width: Int, maxLength: Int) extends LengthPrefix(name, maxLength) {
+    override def read(buffer: ChunkQueue): Long =
+      if (buffer.buffered < width) -1
+      else {
+        var value = 0L
+        var i = 0
+        while (i < width) {
+          value = (value << 8) | (buffer(i) & 0xFF)
+          i += 1
+        }
+        buffer.skip(width)
+        value
+      }
+
+    override def encode(frame: ByteString): ByteString = {
+      val prefix = new Array[Byte](width)
+      var i = 0
+      while (i < width) {
+        prefix(i) = (frame.length >>> (8 * (width - 1 - i))).toByte
+        i += 1
+      }
+      ByteString.fromArrayUnsafe(prefix) ++ frame
+    }
+  }
+
+  case object Int32 extends FixedWidth("int32", 4, Int.MaxValue)
+  case object Int16 extends FixedWidth("int16", 2, 0xFFFF)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[framing] class LengthPrefixFramingStage(prefix: LengthPrefix, maxFrameLength: Int)
+    extends GraphStage[FlowShape[ByteString, ByteString]] {
+
+  val in = Inlet[ByteString]("LengthPrefixFramingStage.in")
+  val out = Outlet[ByteString]("LengthPrefixFramingStage.out")
+  override val shape: FlowShape[ByteString, ByteString] = FlowShape(in, out)
+
+  override def initialAttributes: Attributes = name(s"${prefix.name}LengthPrefixFraming")
+  override def toString: String = "LengthPrefixFraming"
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private val buffer = new ChunkQueue
+
+      private var currentFrameLength = -1 // the byte length of the next frame, if known
+
+      override def onPush(): Unit = {
+        buffer.add(grab(in))
+        doParse()
+      }
+
+      override def onPull(): Unit = doParse()
+
+      override def onUpstreamFinish(): Unit =
+        if (buffer.isEmpty && currentFrameLength < 0) {
+          completeStage()
+        } else if (isAvailable(out)) {
+          doParse()
+        } // else swallow the termination and wait for pull
+
+      private def tryPull(): Unit =
+        if (isClosed(in)) {
+          failStage(new FramingException("Stream finished but there was a truncated final frame in the buffer."))
+        } else pull(in)
+
+      @tailrec
+      private def doParse(): Unit =
+        if (currentFrameLength >= 0) {
+          if (buffer.buffered >= currentFrameLength) {
+            val frame = buffer.take(currentFrameLength)
+            currentFrameLength = -1
+            push(out, frame)
+          } else tryPull()
+        } else {
+          // a FramingException for a malformed prefix fails the stage
+          prefix.read(buffer) match {
+            case -1 if isClosed(in) && buffer.isEmpty =>
+              completeStage()
+            case -1 =>
+              tryPull()
+            case length if length > maxFrameLength =>
+              failStage(new FramingException(s"Frame of size $length bytes exceeds maximum of $maxFrameLength bytes."))
+            case length =>
+              currentFrameLength = length.toInt
+              doParse()
+          }
+        }
+
+      setHandlers(in, out, this)
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.framing.javadsl
+
+import akka.NotUsed
+import akka.stream.alpakka.framing.scaladsl
+import akka.stream.javadsl.Flow
+import akka.util.ByteString
+
+/**
+ * Java API
+ *
+ * Provides flows that separate frames preceded by their length in binary from an incoming [[akka.util.ByteString]]
+ * stream, and flows that write such frames.
+ *
+ * Frames are emitted as slices of the incoming byte strings and written without copying their data.
+ */
+object LengthPrefixFraming {
+
+  /**
+   * Returns a flow that parses frames preceded by their length as unsigned varint (LEB128, as used by
+   * Protocol Buffers' delimited messages).
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is indicated to be longer, this Flow will fail the stream.
+   */
+  def varintScanner(maxFrameLength: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.LengthPrefixFraming.varintScanner(maxFrameLength).asJava
+
+  /**
+   * Returns a flow that parses frames preceded by their length as 4-byte big-endian integer.
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is indicated to be longer, this Flow will fail the stream.
+   */
+  def int32Scanner(maxFrameLength: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.LengthPrefixFraming.int32Scanner(maxFrameLength).asJava
+
+  /**
+   * Returns a flow that parses frames preceded by their length as 2-byte big-endian unsigned integer.
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is indicated to be longer, this Flow will fail the stream.
+   */
+  def int16Scanner(maxFrameLength: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.LengthPrefixFraming.int16Scanner(maxFrameLength).asJava
+
+  /**
+   * Returns a flow that writes each incoming frame preceded by its length as unsigned varint.
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is longer, this Flow will fail the stream.
+   */
+  def varintEncoder(maxFrameLength: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.LengthPrefixFraming.varintEncoder(maxFrameLength).asJava
+
+  /**
+   * Returns a flow that writes each incoming frame preceded by its length as 4-byte big-endian integer.
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is longer, this Flow will fail the stream.
+   */
+  def int32Encoder(maxFrameLength: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.LengthPrefixFraming.int32Encoder(maxFrameLength).asJava
+
+  /**
+   * Returns a flow that writes each incoming frame preceded by its length as 2-byte big-endian unsigned integer.
+   *
+   * @param maxFrameLength The maximum frame length allowed, at most 65535. If a frame is longer, this Flow will fail the stream.
+   */
+  def int16Encoder(maxFrameLength: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.LengthPrefixFraming.int16Encoder(maxFrameLength).asJava
+}
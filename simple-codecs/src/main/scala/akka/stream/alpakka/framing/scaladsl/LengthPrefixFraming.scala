@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.framing.scaladsl
+
+import akka.NotUsed
+import akka.stream.alpakka.framing.impl.{LengthPrefix, LengthPrefixFramingStage}
+import akka.stream.scaladsl.Flow
+import akka.stream.scaladsl.Framing.FramingException
+import akka.util.ByteString
+
+/**
+ * Scala API
+ *
+ * Provides flows that separate frames preceded by their length in binary from an incoming [[akka.util.ByteString]]
+ * stream, and flows that write such frames.
+ *
+ * Frames are emitted as slices of the incoming byte strings and written without copying their data.
+ */
+object LengthPrefixFraming {
+
+  /**
+   * Returns a flow that parses frames preceded by their length as unsigned varint (LEB128, as used by
+   * Protocol Buffers' delimited messages).
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is indicated to be longer, this Flow will fail the stream.
+   */
+  def varintScanner(maxFrameLength: Int = Int.MaxValue): Flow[ByteString, ByteString, NotUsed] =
+    scanner(LengthPrefix.Varint, maxFrameLength)
+
+  /**
+   * Returns a flow that parses frames preceded by their length as 4-byte big-endian integer.
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is indicated to be longer, this Flow will fail the stream.
+   */
+  def int32Scanner(maxFrameLength: Int = Int.MaxValue): Flow[ByteString, ByteString, NotUsed] =
+    scanner(LengthPrefix.Int32, maxFrameLength)
+
+  /**
+   * Returns a flow that parses frames preceded by their length as 2-byte big-endian unsigned integer.
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is indicated to be longer, this Flow will fail the stream.
+   */
+  def int16Scanner(maxFrameLength: Int = 0xFFFF): Flow[ByteString, ByteString, NotUsed] =
+    scanner(LengthPrefix.Int16, maxFrameLength)
+
+  /**
+   * Returns a flow that writes each incoming frame preceded by its length as unsigned varint.
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is longer, this Flow will fail the stream.
+   */
+  def varintEncoder(maxFrameLength: Int = Int.MaxValue): Flow[ByteString, ByteString, NotUsed] =
+    encoder(LengthPrefix.Varint, maxFrameLength)
+
+  /**
+   * Returns a flow that writes each incoming frame preceded by its length as 4-byte big-endian integer.
+   *
+   * @param maxFrameLength The maximum frame length allowed. If a frame is longer, this Flow will fail the stream.
+   */
+  def int32Encoder(maxFrameLength: Int = Int.MaxValue): Flow[ByteString, ByteString, NotUsed] =
+    encoder(LengthPrefix.Int32, maxFrameLength)
+
+  /**
+   * Returns a flow that writes each incoming frame preceded by its length as 2-byte big-endian unsigned integer.
+   *
+   * @param maxFrameLength The maximum frame length allowed, at most 65535. If a frame is longer, this Flow will fail the stream.
+   */
+  def int16Encoder(maxFrameLength: Int = 0xFFFF): Flow[ByteString, ByteString, NotUsed] =
+    encoder(LengthPrefix.Int16, maxFrameLength)
+
+  private def scanner(prefix: LengthPrefix, maxFrameLength: Int): Flow[ByteString, ByteString, NotUsed] =
+    Flow[ByteString]
+      .via(new LengthPrefixFramingStage(prefix, maxFrameLength))
+      .named(s"${prefix.name}LengthPrefixFraming")
+
+  private def encoder(prefix: LengthPrefix, maxFrameLength: Int): Flow[ByteString, ByteString, NotUsed] = {
+    require(maxFrameLength <= prefix.maxLength,
+            s"maxFrameLength must not exceed ${prefix.maxLength} for ${prefix.name} length prefixes")
+    Flow[ByteString]
+      .map { frame =>
+        if (frame.length > maxFrameLength)
+          throw new FramingException(s"Frame of size ${frame.length} bytes exceeds maximum of $maxFrameLength bytes.")
+        prefix.encode(frame)
+      }
+      .named(s"${prefix.name}LengthPrefixEncoding")
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.recordio.impl
+
+import akka.annotation.InternalApi
+import akka.util.ByteString
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[recordio] object RecordIOEncoder {
+
+  /** The record prefixed with its decimal length and a line feed. The record's bytes are not copied. */
+  def encode(record: ByteString): ByteString = prefix(record.length) ++ record
+
+  private def prefix(length: Int): ByteString = {
+    var digits = 1
+    var n = length
+    while (n >= 10) {
+      n /= 10
+      digits += 1
+    }
+    val bytes = new Array[Byte](digits + 1)
+    bytes(digits) = '\n'
+    n = length
+    var i = digits - 1
+    while (i >= 0) {
+      bytes(i) = ('0' + n % 10).toByte
+      n /= 10
+      i -= 1
+    }
+    ByteString.fromArrayUnsafe(bytes)
+  }
+}
@@ -6,13 +6,13 @@ package akka.stream.alpakka.recordio.impl
 
 import akka.annotation.InternalApi
 import akka.stream.Attributes.name
+import akka.stream.alpakka.framing.impl.ChunkQueue
 import akka.stream.scaladsl.Framing.FramingException
 import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
 import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
 import akka.util.ByteString
 
 import scala.annotation.tailrec
-import scala.util.{Failure, Success, Try}
 
 /**
  * INTERNAL API
@@ -35,14 +35,12 @@ private[recordio] class RecordIOFramingStage(maxRecordLength: Int)
 
   override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
     new GraphStageLogic(shape) with InHandler with OutHandler {
-      private var buffer = ByteString.empty
+      private val buffer = new ChunkQueue
 
-      private def trimWhitespace(): Unit = buffer = buffer.dropWhile(isWhitespace)
-
-      private var currentRecordLength: Option[Int] = None // the byte length of the next record, if known
+      private var currentRecordLength = -1 // the byte length of the next record, if known
 
       override def onPush(): Unit = {
-        buffer ++= grab(in)
+        buffer.add(grab(in))
         doParse()
       }
 
@@ -62,48 +60,48 @@ private[recordio] class RecordIOFramingStage(maxRecordLength: Int)
 
       @tailrec
       private def doParse(): Unit =
-        currentRecordLength match {
-          case Some(length) if buffer.size >= length =>
-            val (record, buf) = buffer.splitAt(length)
-            buffer = buf.compact
+        if (currentRecordLength >= 0) {
+          if (buffer.buffered >= currentRecordLength) {
+            val record = buffer.take(currentRecordLength)
             trimWhitespace()
 
-            currentRecordLength = None
-
-            push(out, record.compact)
-          case Some(_) =>
-            tryPull()
-          case None =>
-            trimWhitespace()
-            buffer.indexOf(LineFeed) match {
-              case -1 if buffer.size > maxRecordPrefixLength =>
-                failStage(new FramingException(s"Record size prefix is longer than $maxRecordPrefixLength bytes."))
-              case -1 if isClosed(in) && buffer.isEmpty =>
-                completeStage()
-              case -1 =>
-                tryPull()
-              case lfPos =>
-                val (recordSizePrefix, buf) = buffer.splitAt(lfPos)
-                buffer = buf.drop(1).compact
-
-                Try(recordSizePrefix.utf8String.toInt) match {
-                  case Success(length) if length > maxRecordLength =>
-                    failStage(
-                      new FramingException(
-                        s"Record of size $length bytes exceeds maximum of $maxRecordLength bytes."
-                      )
+            currentRecordLength = -1
+
+            push(out, record)
+          } else tryPull()
+        } else {
+          trimWhitespace()
+          buffer.indexOf(LineFeed) match {
+            case -1 if buffer.buffered > maxRecordPrefixLength =>
+              failStage(new FramingException(s"Record size prefix is longer than $maxRecordPrefixLength bytes."))
+            case -1 if isClosed(in) && buffer.isEmpty =>
+              completeStage()
+            case -1 =>
+              tryPull()
+            case lfPos =>
+              val recordSizePrefix = buffer.take(lfPos)
+              buffer.skip(1)
+
+              // a NumberFormatException fails the stage
+              parseLength(recordSizePrefix) match {
+                case length if length > maxRecordLength =>
+                  failStage(
+                    new FramingException(
+                      s"Record of size $length bytes exceeds maximum of $maxRecordLength bytes."
                     )
-                  case Success(length) if length < 0 =>
-                    failStage(new FramingException(s"Record size prefix $length is negative."))
-                  case Success(length) =>
-                    currentRecordLength = Some(length)
-                    doParse()
-                  case Failure(ex) =>
-                    failStage(ex)
-                }
-            }
+                  )
+                case length if length < 0 =>
+                  failStage(new FramingException(s"Record size prefix $length is negative."))
+                case length =>
+                  currentRecordLength = length.toInt
+                  doParse()
+              }
+          }
         }
 
+      private def trimWhitespace(): Unit =
+        while (buffer.buffered > 0 && isWhitespace(buffer(0))) buffer.skip(1)
+
       setHandlers(in, out, this)
     }
 }
@@ -119,7 +117,31 @@ private object RecordIOFramingStage {
   private val Tab = '\t'.toByte
   private val Space = ' '.toByte
 
-  private val Whitespace: Set[Byte] = Set(LineFeed, CarriageReturn, Tab, Space)
-
-  private def isWhitespace(byte: Byte): Boolean = Whitespace.contains(byte)
+  private def isWhitespace(byte: Byte): Boolean =
+    byte == LineFeed || byte == CarriageReturn || byte == Tab || byte == Space
+
+  /**
+   * Parses the decimal record length like `String.toInt` would, without decoding the bytes to a string first.
+   *
+   * @throws NumberFormatException if the prefix is not a decimal integer
+   */
+  private def parseLength(prefix: ByteString): Long = {
+    def invalid() = throw new NumberFormatException("For input string: \"" + prefix.utf8String + "\"")
+
+    val sign = if (prefix.nonEmpty) prefix(0) else 0
+    val negative = sign == '-'
+    var i = if (negative || sign == '+') 1 else 0
+    if (i == prefix.length) invalid()
+    var value = 0L
+    while (i < prefix.length) {
+      val digit = prefix(i) - '0'
+      if (digit < 0 || digit > 9) invalid()
+      value = value * 10 + digit
+      if (value > Int.MaxValue + 1L) invalid()
+      i += 1
+    }
+    if (negative) -value
+    else if (value > Int.MaxValue) invalid()
+    else value
+  }
 }
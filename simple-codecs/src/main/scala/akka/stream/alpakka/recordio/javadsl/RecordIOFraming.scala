@@ -6,13 +6,15 @@ package akka.stream.alpakka.recordio.javadsl
 
 import akka.NotUsed
 import akka.stream.alpakka.recordio.impl.RecordIOFramingStage
+import akka.stream.alpakka.recordio.scaladsl
 import akka.stream.javadsl.Flow
 import akka.util.ByteString
 
 /**
  * Java API
  *
- * Provides a flow that can separate records from an incoming RecordIO-formatted [[akka.util.ByteString]] stream.
+ * Provides a flow that can separate records from an incoming RecordIO-formatted [[akka.util.ByteString]] stream,
+ * and a flow that writes records in the RecordIO format.
  */
 object RecordIOFraming {
 
@@ -25,7 +27,8 @@ object RecordIOFraming {
    *
    * The parser ignores whitespace before or after each record. It is agnostic to the record data contents.
    *
-   * The flow will emit each record's data as a byte string.
+   * The flow will emit each record's data as a byte string. The records are slices of the incoming byte strings,
+   * which are not copied.
    *
    * @param maxRecordLength The maximum record length allowed. If a record is indicated to be longer, this Flow will fail the stream.
    */
@@ -33,4 +36,13 @@ object RecordIOFraming {
     Flow.fromGraph(new RecordIOFramingStage(maxRecordLength)).named("recordIOFraming")
 
   def scanner(): Flow[ByteString, ByteString, NotUsed] = scanner(10 * 1024)
+
+  /**
+   * Returns a flow that writes each incoming record in the RecordIO format:
+   *
+   *   [record length]\n[record data]
+   *
+   * The record data is not copied.
+   */
+  def encoder(): Flow[ByteString, ByteString, NotUsed] = scaladsl.RecordIOFraming.encoder.asJava
 }
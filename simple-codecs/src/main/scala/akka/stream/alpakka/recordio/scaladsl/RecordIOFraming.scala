@@ -5,14 +5,15 @@
 package akka.stream.alpakka.recordio.scaladsl
 
 import akka.NotUsed
-import akka.stream.alpakka.recordio.impl.RecordIOFramingStage
+import akka.stream.alpakka.recordio.impl.{RecordIOEncoder, RecordIOFramingStage}
 import akka.stream.scaladsl.Flow
 import akka.util.ByteString
 
 /**
  * Scala API
  *
- * Provides a flow that can separate records from an incoming RecordIO-formatted [[akka.util.ByteString]] stream.
+ * Provides a flow that can separate records from an incoming RecordIO-formatted [[akka.util.ByteString]] stream,
+ * and a flow that writes records in the RecordIO format.
  */
 object RecordIOFraming {
 
@@ -25,10 +26,21 @@ object RecordIOFraming {
    *
    * The parser ignores whitespace before or after each record. It is agnostic to the record data contents.
    *
-   * The flow will emit each record's data as a byte string.
+   * The flow will emit each record's data as a byte string. The records are slices of the incoming byte strings,
+   * which are not copied.
    *
    * @param maxRecordLength The maximum record length allowed. If a record is indicated to be longer, this Flow will fail the stream.
    */
   def scanner(maxRecordLength: Int = Int.MaxValue): Flow[ByteString, ByteString, NotUsed] =
     Flow[ByteString].via(new RecordIOFramingStage(maxRecordLength)).named("recordIOFraming")
+
+  /**
+   * Returns a flow that writes each incoming record in the RecordIO format:
+   *
+   *   [record length]\n[record data]
+   *
+   * The record data is not copied.
+   */
+  def encoder: Flow[ByteString, ByteString, NotUsed] =
+    Flow[ByteString].map(RecordIOEncoder.encode).named("recordIOEncoding")
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package docs.scaladsl
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.{ActorMaterializer, Materializer}
+import akka.stream.alpakka.framing.scaladsl.LengthPrefixFraming
+import akka.stream.scaladsl.Framing.FramingException
+import akka.stream.scaladsl.{Flow, Sink, Source}
+import akka.testkit.TestKit
+import akka.util.ByteString
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.{BeforeAndAfterAll, FlatSpecLike, Matchers}
+
+import scala.collection.immutable.Seq
+import scala.concurrent.duration._
+
+class LengthPrefixFramingSpec(_system: ActorSystem)
+    extends TestKit(_system)
+    with FlatSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+  def this() = this(ActorSystem("LengthPrefixFramingSpec"))
+
+  override protected def afterAll(): Unit = shutdown()
+
+  implicit val mat: Materializer = ActorMaterializer()
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(timeout = 5.seconds, interval = 50.millis)
+
+  val frames: Seq[ByteString] = Seq("", "a", "x" * 127, "y" * 128, "z" * 300, "w" * 70000).map(ByteString(_))
+
+  val variants: Seq[(String, Flow[ByteString, ByteString, NotUsed], Flow[ByteString, ByteString, NotUsed])] = Seq(
+    ("varint", LengthPrefixFraming.varintEncoder(), LengthPrefixFraming.varintScanner()),
+    ("int32", LengthPrefixFraming.int32Encoder(), LengthPrefixFraming.int32Scanner())
+  )
+
+  def roundTrip(frames: Seq[ByteString],
+                encoder: Flow[ByteString, ByteString, NotUsed],
+                scanner: Flow[ByteString, ByteString, NotUsed],
+                chunkSize: Int): Seq[ByteString] =
+    Source(frames)
+      .via(encoder)
+      .fold(ByteString.empty)(_ ++ _)
+      .mapConcat(_.grouped(chunkSize).toList)
+      .via(scanner)
+      .runWith(Sink.seq)
+      .futureValue
+
+  for ((name, encoder, scanner) <- variants) {
+    s"$name length prefix framing" should "parse frames written by its encoder" in {
+      for (chunkSize <- Seq(1, 3, 100, 100000)) {
+        roundTrip(frames, encoder, scanner, chunkSize) shouldBe frames
+      }
+    }
+  }
+
+  "int16 length prefix framing" should "parse frames written by its encoder" in {
+    val shortFrames = frames.filter(_.length <= 0xFFFF)
+    for (chunkSize <- Seq(1, 3, 100, 100000)) {
+      val result =
+        roundTrip(shortFrames, LengthPrefixFraming.int16Encoder(), LengthPrefixFraming.int16Scanner(), chunkSize)
+      result shouldBe shortFrames
+    }
+  }
+
+  it should "fail to encode frames longer than 65535 bytes" in {
+    val result = Source
+      .single(ByteString(new Array[Byte](0x10000)))
+      .via(LengthPrefixFraming.int16Encoder())
+      .runWith(Sink.seq)
+
+    result.failed.futureValue shouldBe a[FramingException]
+  }
+
+  "Varint length prefix encoding" should "write seven bits per byte" in {
+    val result = Source
+      .single(ByteString("x" * 300))
+      .via(LengthPrefixFraming.varintEncoder())
+      .runWith(Sink.head)
+
+    result.futureValue.take(2) shouldBe ByteString(0xAC.toByte, 0x02.toByte)
+  }
+
+  "Int32 length prefix encoding" should "write the length in big-endian order" in {
+    val result = Source
+      .single(ByteString("x" * 258))
+      .via(LengthPrefixFraming.int32Encoder())
+      .runWith(Sink.head)
+
+    result.futureValue.take(4) shouldBe ByteString(0, 0, 1, 2)
+  }
+
+  "Length prefix framing" should "reject a frame exceeding the maximum length" in {
+    val result = Source
+      .single(ByteString(0, 0, 4, 0) ++ ByteString(new Array[Byte](1024)))
+      .via(LengthPrefixFraming.int32Scanner(1023))
+      .runWith(Sink.seq)
+
+    result.failed.futureValue shouldBe a[FramingException]
+  }
+
+  it should "reject a varint prefix longer than five bytes" in {
+    val result = Source
+      .single(ByteString(Array.fill[Byte](6)(0xFF.toByte)))
+      .via(LengthPrefixFraming.varintScanner())
+      .runWith(Sink.seq)
+
+    result.failed.futureValue shouldBe a[FramingException]
+  }
+
+  it should "reject a truncated frame" in {
+    val result = Source
+      .single(ByteString(0, 5, 1, 2))
+      .via(LengthPrefixFraming.int16Scanner())
+      .runWith(Sink.seq)
+
+    result.failed.futureValue shouldBe a[FramingException]
+  }
+
+  it should "reject a truncated prefix" in {
+    val result = Source
+      .single(ByteString(0, 0, 1))
+      .via(LengthPrefixFraming.int32Scanner())
+      .runWith(Sink.seq)
+
+    result.failed.futureValue shouldBe a[FramingException]
+  }
+
+  it should "handle an empty stream" in {
+    Source.empty[ByteString].via(LengthPrefixFraming.varintScanner()).runWith(Sink.seq).futureValue shouldBe empty
+  }
+}
@@ -98,6 +98,58 @@ class RecordIOFramingSpec(_system: ActorSystem)
     result.futureValue shouldBe Seq(FirstRecordData, SecondRecordData)
   }
 
+  it should "parse a stream arriving byte by byte" in {
+    // Given
+    val input = ByteString(s" $FirstRecordWithPrefix\n$SecondRecordWithPrefix\r\n").grouped(1).toList
+
+    // When
+    val result = Source(input) via
+      RecordIOFraming.scanner() runWith
+      stringSeqSink
+
+    // Then
+    result.futureValue shouldBe Seq(FirstRecordData, SecondRecordData)
+  }
+
+  it should "parse many records within one chunk" in {
+    // Given
+    val records = (1 to 1000).map(i => s"record $i")
+    val input = ByteString(records.map(r => s"${r.length}\n$r").mkString)
+
+    // When
+    val result = Source(input.grouped(4096).toList) via
+      RecordIOFraming.scanner() runWith
+      stringSeqSink
+
+    // Then
+    result.futureValue shouldBe records
+  }
+
+  it should "parse empty records" in {
+    // When
+    val result = Source.single(ByteString(s"0\n\n$SecondRecordWithPrefix")) via
+      RecordIOFraming.scanner() runWith
+      stringSeqSink
+
+    // Then
+    result.futureValue shouldBe Seq("", SecondRecordData)
+  }
+
+  it should "parse records written by the encoder" in {
+    // Given
+    val records = Seq(FirstRecordData, "", SecondRecordData, "x" * 1000)
+
+    // When
+    val result = Source(records.map(ByteString(_))) via
+      RecordIOFraming.encoder via
+      Flow[ByteString].mapConcat(_.grouped(7).toList) via
+      RecordIOFraming.scanner() runWith
+      stringSeqSink
+
+    // Then
+    result.futureValue shouldBe records
+  }
+
   it should "handle an empty stream" in {
     // When
     val result =
@@ -135,6 +187,19 @@ class RecordIOFramingSpec(_system: ActorSystem)
     result.failed.futureValue shouldBe a[NumberFormatException]
   }
 
+  it should "reject a record size prefix exceeding the integer range" in {
+    // Given
+    val recordIOInput = s"99999999999\n$FirstRecordData"
+
+    // When
+    val result = Source.single(ByteString(recordIOInput)) via
+      RecordIOFraming.scanner() runWith
+      stringSeqSink
+
+    // Then
+    result.failed.futureValue shouldBe a[NumberFormatException]
+  }
+
   it should "reject an overly long record size prefix" in {
     // Given
     val infinitePrefixSource = Source.repeat(ByteString("1"))
@@ -186,4 +251,14 @@ class RecordIOFramingSpec(_system: ActorSystem)
     // Then
     result.failed.futureValue shouldBe a[FramingException]
   }
+
+  "RecordIO encoding" should "prefix each record with its length" in {
+    // When
+    val result = Source(Seq(FirstRecordData, SecondRecordData).map(ByteString(_))) via
+      RecordIOFraming.encoder runWith
+      stringSeqSink
+
+    // Then
+    result.futureValue shouldBe Seq(FirstRecordWithPrefix, SecondRecordWithPrefix)
+  }
 }
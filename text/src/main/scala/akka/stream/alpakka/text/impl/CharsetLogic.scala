@@ -5,93 +5,244 @@
 package akka.stream.alpakka.text.impl
 
 import java.nio.{ByteBuffer, CharBuffer}
-import java.nio.charset.{Charset, CharsetDecoder, CharsetEncoder}
+import java.nio.charset.{Charset, StandardCharsets}
+import java.util.Arrays
 
 import akka.annotation.InternalApi
 import akka.stream.{FlowShape, Inlet, Outlet}
+import akka.stream.scaladsl.Framing.FramingException
 import akka.stream.stage.{GraphStageLogic, InHandler, OutHandler}
 import akka.util.ByteString
 
 /**
- * ByteBuffer to CharBuffer decoding logic.
+ * Decodes chunks of bytes into a char buffer which is reused for all chunks. Byte sequences which are
+ * incomplete at the end of a chunk are carried over and completed with the first bytes of the next chunk,
+ * so that chunks never need to be concatenated.
+ *
+ * Offsets into the `bytes` buffers are absolute, as buffers of [[akka.util.ByteString]]s may start at a
+ * position other than 0.
  */
 @InternalApi
-private[impl] trait Decoding {
-  protected def decoder: CharsetDecoder
+private[impl] final class ChunkDecoder(charset: Charset) {
+  private val decoder = charset.newDecoder()
+  private var chars = {
+    val empty = CharBuffer.allocate(1024)
+    empty.flip()
+    empty
+  }
+  private var carry = new Array[Byte](16)
+  private var carried = 0
+
+  def hasCarry: Boolean = carried > 0
 
-  protected def failStage(exception: Throwable): Unit
+  def carriedBytes: ByteString = ByteString.fromArray(carry, 0, carried)
+
+  /** Drops the decoded chars and makes room for decoding `length` more bytes. */
+  def clear(length: Int): Unit = {
+    val capacity = math.ceil((carried + length) * decoder.maxCharsPerByte().toDouble).toInt
+    if (chars.capacity < capacity) chars = CharBuffer.allocate(math.max(capacity, chars.capacity * 2))
+    else chars.clear()
+  }
 
   /**
-   * Decodes ByteBuffer and calls #decoded with results.
+   * Drops the chars read from the buffer returned by [[decoded]], but keeps the remaining ones in front of the
+   * chars decoded next. Makes room for decoding `length` more bytes.
    */
-  protected def decode(bytes: ByteBuffer): Unit = {
-    val chars = CharBuffer.allocate(bytes.limit())
-    val result = decoder.decode(bytes, chars, false)
-    if (result.isOverflow) {
-      failStage(new IllegalArgumentException(s"Incoming bytes decoded into more characters: $result"))
-    } else {
-      if (result.isError) {
-        result.throwException()
+  def compact(length: Int): Unit = {
+    val capacity = chars.remaining + math.ceil((carried + length) * decoder.maxCharsPerByte().toDouble).toInt
+    if (chars.capacity < capacity) {
+      val grown = CharBuffer.allocate(math.max(capacity, chars.capacity * 2))
+      grown.put(chars)
+      chars = grown
+    } else chars.compact()
+  }
+
+  /**
+   * Completes the carried over byte sequence with the first bytes of `bytes`.
+   * @return the offset of the first byte not consumed
+   */
+  def completeCarry(bytes: ByteBuffer): Int = {
+    var from = bytes.position()
+    val until = bytes.limit()
+    while (carried > 0 && from < until) {
+      if (carried == carry.length) carry = Arrays.copyOf(carry, carry.length * 2)
+      val count = math.min(carry.length - carried, until - from)
+      var i = 0
+      while (i < count) {
+        carry(carried + i) = bytes.get(from + i)
+        i += 1
+      }
+      val input = ByteBuffer.wrap(carry, 0, carried + count)
+      decodeInto(input)
+      val consumed = input.position()
+      if (consumed >= carried) {
+        from += consumed - carried
+        carried = 0
+      } else {
+        carried = carried + count - consumed
+        System.arraycopy(carry, consumed, carry, 0, carried)
+        from += count
       }
-      val count = chars.position()
-      chars.rewind()
-      decoded(chars, count, bytes)
     }
+    from
   }
 
   /**
-   * @param chars the characters successfully decoded
-   * @param count number of characters decoded (counted from chars.position)
-   * @param bytes remaining non-decoded bytes
+   * Decodes `bytes` from offset `from` and carries over the bytes of an incomplete sequence at the end.
+   * Requires the carried over bytes to be completed before.
    */
-  protected def decoded(chars: CharBuffer, count: Int, bytes: ByteBuffer): Unit
+  def decode(bytes: ByteBuffer, from: Int): Unit =
+    if (from < bytes.limit()) {
+      bytes.position(from)
+      decodeInto(bytes)
+      carried = bytes.remaining()
+      if (carried > carry.length) carry = new Array[Byte](carried)
+      bytes.get(carry, 0, carried)
+    }
 
+  /** The chars decoded since the last [[clear]] (or kept by [[compact]]), ready to be read. */
+  def decoded(): CharBuffer = {
+    chars.flip()
+    chars
+  }
+
+  private def decodeInto(bytes: ByteBuffer): Unit = {
+    val result = decoder.decode(bytes, chars, false)
+    if (result.isError) result.throwException()
+    else if (result.isOverflow)
+      throw new IllegalArgumentException(s"Incoming bytes decoded into more characters: $result")
+  }
 }
 
+/**
+ * Encodes chars into a byte buffer which is reused for all chunks.
+ */
 @InternalApi
-private[impl] trait Encoding {
-  protected def encoder: CharsetEncoder
+private[impl] final class ChunkEncoder(charset: Charset) {
+  private val encoder = charset.newEncoder()
+  private var bytes = ByteBuffer.allocate(1024)
+
+  def clear(): Unit = bytes.clear()
+
+  /** The buffer to write encoded bytes to, with room for at least `additional` more bytes. */
+  def reserve(additional: Int): ByteBuffer = {
+    if (bytes.remaining < additional) {
+      val grown = ByteBuffer.allocate(math.max(bytes.capacity * 2, bytes.position() + additional))
+      bytes.flip()
+      grown.put(bytes)
+      bytes = grown
+    }
+    bytes
+  }
 
-  protected def failStage(exception: Throwable): Unit
+  def encode(chars: CharBuffer): Unit =
+    if (chars.hasRemaining) {
+      reserve(math.ceil(chars.remaining * encoder.maxBytesPerChar().toDouble).toInt)
+      val result = encoder.encode(chars, bytes, false)
+      if (result.isError) result.throwException()
+      else if (result.isOverflow)
+        throw new IllegalArgumentException(s"Incoming chars decoded into more than expected characters: $result")
+      else if (chars.hasRemaining)
+        throw new IllegalStateException(s"Couldn't encode all characters: left-over '$chars'")
+    }
 
-  /**
-   * Creates new CharBuffer containing both Strings.
-   */
-  protected def toCharBuffer(current: String, input: String): CharBuffer = {
-    val chars = CharBuffer.allocate(input.length + current.length)
-    chars.append(current)
-    chars.append(input)
-    chars.rewind
-    chars
-  }
+  /** A copy of the bytes encoded since the last [[clear]]. */
+  def result(): ByteString = ByteString.fromArray(bytes.array, 0, bytes.position())
+}
+
+/**
+ * Transcodes bytes from one charset to another without decoding them into chars first. Stops at the first
+ * byte it can't transcode by itself (including incomplete sequences at the end of a chunk), which leaves
+ * anything else (and reporting errors) to the [[ChunkDecoder]] and [[ChunkEncoder]].
+ */
+@InternalApi
+private[impl] abstract class FastTranscoding {
 
   /**
-   * Decodes CharBuffer and calls #encoded with results.
+   * Transcodes `bytes` from offset `from` into `out`.
+   * @return the offset of the first byte not transcoded
    */
-  protected def encode(chars: CharBuffer): Unit = {
-    val bytes = ByteBuffer.allocate((chars.limit() * encoder.maxBytesPerChar().toDouble).toInt)
-    val result = encoder.encode(chars, bytes, false)
-    if (result.isOverflow) {
-      failStage(new IllegalArgumentException(s"Incoming chars decoded into more than expected characters: $result"))
-    } else {
-      if (result.isError) {
-        result.throwException()
+  def transcode(bytes: ByteBuffer, from: Int, out: ChunkEncoder): Int
+}
+
+@InternalApi
+private[impl] object FastTranscoding {
+  import StandardCharsets._
+
+  /** The fast path from `incoming` to `outgoing`, or `null` if there is none. */
+  def apply(incoming: Charset, outgoing: Charset): FastTranscoding =
+    if (incoming == UTF_8 && outgoing == ISO_8859_1) Utf8ToLatin1
+    else if (incoming == ISO_8859_1 && outgoing == UTF_8) Latin1ToUtf8
+    else if ((incoming == UTF_8 && outgoing == US_ASCII) || (incoming == US_ASCII && outgoing == UTF_8)) Ascii
+    else null
+
+  /** Copies ASCII bytes, which are the same in UTF-8 and US-ASCII. */
+  private object Ascii extends FastTranscoding {
+    override def transcode(bytes: ByteBuffer, from: Int, out: ChunkEncoder): Int = {
+      val until = bytes.limit()
+      var i = from
+      while (i < until && bytes.get(i) >= 0) i += 1
+      if (i > from) {
+        val target = out.reserve(i - from)
+        bytes.position(from)
+        bytes.limit(i)
+        target.put(bytes)
+        bytes.limit(until)
       }
-      val count = bytes.position()
-      bytes.rewind()
-      bytes.limit(count)
-      if (chars.position() != chars.limit())
-        failStage(new IllegalStateException(s"Couldn't encode all characters: left-over '$chars'"))
-      encoded(bytes, count)
+      i
     }
   }
 
-  /**
-   * @param buffer the bytes successfully encoded
-   * @param count number of bytes encoded (counted from bytes.position)
-   */
-  protected def encoded(buffer: ByteBuffer, count: Int): Unit
+  /** ISO-8859-1 maps each byte to the code point of the same value, which needs at most two bytes in UTF-8. */
+  private object Latin1ToUtf8 extends FastTranscoding {
+    override def transcode(bytes: ByteBuffer, from: Int, out: ChunkEncoder): Int = {
+      val until = bytes.limit()
+      val target = out.reserve((until - from) * 2)
+      val array = target.array
+      var pos = target.position()
+      var i = from
+      while (i < until) {
+        val b = bytes.get(i)
+        if (b >= 0) {
+          array(pos) = b
+          pos += 1
+        } else {
+          array(pos) = (0xC0 | ((b & 0xFF) >> 6)).toByte
+          array(pos + 1) = (0x80 | (b & 0x3F)).toByte
+          pos += 2
+        }
+        i += 1
+      }
+      target.position(pos)
+      until
+    }
+  }
 
+  /** Transcodes ASCII and the two-byte sequences `C2 xx` and `C3 xx` which encode U+0080 to U+00FF. */
+  private object Utf8ToLatin1 extends FastTranscoding {
+    override def transcode(bytes: ByteBuffer, from: Int, out: ChunkEncoder): Int = {
+      val until = bytes.limit()
+      val target = out.reserve(until - from)
+      val array = target.array
+      var pos = target.position()
+      var i = from
+      var transcodable = true
+      while (transcodable && i < until) {
+        val b = bytes.get(i)
+        if (b >= 0) {
+          array(pos) = b
+          pos += 1
+          i += 1
+        } else if ((b & 0xFE) == 0xC2 && i + 1 < until && (bytes.get(i + 1) & 0xC0) == 0x80) {
+          array(pos) = (((b & 0x03) << 6) | (bytes.get(i + 1) & 0x3F)).toByte
+          pos += 1
+          i += 2
+        } else transcodable = false
+      }
+      target.position(pos)
+      i
+    }
+  }
 }
 
 @InternalApi
@@ -100,32 +251,32 @@ private[impl] class DecodingLogic(in: Inlet[ByteString],
                                   shape: FlowShape[ByteString, String],
                                   incoming: Charset)
     extends GraphStageLogic(shape)
-    with Decoding
     with InHandler
     with OutHandler {
 
-  protected final val decoder = incoming.newDecoder()
-  private var buffer = ByteString.empty
+  private val decoder = new ChunkDecoder(incoming)
 
   setHandlers(in, out, this)
 
   override def onPull(): Unit = pull(in)
 
-  override def onPush(): Unit = decode(buffer.concat(grab(in)).asByteBuffer)
+  override def onPush(): Unit = {
+    val bytes = grab(in).asByteBuffer
+    decoder.clear(bytes.remaining)
+    decoder.decode(bytes, decoder.completeCarry(bytes))
+    val chars = decoder.decoded()
+    if (chars.hasRemaining) push(out, new String(chars.array, 0, chars.limit()))
+    else pull(in)
+  }
 
   override def onUpstreamFinish(): Unit = {
-    decode(buffer.asByteBuffer)
-    if (buffer.nonEmpty)
-      throw new IllegalArgumentException(s"Stray bytes at end of input that could not be decoded: $buffer")
+    if (decoder.hasCarry)
+      throw new IllegalArgumentException(
+        s"Stray bytes at end of input that could not be decoded: ${decoder.carriedBytes}"
+      )
     completeStage()
   }
 
-  override protected def decoded(chars: CharBuffer, count: Int, remainingBytes: ByteBuffer): Unit = {
-    if (count > 0) push(out, new String(chars.array, chars.position(), count))
-    else if (!isClosed(in)) pull(in)
-    buffer = ByteString.fromByteBuffer(remainingBytes)
-  }
-
 }
 
 private[impl] class EncodingLogic(in: Inlet[String],
@@ -133,66 +284,143 @@ private[impl] class EncodingLogic(in: Inlet[String],
                                   shape: FlowShape[String, ByteString],
                                   outgoing: Charset)
     extends GraphStageLogic(shape)
-    with Encoding
     with InHandler
     with OutHandler {
 
-  protected final val encoder = outgoing.newEncoder()
+  private val encoder = new ChunkEncoder(outgoing)
 
   setHandlers(in, out, this)
 
   override def onPull(): Unit = pull(in)
 
   override def onPush(): Unit = {
-    val input = grab(in)
-    val chars = toCharBuffer("", input)
-    encode(chars)
+    encoder.clear()
+    encoder.encode(CharBuffer.wrap(grab(in)))
+    val bytes = encoder.result()
+    if (bytes.nonEmpty) push(out, bytes)
+    else pull(in)
   }
 
   override def onUpstreamFinish(): Unit = completeStage()
 
-  protected def encoded(bytes: ByteBuffer, count: Int): Unit =
-    if (count > 0) push(out, ByteString.fromByteBuffer(bytes))
-    else if (!isClosed(in)) pull(in)
-
 }
 
+/**
+ * Decodes into and encodes from buffers which are reused for all chunks. For UTF-8 to and from ISO-8859-1 and
+ * US-ASCII, bytes are transcoded directly as far as possible.
+ */
 private[impl] class TranscodingLogic(in: Inlet[ByteString],
                                      out: Outlet[ByteString],
                                      shape: FlowShape[ByteString, ByteString],
                                      incoming: Charset,
                                      outgoing: Charset)
     extends GraphStageLogic(shape)
-    with Encoding
-    with Decoding
     with InHandler
     with OutHandler {
 
-  protected final val decoder = incoming.newDecoder()
-  protected final val encoder = outgoing.newEncoder()
-  private var buffer = ByteString.empty
+  private val decoder = new ChunkDecoder(incoming)
+  private val encoder = new ChunkEncoder(outgoing)
+  private val fastTranscoding = FastTranscoding(incoming, outgoing)
 
   setHandlers(in, out, this)
 
   override def onPull(): Unit = pull(in)
 
-  override def onPush(): Unit = decode(buffer.concat(grab(in)).asByteBuffer)
+  override def onPush(): Unit = {
+    val bytes = grab(in).asByteBuffer
+    decoder.clear(bytes.remaining)
+    encoder.clear()
+    var from = decoder.completeCarry(bytes)
+    if (fastTranscoding ne null) {
+      encoder.encode(decoder.decoded())
+      from = fastTranscoding.transcode(bytes, from, encoder)
+      decoder.clear(bytes.limit() - from)
+    }
+    decoder.decode(bytes, from)
+    encoder.encode(decoder.decoded())
+    val result = encoder.result()
+    if (result.nonEmpty) push(out, result)
+    else pull(in)
+  }
 
   override def onUpstreamFinish(): Unit = {
-    decode(buffer.asByteBuffer)
-    if (buffer.nonEmpty)
-      throw new IllegalArgumentException(s"Stray bytes at end of input that could not be decoded: $buffer")
+    if (decoder.hasCarry)
+      throw new IllegalArgumentException(
+        s"Stray bytes at end of input that could not be decoded: ${decoder.carriedBytes}"
+      )
     completeStage()
   }
 
-  override protected def decoded(chars: CharBuffer, count: Int, remainingBytes: ByteBuffer): Unit = {
-    chars.limit(count)
-    encode(chars)
-    buffer = ByteString.fromByteBuffer(remainingBytes)
+}
+
+/**
+ * Decodes bytes into the reused char buffer of a [[ChunkDecoder]] and splits the chars into lines in place.
+ * The incomplete last line stays in the buffer until more chars are decoded.
+ */
+@InternalApi
+private[impl] class LineDecodingLogic(in: Inlet[ByteString],
+                                      out: Outlet[String],
+                                      shape: FlowShape[ByteString, String],
+                                      incoming: Charset,
+                                      maxLineLength: Int)
+    extends GraphStageLogic(shape)
+    with InHandler
+    with OutHandler {
+
+  private val decoder = new ChunkDecoder(incoming)
+
+  /** Number of chars of the incomplete line already known not to contain a line feed. */
+  private var scanned = 0
+
+  setHandlers(in, out, this)
+
+  override def onPull(): Unit = pull(in)
+
+  override def onPush(): Unit = {
+    val bytes = grab(in).asByteBuffer
+    decoder.compact(bytes.remaining)
+    decoder.decode(bytes, decoder.completeCarry(bytes))
+    val lines = splitLines(decoder.decoded())
+    if (lines.nonEmpty) emitMultiple(out, lines)
+    else pull(in)
+  }
+
+  override def onUpstreamFinish(): Unit = {
+    if (decoder.hasCarry)
+      throw new IllegalArgumentException(
+        s"Stray bytes at end of input that could not be decoded: ${decoder.carriedBytes}"
+      )
+    decoder.compact(0)
+    val chars = decoder.decoded()
+    if (chars.hasRemaining) emit(out, chars.toString)
+    completeStage()
+  }
+
+  private def splitLines(chars: CharBuffer): List[String] = {
+    val array = chars.array
+    val end = chars.limit()
+    val lines = List.newBuilder[String]
+    var lineStart = chars.position()
+    var i = lineStart + scanned
+    while (i < end) {
+      if (array(i) == '\n') {
+        val lineEnd = if (i > lineStart && array(i - 1) == '\r') i - 1 else i
+        if (lineEnd - lineStart > maxLineLength) tooLong(lineEnd - lineStart)
+        lines += new String(array, lineStart, lineEnd - lineStart)
+        lineStart = i + 1
+      }
+      i += 1
+    }
+    chars.position(lineStart)
+    scanned = end - lineStart
+    // the last char may be the carriage return of a line of maximum length
+    if (scanned > maxLineLength + 1) tooLong(scanned)
+    lines.result()
   }
 
-  protected def encoded(bytes: ByteBuffer, count: Int): Unit =
-    if (count > 0) push(out, ByteString.fromByteBuffer(bytes))
-    else if (!isClosed(in)) pull(in)
+  private def tooLong(length: Int): Nothing =
+    throw new FramingException(
+      s"Read $length characters which is more than $maxLineLength without seeing a line terminator"
+    )
 
 }
@@ -8,7 +8,7 @@ import java.nio.charset.Charset
 
 import akka.NotUsed
 import akka.japi.function
-import akka.stream.alpakka.text.impl.{CharsetDecodingFlow, CharsetTranscodingFlow}
+import akka.stream.alpakka.text.impl.{CharsetDecodingFlow, CharsetLineDecodingFlow, CharsetTranscodingFlow}
 import akka.stream.javadsl.Flow
 import akka.util.ByteString
 
@@ -26,6 +26,20 @@ object TextFlow {
       .via(new CharsetDecodingFlow(incoming))
       .asJava
 
+  /**
+   * Decodes a stream of bytes into a stream of lines, using the supplied charset. Lines end with a line feed,
+   * optionally preceded by a carriage return, which are not part of the emitted lines. A last line without
+   * line feed is emitted when the stream completes.
+   *
+   * @param maxLineLength the maximum number of characters of a line, longer lines fail the stream with a
+   *                      [[akka.stream.scaladsl.Framing.FramingException]]
+   */
+  def decodeLines(incoming: Charset, maxLineLength: Int): Flow[ByteString, String, NotUsed] =
+    akka.stream.scaladsl
+      .Flow[ByteString]
+      .via(new CharsetLineDecodingFlow(incoming, maxLineLength))
+      .asJava
+
   /**
    * Decodes a stream of bytes into a stream of characters, using the supplied charset.
    */
@@ -7,7 +7,7 @@ package akka.stream.alpakka.text.scaladsl
 import java.nio.charset.Charset
 
 import akka.NotUsed
-import akka.stream.alpakka.text.impl.{CharsetDecodingFlow, CharsetTranscodingFlow}
+import akka.stream.alpakka.text.impl.{CharsetDecodingFlow, CharsetLineDecodingFlow, CharsetTranscodingFlow}
 import akka.stream.scaladsl.Flow
 import akka.util.ByteString
 
@@ -23,6 +23,18 @@ object TextFlow {
     Flow[ByteString]
       .via(new CharsetDecodingFlow(incoming))
 
+  /**
+   * Decodes a stream of bytes into a stream of lines, using the supplied charset. Lines end with a line feed,
+   * optionally preceded by a carriage return, which are not part of the emitted lines. A last line without
+   * line feed is emitted when the stream completes.
+   *
+   * @param maxLineLength the maximum number of characters of a line, longer lines fail the stream with a
+   *                      [[akka.stream.scaladsl.Framing.FramingException]]
+   */
+  def decodeLines(incoming: Charset, maxLineLength: Int): Flow[ByteString, String, NotUsed] =
+    Flow[ByteString]
+      .via(new CharsetLineDecodingFlow(incoming, maxLineLength))
+
   /**
    * Decodes a stream of bytes into a stream of characters, using the supplied charset.
    */
@@ -85,6 +85,24 @@ public class CharsetCodingFlowsDoc {
     assertEquals(Arrays.asList("äåûßêëé"), result);
   }
 
+  @Test
+  public void decodeLinesExample() throws Exception {
+    ByteString logBytes =
+        ByteString.fromString("first line\r\nsecond line\n", StandardCharsets.UTF_8);
+    // #decode-lines
+    Source<ByteString, ?> byteStringSource = // ...
+        // #decode-lines
+        Source.single(logBytes);
+    CompletionStage<List<String>> streamCompletion =
+        // #decode-lines
+        byteStringSource
+            .via(TextFlow.decodeLines(StandardCharsets.UTF_8, 8192))
+            .runWith(Sink.seq(), materializer);
+    // #decode-lines
+    List<String> result = streamCompletion.toCompletableFuture().get(1, TimeUnit.SECONDS);
+    assertEquals(Arrays.asList("first line", "second line"), result);
+  }
+
   @Test
   public void transcodingExample() throws Exception {
     Path targetFile = Paths.get("target/outdata.txt");
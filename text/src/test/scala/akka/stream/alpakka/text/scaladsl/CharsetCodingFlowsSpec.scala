@@ -4,12 +4,12 @@
 
 package akka.stream.alpakka.text.scaladsl
 
-import java.nio.charset.{Charset, StandardCharsets, UnmappableCharacterException}
+import java.nio.charset.{Charset, MalformedInputException, StandardCharsets, UnmappableCharacterException}
 import java.nio.file.Paths
 
 import akka.Done
 import akka.actor.ActorSystem
-import akka.stream.scaladsl.{Keep, Sink, Source}
+import akka.stream.scaladsl.{Framing, Keep, Sink, Source}
 import akka.stream.testkit.scaladsl.{TestSink, TestSource}
 import akka.stream.{ActorMaterializer, IOResult, Materializer}
 import akka.testkit.TestKit
@@ -93,6 +93,67 @@ class CharsetCodingFlowsSpec
       result.futureValue should be(Seq("äåûßêëé"))
     }
 
+    "work byte by byte for UTF-8" in {
+      val bytes = ByteString(multiByteChars, StandardCharsets.UTF_8)
+      val result = Source(bytes.sliding(1).toList)
+        .via(TextFlow.decoding(StandardCharsets.UTF_8))
+        .runWith(Sink.seq)
+      result.futureValue.mkString should be(multiByteChars)
+    }
+
+    "fail for stray bytes at the end" in {
+      val bytes = ByteString(multiByteChars, StandardCharsets.UTF_8)
+      recoverToSucceededIf[IllegalArgumentException] {
+        Source
+          .single(bytes.dropRight(1))
+          .via(TextFlow.decoding(StandardCharsets.UTF_8))
+          .runWith(Sink.ignore)
+      }
+    }
+
+  }
+
+  "Line decoding" should {
+    def decodeLines(chunks: immutable.Seq[ByteString], maxLineLength: Int = 100) =
+      Source(chunks)
+        .via(TextFlow.decodeLines(StandardCharsets.UTF_8, maxLineLength))
+        .runWith(Sink.seq)
+
+    "split lines on line feeds and carriage return line feeds" in {
+      decodeLines(List(ByteString("eins\nzwei\r\n\ndrei\n"))).futureValue should be(Seq("eins", "zwei", "", "drei"))
+    }
+
+    "emit the last line without line feed" in {
+      decodeLines(List(ByteString("eins\nzwei"))).futureValue should be(Seq("eins", "zwei"))
+    }
+
+    "work byte by byte" in {
+      val text = s"$multiByteChars\r\n$multiByteChars\n\n$multiByteChars"
+      val bytes = ByteString(text, StandardCharsets.UTF_8)
+      decodeLines(bytes.sliding(1).toList).futureValue should be(
+        Seq(multiByteChars, multiByteChars, "", multiByteChars)
+      )
+    }
+
+    "work for lines spanning several chunks" in {
+      val lines = (1 to 50).map(i => multiByteChars * (i % 4))
+      val bytes = ByteString(lines.mkString("\r\n"), StandardCharsets.UTF_8)
+      decodeLines(bytes.grouped(7).toList, maxLineLength = 200).futureValue should be(lines)
+    }
+
+    "accept lines of the maximum length" in {
+      decodeLines(List(ByteString("abcd\r"), ByteString("\nabcd")), maxLineLength = 4).futureValue should be(
+        Seq("abcd", "abcd")
+      )
+    }
+
+    "fail for lines longer than the maximum length" in {
+      decodeLines(List(ByteString("ab\nabcdef\n")), maxLineLength = 4).failed.futureValue shouldBe a[
+        Framing.FramingException
+      ]
+      val chunks = List(ByteString("abc"), ByteString("def"), ByteString("ghi"))
+      decodeLines(chunks, maxLineLength = 4).failed.futureValue shouldBe a[Framing.FramingException]
+    }
   }
 
   "Transcoding" should {
@@ -172,6 +233,48 @@ class CharsetCodingFlowsSpec
     "work for byte by byte windows-1252" in {
       verifyByteSends(Charset.forName("windows-1252"), StandardCharsets.UTF_8, "äåûßêëé")
     }
+
+    "work for UTF-8 to ISO-8859-1" in {
+      verifyTranscoding(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, "abc äåûßêëé ÿ¡")
+      verifyByteSends(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, "abc äåûßêëé ÿ¡")
+    }
+
+    "work for ISO-8859-1 to UTF-8" in {
+      verifyTranscoding(StandardCharsets.ISO_8859_1, StandardCharsets.UTF_8, "abc äåûßêëé ÿ¡")
+      verifyByteSends(StandardCharsets.ISO_8859_1, StandardCharsets.UTF_8, "abc äåûßêëé ÿ¡")
+    }
+
+    "work for UTF-8 to and from US-ASCII" in {
+      verifyTranscoding(StandardCharsets.UTF_8, StandardCharsets.US_ASCII, "eins,zwei,drei")
+      verifyTranscoding(StandardCharsets.US_ASCII, StandardCharsets.UTF_8, "eins,zwei,drei")
+    }
+
+    "work for chunks split within multi-byte characters" in {
+      val bytes = ByteString(multiByteChars * 3, StandardCharsets.UTF_8)
+      val result = Source(bytes.grouped(5).toList)
+        .via(TextFlow.transcoding(StandardCharsets.UTF_8, StandardCharsets.UTF_16LE))
+        .map(_.decodeString(StandardCharsets.UTF_16LE))
+        .runWith(Sink.seq)
+      result.futureValue.mkString should be(multiByteChars * 3)
+    }
+
+    "fail for chars not representable in ISO-8859-1" in {
+      recoverToSucceededIf[UnmappableCharacterException] {
+        Source
+          .single(ByteString("abc ä經", StandardCharsets.UTF_8))
+          .via(TextFlow.transcoding(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1))
+          .runWith(Sink.ignore)
+      }
+    }
+
+    "fail for non-ASCII bytes from US-ASCII" in {
+      recoverToSucceededIf[MalformedInputException] {
+        Source
+          .single(ByteString("abc ä", StandardCharsets.ISO_8859_1))
+          .via(TextFlow.transcoding(StandardCharsets.US_ASCII, StandardCharsets.UTF_8))
+          .runWith(Sink.ignore)
+      }
+    }
   }
 
 }
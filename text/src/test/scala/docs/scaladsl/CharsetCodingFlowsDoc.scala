@@ -88,6 +88,33 @@ class CharsetCodingFlowsDoc
 
   }
 
+  "Line decoding" should {
+    "be illustrated in a documentation example" in {
+      // format: off
+      // #decode-lines
+      import java.nio.charset.StandardCharsets
+      import akka.stream.alpakka.text.scaladsl.TextFlow
+
+      // #decode-lines
+      val logBytes = ByteString("first line\r\nsecond line\n", StandardCharsets.UTF_8)
+      // #decode-lines
+      val byteStringSource: Source[ByteString, _] = // ...
+        // #decode-lines
+        Source
+          .single(logBytes)
+      // #decode-lines
+
+      val result: Future[immutable.Seq[String]] =
+        byteStringSource
+          .via(TextFlow.decodeLines(StandardCharsets.UTF_8, maxLineLength = 8192))
+          .runWith(Sink.seq)
+      // #decode-lines
+      result.futureValue should be(Seq("first line", "second line"))
+      // format: on
+    }
+
+  }
+
   "Transcoding" should {
     "be illustrated in a documentation example" in {
       // format: off
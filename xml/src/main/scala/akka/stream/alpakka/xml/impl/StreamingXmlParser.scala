@@ -13,6 +13,7 @@ import com.fasterxml.aalto.stax.InputFactoryImpl
 import com.fasterxml.aalto.util.IllegalCharHandler.ReplacingIllegalCharHandler
 
 import scala.annotation.tailrec
+import scala.collection.immutable
 
 /**
  * INTERNAL API
@@ -26,92 +27,202 @@ import scala.annotation.tailrec
 
   override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
     new GraphStageLogic(shape) with InHandler with OutHandler {
-
-      import javax.xml.stream.XMLStreamConstants
-
-      private val factory: AsyncXMLInputFactory = new InputFactoryImpl()
-      configureFactory(factory)
-      private val parser: AsyncXMLStreamReader[AsyncByteArrayFeeder] = factory.createAsyncFor(Array.empty)
-      if (ignoreInvalidChars) {
-        parser.getConfig.setIllegalCharHandler(new ReplacingIllegalCharHandler(0))
-      }
+      private val reader = new XmlEventReader(ignoreInvalidChars, configureFactory)
 
       setHandlers(in, out, this)
 
       override def onPush(): Unit = {
-        val array = grab(in).toArray
-        parser.getInputFeeder.feedInput(array, 0, array.length)
+        reader.feed(grab(in))
         advanceParser()
       }
 
       override def onPull(): Unit = advanceParser()
 
       override def onUpstreamFinish(): Unit = {
-        parser.getInputFeeder.endOfInput()
-        if (!parser.hasNext) completeStage()
+        reader.endOfInput()
+        if (!reader.hasNext) completeStage()
         else if (isAvailable(out)) advanceParser()
       }
 
-      @tailrec private def advanceParser(): Unit =
-        if (parser.hasNext) {
-          parser.next() match {
-            case AsyncXMLStreamReader.EVENT_INCOMPLETE =>
-              if (!isClosed(in)) pull(in)
+      private def advanceParser(): Unit =
+        if (reader.hasNext) {
+          reader.next() match {
+            case null =>
+              if (!reader.hasNext) completeStage()
+              else if (!isClosed(in)) pull(in)
               else failStage(new IllegalStateException("Stream finished before event was fully parsed."))
 
-            case XMLStreamConstants.START_DOCUMENT =>
-              push(out, StartDocument)
-
-            case XMLStreamConstants.END_DOCUMENT =>
+            case EndDocument =>
               push(out, EndDocument)
               completeStage()
 
-            case XMLStreamConstants.START_ELEMENT =>
-              val attributes = (0 until parser.getAttributeCount).map { i =>
-                val optNs = Option(parser.getAttributeNamespace(i)).filterNot(_ == "")
-                val optPrefix = Option(parser.getAttributePrefix(i)).filterNot(_ == "")
-                Attribute(name = parser.getAttributeLocalName(i),
-                          value = parser.getAttributeValue(i),
-                          prefix = optPrefix,
-                          namespace = optNs)
-              }.toList
-              val namespaces = (0 until parser.getNamespaceCount).map { i =>
-                val namespace = parser.getNamespaceURI(i)
-                val optPrefix = Option(parser.getNamespacePrefix(i)).filterNot(_ == "")
-                Namespace(namespace, optPrefix)
-              }.toList
-              val optPrefix = Option(parser.getPrefix)
-              val optNs = optPrefix.flatMap(prefix => Option(parser.getNamespaceURI(prefix)))
-              push(
-                out,
-                StartElement(parser.getLocalName,
-                             attributes,
-                             optPrefix.filterNot(_ == ""),
-                             optNs.filterNot(_ == ""),
-                             namespaceCtx = namespaces)
-              )
-
-            case XMLStreamConstants.END_ELEMENT =>
-              push(out, EndElement(parser.getLocalName))
-
-            case XMLStreamConstants.CHARACTERS =>
-              push(out, Characters(parser.getText))
-
-            case XMLStreamConstants.PROCESSING_INSTRUCTION =>
-              push(out, ProcessingInstruction(Option(parser.getPITarget), Option(parser.getPIData)))
-
-            case XMLStreamConstants.COMMENT =>
-              push(out, Comment(parser.getText))
-
-            case XMLStreamConstants.CDATA =>
-              push(out, CData(parser.getText))
-
-            // Do not support DTD, SPACE, NAMESPACE, NOTATION_DECLARATION, ENTITY_DECLARATION, PROCESSING_INSTRUCTION
-            // ATTRIBUTE is handled in START_ELEMENT implicitly
-
-            case x =>
-              advanceParser()
+            case event =>
+              push(out, event)
           }
         } else completeStage()
     }
 }
+
+/**
+ * INTERNAL API
+ *
+ * Emits all events which can be parsed from the input received so far as one batch, instead of one
+ * stream element per event.
+ */
+@InternalApi private[xml] class StreamingXmlBatchParser(ignoreInvalidChars: Boolean,
+                                                        configureFactory: AsyncXMLInputFactory => Unit)
+    extends GraphStage[FlowShape[ByteString, immutable.Seq[ParseEvent]]] {
+  val in: Inlet[ByteString] = Inlet("XMLBatchParser.in")
+  val out: Outlet[immutable.Seq[ParseEvent]] = Outlet("XMLBatchParser.out")
+  override val shape: FlowShape[ByteString, immutable.Seq[ParseEvent]] = FlowShape(in, out)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private val reader = new XmlEventReader(ignoreInvalidChars, configureFactory)
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit = {
+        reader.feed(grab(in))
+        advanceParser()
+      }
+
+      override def onPull(): Unit = advanceParser()
+
+      override def onUpstreamFinish(): Unit = {
+        reader.endOfInput()
+        if (!reader.hasNext) completeStage()
+        else if (isAvailable(out)) advanceParser()
+      }
+
+      private def advanceParser(): Unit = {
+        val batch = Vector.newBuilder[ParseEvent]
+        var empty = true
+        var finished = false
+        var needsInput = false
+        while (!finished && !needsInput) {
+          if (!reader.hasNext) finished = true
+          else
+            reader.next() match {
+              case null =>
+                if (reader.hasNext) needsInput = true
+                else finished = true
+              case event =>
+                batch += event
+                empty = false
+                finished = event == EndDocument
+            }
+        }
+
+        if (!empty) push(out, batch.result())
+        if (finished) completeStage()
+        else if (empty) {
+          if (!isClosed(in)) pull(in)
+          else failStage(new IllegalStateException("Stream finished before event was fully parsed."))
+        }
+      }
+    }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Wraps Aalto's non-blocking parser and turns its events into [[ParseEvent]]s.
+ *
+ * Chunks are copied into an array which is reused, as the parser is done with its input once it asks for more.
+ */
+@InternalApi private[xml] final class XmlEventReader(ignoreInvalidChars: Boolean,
+                                                     configureFactory: AsyncXMLInputFactory => Unit) {
+  import javax.xml.stream.XMLStreamConstants
+
+  private val factory: AsyncXMLInputFactory = new InputFactoryImpl()
+  configureFactory(factory)
+  private val parser: AsyncXMLStreamReader[AsyncByteArrayFeeder] = factory.createAsyncFor(Array.empty)
+  if (ignoreInvalidChars) {
+    parser.getConfig.setIllegalCharHandler(new ReplacingIllegalCharHandler(0))
+  }
+
+  private var scratch = Array.emptyByteArray
+
+  def feed(bytes: ByteString): Unit = {
+    if (scratch.length < bytes.length) scratch = new Array[Byte](math.max(bytes.length, scratch.length * 2))
+    bytes.copyToArray(scratch, 0, bytes.length)
+    parser.getInputFeeder.feedInput(scratch, 0, bytes.length)
+  }
+
+  def endOfInput(): Unit = parser.getInputFeeder.endOfInput()
+
+  def hasNext: Boolean = parser.hasNext
+
+  /**
+   * Parses the next supported event.
+   *
+   * @return the event, or `null` if there is none to read yet; then [[hasNext]] tells whether more input is needed
+   */
+  @tailrec def next(): ParseEvent =
+    parser.next() match {
+      case AsyncXMLStreamReader.EVENT_INCOMPLETE =>
+        null
+
+      case XMLStreamConstants.START_DOCUMENT =>
+        StartDocument
+
+      case XMLStreamConstants.END_DOCUMENT =>
+        EndDocument
+
+      case XMLStreamConstants.START_ELEMENT =>
+        val optPrefix = Option(parser.getPrefix)
+        val optNs = optPrefix.flatMap(prefix => Option(parser.getNamespaceURI(prefix)))
+        StartElement(parser.getLocalName,
+                     attributes(),
+                     optPrefix.filterNot(_ == ""),
+                     optNs.filterNot(_ == ""),
+                     namespaceCtx = namespaces())
+
+      case XMLStreamConstants.END_ELEMENT =>
+        EndElement(parser.getLocalName)
+
+      case XMLStreamConstants.CHARACTERS =>
+        Characters(parser.getText)
+
+      case XMLStreamConstants.PROCESSING_INSTRUCTION =>
+        ProcessingInstruction(Option(parser.getPITarget), Option(parser.getPIData))
+
+      case XMLStreamConstants.COMMENT =>
+        Comment(parser.getText)
+
+      case XMLStreamConstants.CDATA =>
+        CData(parser.getText)
+
+      // Do not support DTD, SPACE, NAMESPACE, NOTATION_DECLARATION, ENTITY_DECLARATION, PROCESSING_INSTRUCTION
+      // ATTRIBUTE is handled in START_ELEMENT implicitly
+
+      case _ =>
+        if (parser.hasNext) next() else null
+    }
+
+  private def attributes(): List[Attribute] = {
+    var result = List.empty[Attribute]
+    var i = parser.getAttributeCount - 1
+    while (i >= 0) {
+      result = Attribute(name = parser.getAttributeLocalName(i),
+                         value = parser.getAttributeValue(i),
+                         prefix = nonEmpty(parser.getAttributePrefix(i)),
+                         namespace = nonEmpty(parser.getAttributeNamespace(i))) :: result
+      i -= 1
+    }
+    result
+  }
+
+  private def namespaces(): List[Namespace] = {
+    var result = List.empty[Namespace]
+    var i = parser.getNamespaceCount - 1
+    while (i >= 0) {
+      result = Namespace(parser.getNamespaceURI(i), nonEmpty(parser.getNamespacePrefix(i))) :: result
+      i -= 1
+    }
+    result
+  }
+
+  private def nonEmpty(s: String): Option[String] = if (s == null || s.isEmpty) None else Some(s)
+}
@@ -12,17 +12,26 @@ import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
 import akka.util.{ByteString, ByteStringBuilder}
 import javax.xml.stream.XMLOutputFactory
 
+import scala.collection.immutable
+
 /**
  * INTERNAL API
+ *
+ * Serializes parse events and collects the output until at least `flushThreshold` bytes are written or the
+ * document ends. With a threshold of 0 the output of every event is pushed on its own.
  */
-@InternalApi private[xml] class StreamingXmlWriter(charset: Charset, xmlOutputFactory: XMLOutputFactory)
-    extends GraphStage[FlowShape[ParseEvent, ByteString]] {
-
-  def this(charset: Charset) = this(charset, XMLOutputFactory.newInstance())
+@InternalApi private[xml] abstract class StreamingXmlWriterBase[T](charset: Charset,
+                                                                  xmlOutputFactory: XMLOutputFactory,
+                                                                  flushThreshold: Int)
+    extends GraphStage[FlowShape[T, ByteString]] {
+  require(flushThreshold >= 0, "flushThreshold must not be negative")
 
-  val in: Inlet[ParseEvent] = Inlet("XMLWriter.in")
+  val in: Inlet[T] = Inlet("XMLWriter.in")
   val out: Outlet[ByteString] = Outlet("XMLWriter.out")
-  override val shape: FlowShape[ParseEvent, ByteString] = FlowShape(in, out)
+  override val shape: FlowShape[T, ByteString] = FlowShape(in, out)
+
+  /** Calls `write` for all events in `elem`. */
+  protected def foreachEvent(elem: T)(write: ParseEvent => Unit): Unit
 
   override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
     new GraphStageLogic(shape) with InHandler with OutHandler {
@@ -30,6 +39,9 @@ import javax.xml.stream.XMLOutputFactory
 
       val output = xmlOutputFactory.createXMLStreamWriter(byteStringBuilder.asOutputStream, charset.name())
 
+      private var documentEnded = false
+      private val writeEvent: ParseEvent => Unit = write
+
       setHandlers(in, out, this)
 
       def writeAttributes(attributes: List[Attribute]): Unit =
@@ -48,13 +60,29 @@ import javax.xml.stream.XMLOutputFactory
         }
 
       override def onPush(): Unit = {
-        val ev: ParseEvent = grab(in)
+        documentEnded = false
+        foreachEvent(grab(in))(writeEvent)
+        if (documentEnded) {
+          output.flush()
+          if (byteStringBuilder.length > 0) pushBuffered()
+          else pull(in)
+        } else if (byteStringBuilder.length >= flushThreshold) pushBuffered()
+        else pull(in)
+      }
+
+      private def pushBuffered(): Unit = {
+        push(out, byteStringBuilder.result().compact)
+        byteStringBuilder.clear()
+      }
+
+      private def write(ev: ParseEvent): Unit =
         ev match {
           case StartDocument =>
             output.writeStartDocument()
 
           case EndDocument =>
             output.writeEndDocument()
+            documentEnded = true
 
           case StartElement(localName, attributes, optPrefix, Some(namespace), namespaceCtx) =>
             val prefix = optPrefix.getOrElse("")
@@ -93,9 +121,6 @@ import javax.xml.stream.XMLOutputFactory
           case CData(text) =>
             output.writeCData(text)
         }
-        push(out, byteStringBuilder.result().compact)
-        byteStringBuilder.clear()
-      }
 
       override def onPull(): Unit = pull(in)
 
@@ -109,3 +134,30 @@ import javax.xml.stream.XMLOutputFactory
       }
     }
 }
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[xml] class StreamingXmlWriter(charset: Charset,
+                                                   xmlOutputFactory: XMLOutputFactory,
+                                                   flushThreshold: Int)
+    extends StreamingXmlWriterBase[ParseEvent](charset, xmlOutputFactory, flushThreshold) {
+
+  def this(charset: Charset, xmlOutputFactory: XMLOutputFactory) = this(charset, xmlOutputFactory, 0)
+
+  def this(charset: Charset) = this(charset, XMLOutputFactory.newInstance())
+
+  override protected def foreachEvent(elem: ParseEvent)(write: ParseEvent => Unit): Unit = write(elem)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[xml] class StreamingXmlBatchWriter(charset: Charset,
+                                                        xmlOutputFactory: XMLOutputFactory,
+                                                        flushThreshold: Int)
+    extends StreamingXmlWriterBase[immutable.Seq[ParseEvent]](charset, xmlOutputFactory, flushThreshold) {
+
+  override protected def foreachEvent(elem: immutable.Seq[ParseEvent])(write: ParseEvent => Unit): Unit =
+    elem.foreach(write)
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016-2019 Lightbend Inc. <http://www.lightbend.com>
+ */
+
+package akka.stream.alpakka.xml.impl
+import java.util.Arrays
+
+import akka.annotation.InternalApi
+import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+import akka.stream.alpakka.xml._
+import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler, OutHandler}
+import javax.xml.parsers.DocumentBuilderFactory
+import org.w3c.dom.{Document, Element}
+
+import scala.collection.immutable
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[xml] object Subtrees {
+
+  /** A node of the trie of element names, with the indices of the paths ending at it. */
+  final class Node(val children: Map[String, Node], val pathIndices: List[Int])
+
+  def compile(paths: immutable.Seq[immutable.Seq[String]]): Node = {
+    def build(indexedPaths: immutable.Seq[(immutable.Seq[String], Int)]): Node = {
+      val (ending, continuing) = indexedPaths.partition(_._1.isEmpty)
+      val children = continuing.groupBy(_._1.head).map {
+        case (name, group) => name -> build(group.map { case (path, index) => (path.tail, index) })
+      }
+      new Node(children, ending.map(_._2).toList)
+    }
+    build(paths.zipWithIndex)
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Emits the elements of all `paths` in one pass over the events, tagged with the index of the matching path.
+ * The paths are compiled into a trie which is descended along with the document, so that each event is matched
+ * once no matter how many paths there are. Elements of a path nested within an element of another path are
+ * emitted as copies.
+ */
+@InternalApi private[xml] class Subtrees(paths: immutable.Seq[immutable.Seq[String]])
+    extends GraphStage[FlowShape[ParseEvent, (Int, Element)]] {
+  import Subtrees._
+
+  require(paths.nonEmpty, "at least one path is required")
+  require(paths.forall(_.nonEmpty), "paths must not be empty")
+
+  val in: Inlet[ParseEvent] = Inlet("XMLSubtrees.in")
+  val out: Outlet[(Int, Element)] = Outlet("XMLSubtrees.out")
+  override val shape: FlowShape[ParseEvent, (Int, Element)] = FlowShape(in, out)
+
+  private val root = compile(paths)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private val doc: Document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()
+
+      private var depth = 0
+      // per element depth: the trie node reached, or null if no path leads there
+      private var nodes = new Array[Node](16)
+      // per element depth: the element being built, or null if not within a matched element
+      private var elements = new Array[Element](16)
+      // depth of the outermost matched element being built, -1 if none
+      private var buildFrom = -1
+
+      setHandlers(in, out, this)
+
+      override def onPull(): Unit = pull(in)
+
+      override def onPush(): Unit = grab(in) match {
+        case start: StartElement =>
+          startElement(start)
+          pull(in)
+        case _: EndElement =>
+          val ready = endElement()
+          if (ready.nonEmpty) emitMultiple(out, ready)
+          else pull(in)
+        case cdata: CData =>
+          if (buildFrom >= 0) elements(depth - 1).appendChild(doc.createCDATASection(cdata.text))
+          pull(in)
+        case text: TextEvent =>
+          if (buildFrom >= 0) elements(depth - 1).appendChild(doc.createTextNode(text.text))
+          pull(in)
+        case _ =>
+          pull(in)
+      }
+
+      private def startElement(start: StartElement): Unit = {
+        if (depth == nodes.length) {
+          nodes = Arrays.copyOf(nodes, depth * 2)
+          elements = Arrays.copyOf(elements, depth * 2)
+        }
+        val parent = if (depth == 0) root else nodes(depth - 1)
+        val node = if (parent == null) null else parent.children.getOrElse(start.localName, null)
+        nodes(depth) = node
+        if (buildFrom >= 0 || (node != null && node.pathIndices.nonEmpty)) {
+          val element = createElement(start)
+          if (buildFrom >= 0) elements(depth - 1).appendChild(element)
+          else buildFrom = depth
+          elements(depth) = element
+        }
+        depth += 1
+      }
+
+      private def endElement(): List[(Int, Element)] = {
+        depth -= 1
+        val node = nodes(depth)
+        val element = elements(depth)
+        nodes(depth) = null
+        elements(depth) = null
+        if (depth == buildFrom) buildFrom = -1
+        if (node == null || node.pathIndices.isEmpty) Nil
+        else {
+          // hand out the element itself only if it is not part of an enclosing element still being built
+          val own = buildFrom < 0
+          node.pathIndices.zipWithIndex.map {
+            case (pathIndex, i) =>
+              if (own && i == 0) (pathIndex, element)
+              else (pathIndex, element.cloneNode(true).asInstanceOf[Element])
+          }
+        }
+      }
+
+      private def createElement(start: StartElement): Element = {
+        val element = start.namespace match {
+          case Some(ns) => doc.createElementNS(ns, start.localName)
+          case None => doc.createElement(start.localName)
+        }
+        start.attributesList.foreach { attribute =>
+          element.setAttribute(attribute.name, attribute.value)
+        }
+        element
+      }
+    }
+}
@@ -5,6 +5,7 @@
 package akka.stream.alpakka.xml.javadsl
 
 import akka.NotUsed
+import akka.japi.Pair
 import akka.stream.alpakka.xml
 import akka.stream.alpakka.xml.ParseEvent
 import akka.util.ByteString
@@ -46,6 +47,23 @@ object XmlParsing {
   ): akka.stream.javadsl.Flow[ByteString, ParseEvent, NotUsed] =
     xml.scaladsl.XmlParsing.parser(ignoreInvalidChars, configureFactory.accept(_)).asJava
 
+  /**
+   * Parser Flow that takes a stream of ByteStrings and parses them to XML events similar to SAX. All events which
+   * can be parsed from the input received so far are emitted together, which avoids a stream element per event.
+   */
+  def batchParser(): akka.stream.javadsl.Flow[ByteString, java.util.List[ParseEvent], NotUsed] =
+    xml.scaladsl.XmlParsing.batchParser().map(_.asJava).asJava
+
+  /**
+   * Parser Flow that takes a stream of ByteStrings and parses them to XML events similar to SAX. All events which
+   * can be parsed from the input received so far are emitted together, which avoids a stream element per event.
+   */
+  def batchParser(
+      ignoreInvalidChars: Boolean,
+      configureFactory: Consumer[AsyncXMLInputFactory]
+  ): akka.stream.javadsl.Flow[ByteString, java.util.List[ParseEvent], NotUsed] =
+    xml.scaladsl.XmlParsing.batchParser(ignoreInvalidChars, configureFactory.accept(_)).map(_.asJava).asJava
+
   /**
    * A Flow that transforms a stream of XML ParseEvents. This stage coalesces consequitive CData and Characters
    * events into a single Characters event or fails if the buffered string is larger than the maximum defined.
@@ -67,4 +85,17 @@ object XmlParsing {
    */
   def subtree(path: java.util.Collection[String]): akka.stream.javadsl.Flow[ParseEvent, Element, NotUsed] =
     xml.scaladsl.XmlParsing.subtree(path.asScala.toIndexedSeq).asJava
+
+  /**
+   * A Flow that transforms a stream of XML ParseEvents. This stage pushes elements of any of the given paths in
+   * the XML document as org.w3c.dom.Element, tagged with the index of the matching path in `paths`. All paths are
+   * matched in a single pass over the events.
+   */
+  def subtrees(
+      paths: java.util.List[_ <: java.util.Collection[String]]
+  ): akka.stream.javadsl.Flow[ParseEvent, Pair[Integer, Element], NotUsed] =
+    xml.scaladsl.XmlParsing
+      .subtrees(paths.asScala.map(_.asScala.toIndexedSeq).toIndexedSeq)
+      .map { case (index, element) => Pair(Int.box(index), element) }
+      .asJava
 }
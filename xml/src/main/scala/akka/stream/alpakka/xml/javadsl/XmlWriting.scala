@@ -14,6 +14,8 @@ import akka.util.ByteString
 
 import javax.xml.stream.XMLOutputFactory
 
+import scala.collection.JavaConverters._
+
 object XmlWriting {
 
   /**
@@ -46,4 +48,26 @@ object XmlWriting {
              xmlOutputFactory: XMLOutputFactory): akka.stream.javadsl.Flow[ParseEvent, ByteString, NotUsed] =
     Flow.fromGraph(new impl.StreamingXmlWriter(charset, xmlOutputFactory)).asJava
 
+  /**
+   * Writer Flow that takes a stream of XML events similar to SAX and write ByteStrings.
+   * The output is collected until at least `flushThreshold` bytes are written or the document ends.
+   * @param charset encoding of the stream
+   * @param flushThreshold number of bytes to collect before emitting them
+   */
+  def writer(charset: Charset, flushThreshold: Int): akka.stream.javadsl.Flow[ParseEvent, ByteString, NotUsed] =
+    Flow.fromGraph(new impl.StreamingXmlWriter(charset, XMLOutputFactory.newInstance(), flushThreshold)).asJava
+
+  /**
+   * Writer Flow that takes a stream of batches of XML events similar to SAX and write ByteStrings.
+   * The output is collected until at least `flushThreshold` bytes are written or the document ends.
+   * @param charset encoding of the stream
+   * @param flushThreshold number of bytes to collect before emitting them
+   */
+  def batchWriter(charset: Charset,
+                  flushThreshold: Int): akka.stream.javadsl.Flow[java.util.List[ParseEvent], ByteString, NotUsed] =
+    Flow[java.util.List[ParseEvent]]
+      .map(_.asScala.toVector)
+      .via(new impl.StreamingXmlBatchWriter(charset, XMLOutputFactory.newInstance(), flushThreshold))
+      .asJava
+
 }
@@ -42,6 +42,16 @@ object XmlParsing {
              configureFactory: AsyncXMLInputFactory => Unit = configureDefault): Flow[ByteString, ParseEvent, NotUsed] =
     Flow.fromGraph(new impl.StreamingXmlParser(ignoreInvalidChars, configureFactory))
 
+  /**
+   * Parser Flow that takes a stream of ByteStrings and parses them to XML events similar to SAX. All events which
+   * can be parsed from the input received so far are emitted together, which avoids a stream element per event.
+   */
+  def batchParser(
+      ignoreInvalidChars: Boolean = false,
+      configureFactory: AsyncXMLInputFactory => Unit = configureDefault
+  ): Flow[ByteString, immutable.Seq[ParseEvent], NotUsed] =
+    Flow.fromGraph(new impl.StreamingXmlBatchParser(ignoreInvalidChars, configureFactory))
+
   /**
    * A Flow that transforms a stream of XML ParseEvents. This stage coalesces consecutive CData and Characters
    * events into a single Characters event or fails if the buffered string is larger than the maximum defined.
@@ -64,4 +74,12 @@ object XmlParsing {
   def subtree(path: immutable.Seq[String]): Flow[ParseEvent, Element, NotUsed] =
     Flow.fromGraph(new impl.Subtree(path))
 
+  /**
+   * A Flow that transforms a stream of XML ParseEvents. This stage pushes elements of any of the given paths in
+   * the XML document as org.w3c.dom.Element, tagged with the index of the matching path in `paths`. All paths are
+   * matched in a single pass over the events.
+   */
+  def subtrees(paths: immutable.Seq[immutable.Seq[String]]): Flow[ParseEvent, (Int, Element), NotUsed] =
+    Flow.fromGraph(new impl.Subtrees(paths))
+
 }
@@ -14,6 +14,8 @@ import akka.util.ByteString
 
 import javax.xml.stream.XMLOutputFactory
 
+import scala.collection.immutable
+
 object XmlWriting {
 
   /**
@@ -39,6 +41,24 @@ object XmlWriting {
   def writer(charset: Charset, xmlOutputFactory: XMLOutputFactory): Flow[ParseEvent, ByteString, NotUsed] =
     Flow.fromGraph(new impl.StreamingXmlWriter(charset, xmlOutputFactory))
 
+  /**
+   * Writer Flow that takes a stream of XML events similar to SAX and write ByteStrings.
+   * The output is collected until at least `flushThreshold` bytes are written or the document ends.
+   * @param charset charset of encoding
+   * @param flushThreshold number of bytes to collect before emitting them
+   */
+  def writer(charset: Charset, flushThreshold: Int): Flow[ParseEvent, ByteString, NotUsed] =
+    Flow.fromGraph(new impl.StreamingXmlWriter(charset, XMLOutputFactory.newInstance(), flushThreshold))
+
+  /**
+   * Writer Flow that takes a stream of batches of XML events similar to SAX and write ByteStrings.
+   * The output is collected until at least `flushThreshold` bytes are written or the document ends.
+   * @param charset charset of encoding
+   * @param flushThreshold number of bytes to collect before emitting them
+   */
+  def batchWriter(charset: Charset, flushThreshold: Int): Flow[immutable.Seq[ParseEvent], ByteString, NotUsed] =
+    Flow.fromGraph(new impl.StreamingXmlBatchWriter(charset, XMLOutputFactory.newInstance(), flushThreshold))
+
   /**
    * Writer Flow that takes a stream of XML events similar to SAX and write ByteStrings.
    * encoding UTF-8
@@ -354,6 +354,43 @@ class XmlProcessingSpec extends WordSpec with Matchers with ScalaFutures with Be
       configWasCalled shouldBe true
     }
 
+    "emit the same events in batches" in {
+      val doc = """<?xml version="1.0"?><doc xmlns:x="test:xml:0.1"><x:elem a="1" x:b="2">elem1</x:elem>""" +
+        """<!--c--><elem><![CDATA[data]]></elem></doc>"""
+      val expected = Source.single(doc).runWith(parse).futureValue
+
+      for (size <- Seq(1, 3, 7, doc.length)) {
+        // slices of one array as well as concatenated chunks
+        val sliced = ByteString(doc).grouped(size).toList
+        val concatenated = sliced.grouped(2).map(_.reduce(_ ++ _)).toList
+        for (chunks <- Seq(sliced, concatenated)) {
+          val batches = Source(chunks).via(XmlParsing.batchParser()).runWith(Sink.seq).futureValue
+          batches.foreach(_ should not be empty)
+          batches.flatten should ===(expected)
+        }
+      }
+    }
+
+    "emit all events of a chunk in one batch" in {
+      val batches = Source
+        .single(ByteString("<doc><elem>elem1</elem></doc>"))
+        .via(XmlParsing.batchParser())
+        .runWith(Sink.seq)
+        .futureValue
+      batches.head.take(5) should ===(
+        List(StartDocument, StartElement("doc"), StartElement("elem"), Characters("elem1"), EndElement("elem"))
+      )
+      batches.flatten.last should ===(EndDocument)
+    }
+
+    "fail batch parsing if the document is incomplete" in {
+      val result = Source
+        .single(ByteString("<doc><elem>elem1</elem>"))
+        .via(XmlParsing.batchParser())
+        .runWith(Sink.seq)
+      result.failed.futureValue shouldBe an[Exception]
+    }
+
   }
 
   override protected def afterAll(): Unit = system.terminate()
@@ -160,5 +160,68 @@ class XmlSubtreeSpec extends WordSpec with Matchers with BeforeAndAfterAll {
 
   }
 
+  "XML subtrees support" must {
+
+    val doc =
+      """
+        |<doc>
+        |  <meta><title>t</title></meta>
+        |  <elem>
+        |    <item>i1</item>
+        |    <other>o1</other>
+        |    <item><sub>i2</sub></item>
+        |  </elem>
+        |  <elem><item>i3</item></elem>
+        |</doc>
+      """.stripMargin
+
+    def subtrees(paths: List[String]*) =
+      Await.result(
+        Source
+          .single(ByteString(doc))
+          .via(XmlParsing.parser)
+          .via(XmlParsing.subtrees(paths.toList))
+          .map { case (index, element) => index -> XmlHelper.asString(element).trim }
+          .runWith(Sink.seq),
+        3.seconds
+      )
+
+    "extract the elements of several paths in document order" in {
+      subtrees(
+        "doc" :: "elem" :: "item" :: Nil,
+        "doc" :: "meta" :: "title" :: Nil,
+        "doc" :: "elem" :: "other" :: Nil
+      ) should ===(
+        Seq(
+          1 -> "<title>t</title>",
+          0 -> "<item>i1</item>",
+          2 -> "<other>o1</other>",
+          0 -> "<item><sub>i2</sub></item>",
+          0 -> "<item>i3</item>"
+        )
+      )
+    }
+
+    "extract elements nested within elements of another path" in {
+      subtrees("doc" :: "elem" :: Nil, "doc" :: "elem" :: "item" :: "sub" :: Nil) should ===(
+        Seq(
+          1 -> "<sub>i2</sub>",
+          0 -> """<elem>
+                 |    <item>i1</item>
+                 |    <other>o1</other>
+                 |    <item><sub>i2</sub></item>
+                 |  </elem>""".stripMargin,
+          0 -> "<elem><item>i3</item></elem>"
+        )
+      )
+    }
+
+    "extract an element once per matching path" in {
+      subtrees("doc" :: "meta" :: Nil, "doc" :: "meta" :: Nil) should ===(
+        Seq(0 -> "<meta><title>t</title></meta>", 1 -> "<meta><title>t</title></meta>")
+      )
+    }
+  }
+
   override protected def afterAll(): Unit = system.terminate()
 }
@@ -4,6 +4,8 @@
 
 package docs.scaladsl
 
+import java.nio.charset.StandardCharsets
+
 import akka.actor.ActorSystem
 import akka.stream.{ActorMaterializer, Materializer}
 import akka.stream.alpakka.xml._
@@ -14,6 +16,7 @@ import org.scalatest.concurrent.PatienceConfiguration.Timeout
 import org.scalatest.concurrent.ScalaFutures
 import org.scalatest.{BeforeAndAfterAll, Matchers, WordSpec}
 
+import scala.collection.immutable
 import scala.concurrent.Future
 import scala.concurrent.duration._
 
@@ -231,6 +234,39 @@ class XmlWritingSpec extends WordSpec with Matchers with BeforeAndAfterAll with
       resultFuture.futureValue(Timeout(20.seconds)) should ===(doc)
     }
 
+    "collect the output until the flush threshold is reached" in {
+      val items = (1 to 100).toList.flatMap { i =>
+        List(StartElement("elem"), Characters(s"elem$i"), EndElement("elem"))
+      }
+      val listEl: List[ParseEvent] =
+        StartDocument :: StartElement("doc") :: items ::: List(EndElement("doc"), EndDocument)
+
+      val expected = Source(listEl).runWith(writer).futureValue(Timeout(20.seconds))
+      val chunks = Source(listEl)
+        .via(XmlWriting.writer(StandardCharsets.UTF_8, 256))
+        .runWith(Sink.seq)
+        .futureValue(Timeout(20.seconds))
+
+      chunks.map(_.utf8String).mkString should ===(expected)
+      chunks.size should be < listEl.size / 10
+      chunks.init.foreach(_.length should be >= 256)
+    }
+
+    "write batches of events" in {
+      val batches: List[immutable.Seq[ParseEvent]] = List(
+        List(StartDocument, StartElement("doc"), StartElement("elem")),
+        List(Characters("elem1"), EndElement("elem"), StartElement("elem"), Characters("elem2")),
+        List(EndElement("elem"), EndElement("doc"), EndDocument)
+      )
+
+      val doc = "<?xml version='1.0' encoding='UTF-8'?><doc><elem>elem1</elem><elem>elem2</elem></doc>"
+      val chunks = Source(batches)
+        .via(XmlWriting.batchWriter(StandardCharsets.UTF_8, 8 * 1024))
+        .runWith(Sink.seq)
+        .futureValue(Timeout(20.seconds))
+
+      chunks.map(_.utf8String) should ===(Seq(doc))
+    }
   }
 
   override protected def afterAll(): Unit = system.terminate()